@@ -0,0 +1,41 @@
+package org.javafling.pokerenlighter.benchmark;
+
+import org.javafling.pokerenlighter.combination.Card;
+import org.javafling.pokerenlighter.combination.Deck;
+
+/**
+ * Random cards for the benchmarks. They are generated before the measurements, so that the benchmarks
+ * measure only the code that uses them.
+ *
+ * @author Radu Murzea
+ */
+final class BenchmarkCards
+{
+    private BenchmarkCards()
+    {
+    }
+
+    /**
+     * Generates random hands.
+     *
+     * @param nrHands the number of hands.
+     * @param size the number of cards in a hand (all of them different).
+     *
+     * @return the hands.
+     */
+    static Card[][] getRandomHands(int nrHands, int size)
+    {
+        Deck deck = new Deck();
+        Card[][] hands = new Card[nrHands][size];
+
+        for (int i = 0; i < nrHands; i++) {
+            deck.deal(size);
+
+            for (int j = 0; j < size; j++) {
+                hands[i][j] = deck.getCard(j);
+            }
+        }
+
+        return hands;
+    }
+}
@@ -0,0 +1,117 @@
+package org.javafling.pokerenlighter.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.javafling.pokerenlighter.combination.Card;
+import org.javafling.pokerenlighter.combination.CardSet;
+import org.javafling.pokerenlighter.combination.FiveCardOmahaCombination;
+import org.javafling.pokerenlighter.combination.LookupTableEvaluator;
+import org.javafling.pokerenlighter.combination.OmahaCombination;
+import org.javafling.pokerenlighter.combination.OmahaEvaluator;
+import org.javafling.pokerenlighter.combination.TexasCombination;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how many hands can be evaluated per second. Every benchmark evaluates a different random
+ * hand each time, so that the results are not distorted by a single, predictable hand.
+ * <br /><br />
+ * The combination classes determine the hand rank of a hand; the evaluators used by the simulations
+ * are measured too, for comparison.
+ *
+ * @author Radu Murzea
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CombinationBenchmark
+{
+    //the number of different hands of every kind. it must be a power of 2
+    private static final int NR_HANDS = 1024;
+
+    private Card[][] texasHands, omahaHands, fiveCardOmahaHands;
+    private long[] texasMasks;
+
+    private TexasCombination texasCombination;
+    private OmahaCombination omahaCombination;
+    private FiveCardOmahaCombination fiveCardOmahaCombination;
+
+    private int next;
+
+    @Setup
+    public void setUp()
+    {
+        texasHands = BenchmarkCards.getRandomHands(NR_HANDS, 7);
+        omahaHands = BenchmarkCards.getRandomHands(NR_HANDS, 9);
+        fiveCardOmahaHands = BenchmarkCards.getRandomHands(NR_HANDS, 10);
+
+        texasMasks = new long[NR_HANDS];
+        for (int i = 0; i < NR_HANDS; i++) {
+            texasMasks[i] = CardSet.getMask(texasHands[i]);
+        }
+
+        texasCombination = new TexasCombination(texasHands[0]);
+        omahaCombination = new OmahaCombination(omahaHands[0]);
+        fiveCardOmahaCombination = new FiveCardOmahaCombination(fiveCardOmahaHands[0]);
+    }
+
+    //returns the index of the next hand
+    private int nextHand()
+    {
+        next = (next + 1) & (NR_HANDS - 1);
+
+        return next;
+    }
+
+    @Benchmark
+    public int texasCombination()
+    {
+        texasCombination.setCards(texasHands[nextHand()]);
+
+        return texasCombination.getCombinationRank();
+    }
+
+    @Benchmark
+    public int omahaCombination()
+    {
+        omahaCombination.setCards(omahaHands[nextHand()]);
+
+        return omahaCombination.getCombinationRank();
+    }
+
+    @Benchmark
+    public int fiveCardOmahaCombination()
+    {
+        fiveCardOmahaCombination.setCards(fiveCardOmahaHands[nextHand()]);
+
+        return fiveCardOmahaCombination.getCombinationRank();
+    }
+
+    @Benchmark
+    public int lookupTableEvaluator()
+    {
+        return LookupTableEvaluator.evaluate(texasMasks[nextHand()]);
+    }
+
+    @Benchmark
+    public int omahaEvaluator()
+    {
+        return OmahaEvaluator.evaluate(omahaHands[nextHand()]);
+    }
+
+    @Benchmark
+    public int fiveCardOmahaEvaluator()
+    {
+        return OmahaEvaluator.evaluate(fiveCardOmahaHands[nextHand()]);
+    }
+}
@@ -0,0 +1,78 @@
+package org.javafling.pokerenlighter.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.javafling.pokerenlighter.combination.Card;
+import org.javafling.pokerenlighter.combination.Deck;
+import org.javafling.pokerenlighter.combination.HighQualityRandomGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the shuffling and dealing of a <code>Deck</code> and the random number generator behind them.
+ *
+ * @author Radu Murzea
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DeckBenchmark
+{
+    private Deck deck;
+    private HighQualityRandomGenerator rand;
+
+    @Setup
+    public void setUp()
+    {
+        deck = new Deck();
+        rand = new HighQualityRandomGenerator();
+    }
+
+    @Benchmark
+    public Card shuffle()
+    {
+        deck.shuffle(5);
+
+        return deck.getCard(0);
+    }
+
+    //the cards of a heads-up Texas Hold'em round with random hands: 2 * 2 hole cards and the board
+    @Benchmark
+    public Card dealHeadsUp()
+    {
+        deck.deal(9);
+
+        return deck.getCard(8);
+    }
+
+    //the cards of a 9-player Texas Hold'em round with random hands: 9 * 2 hole cards and the board
+    @Benchmark
+    public Card dealNinePlayers()
+    {
+        deck.deal(23);
+
+        return deck.getCard(22);
+    }
+
+    @Benchmark
+    public long nextLong()
+    {
+        return rand.nextLong();
+    }
+
+    @Benchmark
+    public int nextBoundedInt()
+    {
+        return rand.nextBoundedInt(52);
+    }
+}
@@ -0,0 +1,51 @@
+package org.javafling.pokerenlighter.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.javafling.pokerenlighter.combination.Card;
+import org.javafling.pokerenlighter.simulation.Range;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how fast a <code>Range</code> tells if it contains a hand.
+ *
+ * @author Radu Murzea
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RangeBenchmark
+{
+    //the number of different hands. it must be a power of 2
+    private static final int NR_HANDS = 1024;
+
+    private Range range;
+    private Card[][] hands;
+    private int next;
+
+    @Setup
+    public void setUp()
+    {
+        range = new Range(20);
+        hands = BenchmarkCards.getRandomHands(NR_HANDS, 2);
+    }
+
+    @Benchmark
+    public boolean containsHand()
+    {
+        next = (next + 1) & (NR_HANDS - 1);
+
+        return range.containsHand(hands[next][0], hands[next][1]);
+    }
+}
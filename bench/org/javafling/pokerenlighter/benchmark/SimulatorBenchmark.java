@@ -0,0 +1,128 @@
+package org.javafling.pokerenlighter.benchmark;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.javafling.pokerenlighter.combination.Card;
+import org.javafling.pokerenlighter.simulation.HandType;
+import org.javafling.pokerenlighter.simulation.PlayerProfile;
+import org.javafling.pokerenlighter.simulation.PokerType;
+import org.javafling.pokerenlighter.simulation.SimulationEvent;
+import org.javafling.pokerenlighter.simulation.SimulationFinalResult;
+import org.javafling.pokerenlighter.simulation.SimulationNotifiable;
+import org.javafling.pokerenlighter.simulation.Simulator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures whole simulations, from building the <code>Simulator</code> to its result, for every game
+ * type and several numbers of players. The score is the number of rounds played per second.
+ * <br /><br />
+ * The first player has exact cards and the others have random cards, which is the most common
+ * kind of simulation.
+ *
+ * @author Radu Murzea
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SimulatorBenchmark
+{
+    //the number of rounds of every simulation
+    private static final int ROUNDS = 200000;
+
+    @Param({"TEXAS_HOLDEM", "OMAHA", "OMAHA_HILO", "FOMAHA", "FOMAHA_HILO"})
+    public PokerType gameType;
+
+    @Param({"2", "6", "9"})
+    public int nrPlayers;
+
+    @Benchmark
+    @OperationsPerInvocation(ROUNDS)
+    public SimulationFinalResult simulate() throws InterruptedException
+    {
+        Card[] cards = {new Card('A', 'h'), new Card('K', 'h'), new Card('6', 's'), new Card('3', 'd'), new Card('Q', 'c')};
+        int holeCards = (gameType == PokerType.TEXAS_HOLDEM) ? 2 : (gameType == PokerType.OMAHA || gameType == PokerType.OMAHA_HILO) ? 4 : 5;
+
+        Card[] exactCards = new Card[holeCards];
+        System.arraycopy(cards, 0, exactCards, 0, holeCards);
+
+        WaitingNotifiable notifiable = new WaitingNotifiable();
+        Simulator.SimulatorBuilder builder = new Simulator.SimulatorBuilder()
+                                                 .setGameType(gameType)
+                                                 .setNrRounds(ROUNDS)
+                                                 .setUpdateInterval(100)
+                                                 .setNotifiable(notifiable)
+                                                 .addPlayer(new PlayerProfile(HandType.EXACTCARDS, null, exactCards));
+
+        for (int i = 1; i < nrPlayers; i++) {
+            builder.addPlayer(new PlayerProfile(HandType.RANDOM, null, null));
+        }
+
+        Simulator simulator = builder.build();
+        simulator.start();
+
+        return notifiable.waitForResult();
+    }
+
+    //lets the benchmark thread wait until the simulation is over
+    private static class WaitingNotifiable implements SimulationNotifiable
+    {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile SimulationFinalResult result;
+        private volatile Object failure;
+
+        public SimulationFinalResult waitForResult() throws InterruptedException
+        {
+            latch.await();
+
+            if (result == null) {
+                throw new IllegalStateException("The simulation didn't finish: " + failure);
+            }
+
+            return result;
+        }
+
+        @Override
+        public void onSimulationStart(SimulationEvent event)
+        {
+        }
+
+        @Override
+        public void onSimulationDone(SimulationEvent event)
+        {
+            result = (SimulationFinalResult) event.getEventData();
+            latch.countDown();
+        }
+
+        @Override
+        public void onSimulationCancel(SimulationEvent event)
+        {
+            failure = "cancelled";
+            latch.countDown();
+        }
+
+        @Override
+        public void onSimulationProgress(SimulationEvent event)
+        {
+        }
+
+        @Override
+        public void onSimulationError(SimulationEvent event)
+        {
+            failure = event.getEventData();
+            latch.countDown();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+@echo off
+setlocal
+
+REM This file is for building and running the Poker Enlighter benchmarks.
+
+REM Some very important notes:
+REM - The script assumes the availability of the javac and java commands.
+REM - The benchmarks use JMH. Put these JARs in the "bench\lib" folder before running the script:
+REM jmh-core, jmh-generator-annprocess, jopt-simple and commons-math3 (the versions that come with
+REM the JMH release you use).
+REM - Any parameter is passed to JMH. For example, "make.bench.bat SimulatorBenchmark -p nrPlayers=2"
+REM runs only the simulations with 2 players. Run "make.bench.bat -h" for all the options.
+
+REM First, let's define some variables that contain most used names and paths
+REM throughout the build script. Changes of these variables will propagate down the script.
+
+set jmhlib=bench\lib
+set benchbuild=bench\build
+set sourcesfile=%benchbuild%\sources.txt
+set resultfile=bench_result.json
+
+REM The simulator and the benchmarks are compiled together. The JMH annotation processor (found in the
+REM "lib" folder) generates the code that runs the benchmarks.
+
+if exist %benchbuild% rmdir /s /q %benchbuild%
+mkdir %benchbuild%
+
+dir /s /b src\*.java bench\*.java > %sourcesfile%
+javac -Xlint:unchecked -cp "%jmhlib%\*" -d %benchbuild% @%sourcesfile% 2>&1
+if errorlevel 1 exit /b 1
+
+REM Run the benchmarks. The results are also written to a JSON file, which can be compared with
+REM the one of a previous version to find regressions.
+
+java -cp "%benchbuild%;%jmhlib%\*" org.openjdk.jmh.Main -rf json -rff %resultfile% %*
@@ -0,0 +1,18 @@
+#!/bin/sh
+
+# This file is for building and running the Poker Enlighter benchmarks. It does the same thing as
+# make.bench.bat, see the notes in that file.
+
+set -e
+
+JMH_LIB=bench/lib
+BENCH_BUILD=bench/build
+RESULT_FILE=bench_result.json
+
+rm -rf "$BENCH_BUILD"
+mkdir -p "$BENCH_BUILD"
+
+find src bench -name '*.java' > "$BENCH_BUILD/sources.txt"
+javac -Xlint:unchecked -cp "$JMH_LIB/*" -d "$BENCH_BUILD" @"$BENCH_BUILD/sources.txt"
+
+java -cp "$BENCH_BUILD:$JMH_LIB/*" org.openjdk.jmh.Main -rf json -rff "$RESULT_FILE" "$@"
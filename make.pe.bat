@@ -18,14 +18,15 @@ REM throughout the build script. Changes of these variables will propagate down
 set mainclass=org/javafling/pokerenlighter/main/PokerEnlighterSimulator
 set manifestfile=Manifest.txt
 set simulatorjar=simulator.jar
-set simulatorclass=org/javafling/pokerenlighter/simulation/Simulator
-set extraclass1=org/javafling/pokerenlighter/simulation/SimulationExport
-set extraclass2=org/javafling/pokerenlighter/main/PokerEnlighterSimulator
+set sourcesfile=sources.txt
 
-REM The actual compilation command. It is compiled without any debugging
-REM symbols, to add some obfuscation.
+REM The actual compilation command. Every source file is compiled, since some public classes (like the
+REM combinations of the Omaha games) are not used by the simulator itself. It is compiled without any
+REM debugging symbols, to add some obfuscation.
 
-javac -g:none -Xlint:unchecked %simulatorclass%.java %extraclass1%.java %extraclass2%.java 2>&1
+dir /s /b org\*.java > %sourcesfile%
+javac -g:none -Xlint:unchecked @%sourcesfile% 2>&1
+del %sourcesfile%
 timeout /t 1 /nobreak > NUL
 
 REM Next, the script will move inside the "org/" folder and delete all the source code files.
@@ -3,16 +3,35 @@ package org.javafling.pokerenlighter.combination;
 /**
  * One of the most important classes in the program.
  * It describes a (poker) card, by its 2 elements: rank and color.
+ * <br /><br />
+ * Every card also has an index between 0 and 51: 13 * color + (rank - 2), where the colors are numbered
+ * in the order 'c', 'd', 'h', 's'. The 52 canonical instances can be obtained with the <code>valueOf</code>
+ * methods, which don't allocate anything. Cards are immutable.
  * 
  * @author Radu Murzea
  */
-public class Card
+public final class Card
 {
+    //the colors, in the order used by the card indexes
+    private static final char[] COLORS = {'c', 'd', 'h', 's'};
+
+    //the 52 canonical cards, by index
+    private static final Card[] CARDS = new Card[52];
+
+    static {
+        for (int i = 0; i < 52; i++) {
+            CARDS[i] = new Card(i % 13 + 2, COLORS[i / 13]);
+        }
+    }
+
     // Can be 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14
-    private int card;
+    private final int card;
 
     // Can be 'c' (Club), 'd' (Diamond), 'h' (Heart), 's' (Spade)
-    private char color;
+    private final char color;
+
+    // Between 0 and 51, see the class description
+    private final int index;
 
     /**
      * Creates a card of the specified value and color.
@@ -50,6 +69,74 @@ public class Card
         } else {
             this.color = y;
         }
+
+        this.index = getIndex(x, y);
+    }
+
+    /**
+     * Returns the canonical card with the specified index.
+     *
+     * @param index Card index. Can be only between 0 and 51.
+     *
+     * @return The card.
+     *
+     * @throws ArrayIndexOutOfBoundsException If the index is not between 0 and 51.
+     */
+    public static Card valueOf(int index)
+    {
+        return CARDS[index];
+    }
+
+    /**
+     * Returns the canonical card of the specified rank and color.
+     *
+     * @param x Card rank. Can be only 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13 or 14.
+     * @param y Card color. Can be only 'c', 'd', 'h' or 's'.
+     *
+     * @return The card.
+     *
+     * @throws IllegalArgumentException If x or y have unacceptable values.
+     */
+    public static Card valueOf(int x, char y)
+    {
+        if (x < 2 || x > 14) {
+            throw new IllegalArgumentException("Invalid card rank");
+        }
+
+        int index = getIndex(x, y);
+
+        if (index < 0) {
+            throw new IllegalArgumentException("Invalid card color");
+        }
+
+        return CARDS[index];
+    }
+
+    /**
+     * Returns the canonical card of the specified value and color.
+     *
+     * @param x Card value. Can be only '2', '3', '4', '5', '6', '7', '8', '9', 'T', 'J', 'Q', 'K' or 'A'.
+     * @param y Card color. Can be only 'c', 'd', 'h' or 's'.
+     *
+     * @return The card.
+     *
+     * @throws IllegalArgumentException If x or y have unacceptable values.
+     */
+    public static Card valueOf(char x, char y)
+    {
+        return valueOf(Card.getRank(x), y);
+    }
+
+    //returns the index of the card with the given rank and color, -1 if the color is not valid
+    private static int getIndex(int rank, char color)
+    {
+        switch (color) {
+            case 'c': return rank - 2;
+            case 'd': return 13 + rank - 2;
+            case 'h': return 26 + rank - 2;
+            case 's': return 39 + rank - 2;
+            default: return -1;
+        }
     }
 
     /**
@@ -84,6 +171,16 @@ public class Card
         return this.color;
     }
     
+    /**
+     * Returns the index of this card (between 0 and 51). See the class description.
+     *
+     * @return The card index.
+     */
+    public final int getIndex()
+    {
+        return this.index;
+    }
+    
     /**
      * Returns the card rank as a character ('3', 7', 'A', 'K', etc.).
      *
@@ -158,25 +255,27 @@ public class Card
     @Override
     public boolean equals(Object c)
     {
-        if (c == null) {
-            return false;
-        } else if (c == this) {
+        if (c == this) {
             return true;
         }
 
-        //since the class (Card) is not final, c could be a subtype of Card.
-        //if that is the case, then this method could return true, which is not acceptable.
-        //so a test must be made to see what type each one really is.
-        //the instanceof cannot be used here, since it would say that "c" is a instance of Card, even
-        //if (maybe) it is not
-        if (! getClass().equals(c.getClass())) {
+        //the class is final, so instanceof is enough here
+        if (! (c instanceof Card)) {
             return false;
         }
 
-        //now it's safe to cast the parameter to a Card
-        Card param = (Card) c;
+        return ((Card) c).index == this.index;
+    }
 
-        return (param.getRank() == this.card && param.getColor() == this.color);
+    /**
+     * Returns a hash code for this card. It is the index of the card.
+     *
+     * @return The hash code of this card.
+     */
+    @Override
+    public int hashCode()
+    {
+        return this.index;
     }
 
     /**
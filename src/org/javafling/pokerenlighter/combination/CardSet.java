@@ -0,0 +1,143 @@
+package org.javafling.pokerenlighter.combination;
+
+/**
+ * Utility methods for working with sets of cards represented as a single <code>long</code>.
+ * <br /><br />
+ * In such a set, bit <i>i</i> is set if the card with the index <i>i</i> (see {@link Card#getIndex()})
+ * is present. Only the lowest 52 bits are used. This makes common operations very cheap: the union of two
+ * sets is <code>a | b</code>, checking that two sets have no common cards is <code>(a &amp; b) == 0</code>
+ * and the number of cards is <code>Long.bitCount(a)</code>.
+ *
+ * @author Radu Murzea
+ */
+public final class CardSet
+{
+    /**
+     * The set that contains no cards.
+     */
+    public static final long EMPTY = 0L;
+
+    /**
+     * The set that contains all the 52 cards.
+     */
+    public static final long FULL_DECK = (1L << 52) - 1;
+
+    private CardSet()
+    {
+    }
+
+    /**
+     * Returns the set that contains only the specified card.
+     *
+     * @param card the card.
+     *
+     * @return the set containing the card.
+     */
+    public static long getMask(Card card)
+    {
+        return 1L << card.getIndex();
+    }
+
+    /**
+     * Returns the set that contains the specified cards. NULL elements are ignored.
+     *
+     * @param cards the cards.
+     *
+     * @return the set containing the cards.
+     */
+    public static long getMask(Card[] cards)
+    {
+        long set = EMPTY;
+
+        for (Card card : cards) {
+            if (card != null) {
+                set |= 1L << card.getIndex();
+            }
+        }
+
+        return set;
+    }
+
+    /**
+     * Checks whether a set contains a card.
+     *
+     * @param set the set.
+     * @param card the card.
+     *
+     * @return true if the card is in the set, false otherwise.
+     */
+    public static boolean contains(long set, Card card)
+    {
+        return (set & (1L << card.getIndex())) != 0;
+    }
+
+    /**
+     * Returns the number of cards in a set.
+     *
+     * @param set the set.
+     *
+     * @return the number of cards.
+     */
+    public static int size(long set)
+    {
+        return Long.bitCount(set);
+    }
+
+    /**
+     * Checks whether some cards contain duplicates. NULL elements are ignored.
+     *
+     * @param cards the cards.
+     *
+     * @return true if at least one card appears more than once, false otherwise.
+     */
+    public static boolean hasDuplicates(Card[] cards)
+    {
+        long set = EMPTY;
+
+        for (Card card : cards) {
+            if (card != null) {
+                long bit = 1L << card.getIndex();
+
+                if ((set & bit) != 0) {
+                    return true;
+                }
+
+                set |= bit;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the cards of a set, in the order of their indexes.
+     *
+     * @param set the set.
+     *
+     * @return the cards. The returned objects are the canonical instances (see {@link Card#valueOf(int)}).
+     */
+    public static Card[] toCards(long set)
+    {
+        Card[] cards = new Card[Long.bitCount(set)];
+
+        for (int i = 0; set != 0; i++) {
+            cards[i] = Card.valueOf(Long.numberOfTrailingZeros(set));
+            set &= set - 1;
+        }
+
+        return cards;
+    }
+
+    /**
+     * Determines the hand rank of the best 5-card combination that can be made from a set of cards.
+     * A Texas Hold'em hand can be evaluated directly as <code>evaluate(holeMask | boardMask)</code>.
+     *
+     * @param set the cards. There must be 5, 6 or 7 of them.
+     *
+     * @return the hand rank of the best combination. See {@link HandRank} for its structure.
+     */
+    public static int evaluate(long set)
+    {
+        return LookupTableEvaluator.evaluate(set);
+    }
+}
@@ -24,6 +24,9 @@ public final class Combination
     //cache containers for the isStraight and isFlush methods
     private String flush, straight;
 
+    //cache container for the getCombinationRank method (-1 means "not computed yet")
+    private int handRank;
+
     /**
      * Creates the combination.
      * <br />
@@ -80,6 +83,7 @@ public final class Combination
         
         //new input means old cache is invalid, so purge it
         this.flush = this.straight = null;
+        this.handRank = -1;
     }
 
     /**
@@ -110,6 +114,21 @@ public final class Combination
         return stt.toString();
     }
     
+    /**
+     * Determines the strength of this <code>Combination</code> as a single integer.
+     *
+     * @return The hand rank of this <code>Combination</code>. See {@link HandRank} for its structure.
+     * A bigger value means a better <code>Combination</code>.
+     */
+    public int getCombinationRank()
+    {
+        if (this.handRank == -1) {
+            this.handRank = HandRank.evaluate(this.cards);
+        }
+
+        return this.handRank;
+    }
+
     /**
      * Determines if this <code>Combination</code> contains a pair or not.
      *
@@ -433,7 +452,7 @@ public final class Combination
         Combination param = (Combination) c;
 
         for (int i = 0; i < 5; ++i) {
-            if (! param.getCard(i).equals(cards[i])) {
+            if (param.getCard(i).getIndex() != cards[i].getIndex()) {
                 return false;
             }
         }
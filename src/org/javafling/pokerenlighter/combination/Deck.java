@@ -2,6 +2,7 @@ package org.javafling.pokerenlighter.combination;
 
 /**
  * Representation of a standard deck of 52 (French) cards. There are 13 cards of each color (4 colors).
+ * The cards start in a fixed order, which is changed by shuffling and dealing and restored by {@link #sort()}.
  * <br /><br />
  * This class is not thread-safe.
  * 
@@ -15,29 +16,65 @@ public class Deck
     //random number generator. Needed for the shuffle () method.
     private HighQualityRandomGenerator rand;
     
+    //the random numbers of a deal, generated all at once
+    private long[] randoms;
+    
     //size of the deck (needed since adding and removal of cards from the deck is permitted)
     private int size;
     
+    //inDeck[i] is true if the card with the index i is in the deck
+    private boolean[] inDeck;
+    
     /**
      * Constructs a deck of cards with the 52 unique cards.
      * The initial order is: 2c, 3c, 4c, ... Kc, Ac, 2d, 3d, 4d, ... Kd, Ad, 2h, 3h, 4h, ... Kh, Ah,
      * 2s, 3s, 4s, ... Ks, As.
      * <br />
-     * By shuffling the deck, this arrangement is lost and cannot be restored.
+     * Shuffling the deck changes this arrangement and {@link #sort()} restores it.
      */
     public Deck()
+    {
+        this(new HighQualityRandomGenerator());
+    }
+    
+    /**
+     * Constructs a deck of cards with the 52 unique cards, in the same order as {@link #Deck()}, which
+     * uses the specified generator for shuffling and dealing.
+     *
+     * @param rand the random number generator. Seeding it again also makes the deck deal other cards.
+     */
+    public Deck(HighQualityRandomGenerator rand)
     {
         size = 52;
         cards = new Card[size];
+        inDeck = new boolean[size];
 
-        for (int j = 2, i = 0; i < 13; ++j, ++i) {
-            cards[i + 0 * 13] = new Card(j, 'c');
-            cards[i + 1 * 13] = new Card(j, 'd');
-            cards[i + 2 * 13] = new Card(j, 'h');
-            cards[i + 3 * 13] = new Card(j, 's');
+        //the canonical cards are already in the right order
+        for (int i = 0; i < size; ++i) {
+            cards[i] = Card.valueOf(i);
+            inDeck[i] = true;
         }
 
-        rand = new HighQualityRandomGenerator();
+        this.rand = rand;
+        randoms = new long[size];
+    }
+    
+    /**
+     * Puts the <code>Card</code>s of the <code>Deck</code> back in their initial order (see the constructor).
+     * The removed <code>Card</code>s stay removed.
+     * <br />
+     * Dealing from a sorted <code>Deck</code> with a generator seeded in the same way always gives the same
+     * <code>Card</code>s, no matter how the <code>Deck</code> was shuffled before.
+     */
+    public final void sort()
+    {
+        int k = 0;
+        
+        for (int i = 0; i < 52; ++i) {
+            if (inDeck[i]) {
+                cards[k++] = Card.valueOf(i);
+            }
+        }
     }
 
     /**
@@ -56,13 +93,35 @@ public class Deck
         
         //repeat "intensity" times
         for (int j = 0; j < intensity; ++j) {
-            //each card is swapped with another card (random)
-            for (int i = 0; i < size - 1; ++i) {
-                int r = i + (rand.nextInt (10) % (size - i));
-                Card temp = cards[i];
-                cards[i] = cards[r];
-                cards[r] = temp;
-            }
+            deal(size);
+        }
+    }
+    
+    /**
+     * Puts k random <code>Card</code>s at the beginning of the <code>Deck</code>, in random order.
+     * After this call, the <code>Card</code>s at the positions 0 to k - 1 are a uniformly random selection
+     * of the <code>Card</code>s in the <code>Deck</code>. The rest of the <code>Deck</code> is left in no
+     * particular order.
+     * <br />
+     * This is a partial Fisher-Yates shuffle: it needs exactly k random numbers, so it is much cheaper
+     * than shuffling the whole <code>Deck</code> when only a few <code>Card</code>s are used. They are
+     * generated all at once, before any <code>Card</code> is moved.
+     *
+     * @param k The number of <code>Card</code>s to deal. If it is bigger than the size of the
+     * <code>Deck</code>, the whole <code>Deck</code> is shuffled.
+     */
+    public final void deal(int k)
+    {
+        int n = Math.min(k, size);
+        
+        rand.nextLongs(randoms, n);
+        
+        for (int i = 0; i < n; ++i) {
+            //pick one of the cards that were not dealt yet
+            int r = i + rand.nextBoundedInt(randoms[i], size - i);
+            Card temp = cards[i];
+            cards[i] = cards[r];
+            cards[r] = temp;
         }
     }
     
@@ -78,24 +137,49 @@ public class Deck
             throw new NullPointerException("Attempted to remove a NULL card from the deck");
         }
         
-        //go through the whole deck
-        for (int i = 0; i < size; ++i) {
-            //find the card
-            if (cards[i].equals(c)) {
-                //when found, move following cards 1 position to the left
-                //(basically losing the reference to the "killed" card)
-                for (int j = i; j < size - 1; ++j) {
-                    cards[j] = cards[j + 1];
-                }
-
-                //after the above operation, there are 2 references to the last card.
-                //let's not keep that.
-                //also, the size of the deck is smaller
-                cards[--size] = null;
+        int index = getCardIndex(c);
+        
+        if (index == -1) {
+            return;
+        }
+        
+        //move following cards 1 position to the left
+        //(basically losing the reference to the "killed" card)
+        for (int j = index; j < size - 1; ++j) {
+            cards[j] = cards[j + 1];
+        }
 
-                return;
+        //after the above operation, there are 2 references to the last card.
+        //let's not keep that.
+        //also, the size of the deck is smaller
+        cards[--size] = null;
+        inDeck[c.getIndex()] = false;
+    }
+    
+    /**
+     * Removes from the <code>Deck</code> all the <code>Card</code>s of a set. The <code>Card</code>s of the
+     * set that are not in the <code>Deck</code> are ignored. The remaining <code>Card</code>s keep their order.
+     *
+     * @param set The <code>Card</code>s to be removed, as a set (see {@link CardSet}).
+     */
+    public final void removeCards(long set)
+    {
+        int newSize = 0;
+        
+        //a single pass that keeps only the cards that are not in the set
+        for (int i = 0; i < size; ++i) {
+            if ((set & (1L << cards[i].getIndex())) == 0) {
+                cards[newSize++] = cards[i];
+            } else {
+                inDeck[cards[i].getIndex()] = false;
             }
         }
+        
+        for (int i = newSize; i < size; ++i) {
+            cards[i] = null;
+        }
+        
+        size = newSize;
     }
     
     /**
@@ -118,14 +202,13 @@ public class Deck
         }
         
         //if the card is already in the deck, do nothing.
-        for (int i = 0; i < size; ++i) {
-            if (cards[i].equals(c)) {
-                return;
-            }
+        if (inDeck[c.getIndex()]) {
+            return;
         }
 
         //add the card and increase size
-        cards[size++] = c;
+        cards[size++] = Card.valueOf(c.getIndex());
+        inDeck[c.getIndex()] = true;
     }
 
     /**
@@ -171,8 +254,14 @@ public class Deck
      */
     public final int getCardIndex(Card c)
     {
+        if (c == null || ! inDeck[c.getIndex()]) {
+            return -1;
+        }
+        
+        int index = c.getIndex();
+        
         for (int i = 0; i < size; ++i) {
-            if (cards[i].equals(c)) {
+            if (cards[i].getIndex() == index) {
                 return i;
             }
         }
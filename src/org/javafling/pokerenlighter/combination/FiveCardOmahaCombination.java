@@ -23,6 +23,9 @@ public final class FiveCardOmahaCombination
     private String result_hi;
     private String result_lo;
 
+    //cache storage for the Hi hand rank (-1 means "not computed yet")
+    private int handRank = -1;
+
     /**
      * Constructs the combination.
      *
@@ -298,6 +301,7 @@ public final class FiveCardOmahaCombination
         combs[99].setCards(newCards[3], newCards[4], newCards[7], newCards[8], newCards[9]);
         
         result_hi = result_lo = null;
+        handRank = -1;
     }
 
     /**
@@ -478,135 +482,51 @@ public final class FiveCardOmahaCombination
     }
 
     /**
-     * Checks if there is a Lo hand in this <code>FiveCardOmahaCombination</code>. This is obviously
-     * useful only for Omaha Hi/Lo.
+     * Determines the strength of the best combination of cards for this particular player
+     * (using 2 cards from the hand and 3 community cards) as a single integer. This is much cheaper than
+     * {@link #getCombination()} and it should be preferred whenever combinations only need to be compared.
      *
-     * @return A string representation of the Lo Combination. This would be a string of 5 characters, each
-     * representing a card that forms the Lo Combination. The cards are in descending order. If there is no
-     * lo combination, the string "0" is returned.
+     * @return The hand rank of the best combination. See {@link HandRank} for its structure.
+     * A bigger value means a better combination, equal values mean a tie.
      */
-    public String getLoCombination()
+    public int getCombinationRank()
     {
-        if (result_lo != null) {
-            return result_lo;
+        if (handRank != -1) {
+            return handRank;
         }
-        
-        int[][] rezs = new int[100][5];
-        int[] ranks = new int[5];
-        int i, j, compare_result, rezssize = 0;
-
-        for (i = 0; i < 100; ++i) {
-            //what are needed are the 5 cards that make up the combination.
-            //getHighCard method gives me that
-            String hc = combs[i].getHighCard();
 
-            //work with the numeric ranks of the cards, it's a lot easier
-            for (j = 0; j < 5; ++j) {
-                ranks[j] = Card.getRank(hc.charAt(j));
-            }
+        int best = combs[0].getCombinationRank();
 
-            //if there are duplicate cards, the combination is not a valid Lo candidate
-            if (ranks[0] == ranks[1] || ranks[1] == ranks[2] || ranks[2] == ranks[3] || ranks[3] == ranks[4]) {
-                continue;
-            }
+        for (int i = 1; i < 100; ++i) {
+            int current = combs[i].getCombinationRank();
 
-            //if any of the 5 cards is bigger than 8, the combination is not a valid Lo candidate
-            //exception if it is an Ace
-            if ((ranks[0] > 8 && ranks[0] != 14)
-                || (ranks[1] > 8 && ranks[1] != 14)
-                || (ranks[2] > 8 && ranks[2] != 14)
-                || (ranks[3] > 8 && ranks[3] != 14)
-                || (ranks[4] > 8 && ranks[4] != 14))
-            {
-                continue;
-            }
-
-            //if all the checks are passed, add the combination as a valid candidate
-            for (j = 0; j < 5; ++j) {
-                rezs[rezssize][j] = ranks[j];
-            }
-
-            rezssize++;
-        }
-
-        String stt = "0";
-
-        //if no combination is a candidate for Lo, there's nothing more we can do
-        if (rezssize == 0) {
-            return stt;
-        }
-
-        //if there is an Ace, move it in the back and give it value 1 (instead of 14)
-        //this way, the combination comparator is easier to implement (a lot easier, trust me)
-        for (i = 0; i < rezssize; ++i) {
-            if (rezs[i][0] == 14) {
-                rezs[i][0] = rezs[i][1];
-                rezs[i][1] = rezs[i][2];
-                rezs[i][2] = rezs[i][3];
-                rezs[i][3] = rezs[i][4];
-                rezs[i][4] = 1;
+            if (current > best) {
+                best = current;
             }
         }
 
-        //next do exactly as in the getCombination method.
-        //every combination is compared with all the others and they "fight" with each other
-        //the losers are eliminated. if there is a tie, the combination gets another chance
+        handRank = best;
 
-        boolean[] eliminated = new boolean[rezssize];
-
-        for (int tmpindex = 0; tmpindex < rezssize; tmpindex++) {
-            eliminated[tmpindex] = false;
-        }
-        
-        for (i = 0; i < rezssize - 1; ++i) {
-            for (j = i + 1; j < rezssize; ++j) {
-                if (! eliminated[i] && ! eliminated[j]) {
-                    compare_result = compare_combs_lo(rezs[i], rezs[j]);
-
-                    if (compare_result == 1) {
-                        eliminated[j] = true;
-                    } else if (compare_result == 2) {
-                        eliminated[i] = true;
-                    }
-                }
-            }
-        }
+        return handRank;
+    }
 
-        //now let's see who is still left standing...
-        for (i = 0; i < rezssize; ++i) {
-            if (! eliminated[i]) {
-                //don't forget to turn the 1 back to 14 (Ace)
-                rezs[i][4] = (rezs[i][4] == 1) ? 14 : rezs[i][4];
-
-                //compose result
-                stt = Character.toString(Card.getCharCard(rezs[i][0]));
-                stt += Card.getCharCard(rezs[i][1]);
-                stt += Card.getCharCard(rezs[i][2]);
-                stt += Card.getCharCard(rezs[i][3]);
-                stt += Card.getCharCard(rezs[i][4]);
-                
-                return stt;
-            }
+    /**
+     * Checks if there is a Lo hand in this <code>FiveCardOmahaCombination</code>. This is obviously
+     * useful only for Omaha Hi/Lo.
+     *
+     * @return A string representation of the Lo Combination. This would be a string of 5 characters, each
+     * representing a card that forms the Lo Combination. The cards are in descending order. If there is no
+     * lo combination, the string "0" is returned.
+     */
+    public String getLoCombination()
+    {
+        if (result_lo == null) {
+            result_lo = LoEvaluator.toString(LoEvaluator.evaluate(cards));
         }
         
-        return stt;
+        return result_lo;
     }
     
-    //compares 2 lo hands (assumed length is 5). if hand1 wins, 1 is returned, if hand2 wins, 2 is returned.
-    //if it's a tie, 0 is returned
-    private int compare_combs_lo(int[] hand1, int[] hand2)
-    {
-        for (int i = 0; i < 5; ++i) {
-            if (hand2[i] < hand1[i]) {
-                return 2;
-            } else if (hand1[i] < hand1[i]) {
-                return 1;
-            }
-        }
-
-        return 0;
-    }
-
     //the lengths of the 2 parameters is assumed to be equal
     private int compare_combs(String hand1, String hand2)
     {
@@ -648,84 +568,22 @@ public final class FiveCardOmahaCombination
 
         FiveCardOmahaCombination param = (FiveCardOmahaCombination) oc;
 
-        Card[] local = new Card[10], imported = new Card[10];
-        int i, j;
-        Card aux;
-
-        //let's start with the player's cards (i.e. the first 5 cards in the combination).
-
-        //first let's import them
-        for (i = 0; i < 5; ++i) {
-            local[i] = cards[i];
-            imported[i] = param.getCard(i);
-        }
-
-        //now let's sort by their rank (if they have the same rank, sorting by color is applied)
-        for (i = 0; i < 5 - 1; ++i) {
-            for (j = i + 1; j < 5; ++j) {
-                if (local[i].getRank() < local[j].getRank()) {
-                    aux = local[i]; local[i] = local[j]; local[j] = aux;
-                } else if (local[i].getRank() == local[j].getRank()) {
-                    if (local[i].getColor() > local[j].getColor()) {
-                        aux = local[i]; local[i] = local[j]; local[j] = aux;
-                    }
-                }
-
-                if (imported[i].getRank() < imported[j].getRank()) {
-                    aux = imported[i]; imported[i] = imported[j]; imported[j] = aux;
-                } else if (imported[i].getRank() == imported[j].getRank()) {
-                    if (imported[i].getColor() > imported[j].getColor()) {
-                        aux = imported[i]; imported[i] = imported[j]; imported[j] = aux;
-                    }
-                }
-            }
-        }
-
-        //let's see if they match.
-        for (i = 0; i < 5; ++i) {
-            if (! local[i].equals(imported[i])) {
-                return false;
-            }
-        }
-
-        //if the player's cards pass the test, let's move on to the community cards
-
-        //let's import them first
-        for (i = 5; i < 10; ++i) {
-            local[i] = cards[i];
-            imported[i] = param.getCard(i);
-        }
-
-        //sort them by their rank (and color if they have the same rank)
-        for (i = 5; i < 10 - 1; ++i) {
-            for (j = i + 1; j < 10; ++j) {
-                if (local[i].getRank() < local[j].getRank()) {
-                    aux = local[i]; local[i] = local[j]; local[j] = aux;
-                } else if (local[i].getRank() == local[j].getRank()) {
-                    if (local[i].getColor() > local[j].getColor()) {
-                        aux = local[i]; local[i] = local[j]; local[j] = aux;
-                    }
-                }
+        //the order of the cards doesn't matter, so it's enough to compare the sets of card indexes:
+        //first the player's cards, then the community cards
+        return getCardMask(cards, 0, 5) == getCardMask(param.cards, 0, 5)
+               && getCardMask(cards, 5, 10) == getCardMask(param.cards, 5, 10);
+    }
 
-                if (imported[i].getRank() < imported[j].getRank()) {
-                    aux = imported[i]; imported[i] = imported[j]; imported[j] = aux;
-                } else if (imported[i].getRank() == imported[j].getRank()) {
-                    if (imported[i].getColor() > imported[j].getColor()) {
-                        aux = imported[i]; imported[i] = imported[j]; imported[j] = aux;
-                    }
-                }
-            }
-        }
+    //returns a mask with the bits of the card indexes from the interval [from; to) set
+    private static long getCardMask(Card[] cards, int from, int to)
+    {
+        long mask = 0L;
 
-        //if they don't match, we have no equality
-        for (i = 5; i < 10; ++i) {
-            if (! local[i].equals(imported[i])) {
-                return false;
-            }
+        for (int i = from; i < to; ++i) {
+            mask |= 1L << cards[i].getIndex();
         }
 
-        //if all tests pass, the 2 objects are equal
-        return true;
+        return mask;
     }
 
     /**
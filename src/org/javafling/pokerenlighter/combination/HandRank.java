@@ -0,0 +1,247 @@
+package org.javafling.pokerenlighter.combination;
+
+/**
+ * Integer representation of the strength of a poker combination.
+ * <br /><br />
+ * A hand rank is a single <code>int</code> built like this: the category of the combination (high card,
+ * one pair, ..., straight flush) is stored in bits 20-23 and the ranks that decide between two combinations
+ * of the same category (the pair, the kickers etc.) are stored below it, 4 bits each, most important first.
+ * Because of this layout, two hand ranks can be compared directly: the bigger value is the better combination
+ * and equal values mean a tie.
+ * <br /><br />
+ * The String representation used by the <code>getCombination</code> methods of the combination classes can be
+ * obtained with the {@link #toString(int)} method. It should be used only for display purposes.
+ *
+ * @author Radu Murzea
+ */
+public final class HandRank
+{
+    public static final int HIGH_CARD = 0;
+    public static final int ONE_PAIR = 1;
+    public static final int TWO_PAIR = 2;
+    public static final int THREE_OF_A_KIND = 3;
+    public static final int STRAIGHT = 4;
+    public static final int FLUSH = 5;
+    public static final int FULL_HOUSE = 6;
+    public static final int QUAD = 7;
+    public static final int STRAIGHT_FLUSH = 8;
+
+    //how many of the 5 rank slots are significant for each category
+    private static final int[] SIGNIFICANT_RANKS = {5, 4, 3, 3, 1, 5, 2, 2, 1};
+
+    //bits 2 to 14 set (all the card ranks)
+    private static final int ALL_RANKS = 0x7FFC;
+
+    private HandRank()
+    {
+    }
+
+    /**
+     * Builds a hand rank from its components. Unused rank slots must be 0.
+     *
+     * @param category the category of the combination. See the constants of this class.
+     * @param r1 most important rank.
+     * @param r2 second most important rank.
+     * @param r3 third most important rank.
+     * @param r4 fourth most important rank.
+     * @param r5 least important rank.
+     *
+     * @return the hand rank.
+     */
+    public static int encode(int category, int r1, int r2, int r3, int r4, int r5)
+    {
+        return (category << 20) | (r1 << 16) | (r2 << 12) | (r3 << 8) | (r4 << 4) | r5;
+    }
+
+    /**
+     * Returns the category of a hand rank.
+     *
+     * @param handRank the hand rank.
+     *
+     * @return the category of the combination (one of the constants of this class).
+     */
+    public static int getCategory(int handRank)
+    {
+        return handRank >>> 20;
+    }
+
+    /**
+     * Determines the hand rank of the best 5-card combination that can be made from some cards.
+     * <br />
+     * <strong>WARNING:</strong> This method does not check for duplicate or NULL cards.
+     *
+     * @param cards the cards. There must be at least 5 and at most 7 of them.
+     *
+     * @return the hand rank of the best combination.
+     */
+    public static int evaluate(Card[] cards)
+    {
+        int clubs = 0, diamonds = 0, hearts = 0, spades = 0;
+
+        for (Card card : cards) {
+            switch (card.getColor()) {
+                case 'c': clubs |= 1 << card.getRank(); break;
+                case 'd': diamonds |= 1 << card.getRank(); break;
+                case 'h': hearts |= 1 << card.getRank(); break;
+                default: spades |= 1 << card.getRank(); break;
+            }
+        }
+
+        return evaluate(clubs, diamonds, hearts, spades);
+    }
+
+    /**
+     * Determines the hand rank of the best 5-card combination that can be made from some cards,
+     * given as one rank mask per color. In a rank mask, bit <i>r</i> is set if the card of rank <i>r</i>
+     * (2 to 14) is present.
+     *
+     * @param clubs rank mask of the clubs.
+     * @param diamonds rank mask of the diamonds.
+     * @param hearts rank mask of the hearts.
+     * @param spades rank mask of the spades.
+     *
+     * @return the hand rank of the best combination. The masks must contain between 5 and 7 cards in total.
+     */
+    public static int evaluate(int clubs, int diamonds, int hearts, int spades)
+    {
+        //flushes (and straight flushes) first. with at most 7 cards, a flush
+        //can not coexist with a full house or a quad, so it can be returned directly
+        int flushMask = 0;
+        if (Integer.bitCount(clubs) >= 5) {
+            flushMask = clubs;
+        } else if (Integer.bitCount(diamonds) >= 5) {
+            flushMask = diamonds;
+        } else if (Integer.bitCount(hearts) >= 5) {
+            flushMask = hearts;
+        } else if (Integer.bitCount(spades) >= 5) {
+            flushMask = spades;
+        }
+
+        if (flushMask != 0) {
+            int high = getStraightHigh(flushMask);
+
+            if (high != 0) {
+                return encode(STRAIGHT_FLUSH, high, 0, 0, 0, 0);
+            }
+
+            return encodeTopRanks(FLUSH, flushMask, 0, 5);
+        }
+
+        int all = clubs | diamonds | hearts | spades;
+
+        //ranks that appear at least 2, at least 3 and 4 times
+        int twos = (clubs & diamonds) | (clubs & hearts) | (clubs & spades)
+                   | (diamonds & hearts) | (diamonds & spades) | (hearts & spades);
+        int threes = (clubs & diamonds & hearts) | (clubs & diamonds & spades)
+                     | (clubs & hearts & spades) | (diamonds & hearts & spades);
+        int fours = clubs & diamonds & hearts & spades;
+
+        if (fours != 0) {
+            int quad = highestRank(fours);
+
+            return encode(QUAD, quad, highestRank(all & ~(1 << quad)), 0, 0, 0);
+        }
+
+        if (threes != 0) {
+            int set = highestRank(threes);
+            int pairs = twos & ~(1 << set);
+
+            if (pairs != 0) {
+                return encode(FULL_HOUSE, set, highestRank(pairs), 0, 0, 0);
+            }
+        }
+
+        int straight = getStraightHigh(all);
+
+        if (straight != 0) {
+            return encode(STRAIGHT, straight, 0, 0, 0, 0);
+        }
+
+        if (threes != 0) {
+            int set = highestRank(threes);
+
+            return encodeTopRanks(THREE_OF_A_KIND, all & ~(1 << set), set, 2);
+        }
+
+        if (twos != 0) {
+            int pair1 = highestRank(twos);
+            int others = twos & ~(1 << pair1);
+
+            if (others != 0) {
+                int pair2 = highestRank(others);
+                int kicker = highestRank(all & ~(1 << pair1) & ~(1 << pair2));
+
+                return encode(TWO_PAIR, pair1, pair2, kicker, 0, 0);
+            }
+
+            return encodeTopRanks(ONE_PAIR, all & ~(1 << pair1), pair1, 3);
+        }
+
+        return encodeTopRanks(HIGH_CARD, all, 0, 5);
+    }
+
+    /**
+     * Returns the String representation of a hand rank. This is the same representation that the
+     * <code>getCombination</code> methods of the combination classes return: the category of the combination
+     * followed by the characters of the significant ranks. A royal flush is represented as "9".
+     *
+     * @param handRank the hand rank.
+     *
+     * @return the String representation of the hand rank.
+     */
+    public static String toString(int handRank)
+    {
+        int category = getCategory(handRank);
+
+        if (category == STRAIGHT_FLUSH && ((handRank >>> 16) & 0xF) == 14) {
+            return "9";
+        }
+
+        StringBuilder sb = new StringBuilder(6);
+        sb.append(category);
+
+        for (int i = 0; i < SIGNIFICANT_RANKS[category]; i++) {
+            sb.append(Card.getCharCard((handRank >>> (16 - 4 * i)) & 0xF));
+        }
+
+        return sb.toString();
+    }
+
+    //returns the highest card of the best straight within the rank mask, 0 if there is no straight
+    static int getStraightHigh(int mask)
+    {
+        //the Ace can also be used as a 1 (for the wheel)
+        int m = (mask & ALL_RANKS) | ((mask >>> 13) & 2);
+
+        //bit r is set only if ranks r, r - 1, ..., r - 4 are all present
+        int s = m & (m << 1) & (m << 2) & (m << 3) & (m << 4);
+
+        return (s == 0) ? 0 : highestRank(s);
+    }
+
+    private static int highestRank(int mask)
+    {
+        return 31 - Integer.numberOfLeadingZeros(mask);
+    }
+
+    //encodes "first" (if not 0) followed by the highest "count" ranks of the mask
+    private static int encodeTopRanks(int category, int mask, int first, int count)
+    {
+        int result = category;
+        int filled = 0;
+
+        if (first != 0) {
+            result = (result << 4) | first;
+            filled++;
+        }
+
+        for (int i = 0; i < count; i++) {
+            int r = highestRank(mask);
+            mask &= ~(1 << r);
+            result = (result << 4) | r;
+            filled++;
+        }
+
+        return result << (4 * (5 - filled));
+    }
+}
@@ -1,7 +1,7 @@
 package org.javafling.pokerenlighter.combination;
 
-import java.nio.ByteBuffer;
 import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 /** A much better alternative than the java.util.Random class for generating random numbers.
  * It was taken from the book "Numerical Recipes: The Art of Scientific Computing" by Teukolsky,
@@ -19,24 +19,61 @@ import java.security.SecureRandom;
  * 
  * A better solution would be Java's SecureRandom class. Unfortunately, in this case, better randomness
  * would be payed with some speed penalty. On the plus side, the SecureRandom class is used to
- * seed this generator.
+ * seed this generator: it provides a single root seed per process and the seeds of all the generators
+ * created without a seed are derived from it (see {@link #getStreamSeed(long, long)}). This way,
+ * creating a generator never waits for the entropy of the operating system.
  * 
  * @author Radu Murzea
  */
 public final class HighQualityRandomGenerator
 {
+    //the constant of the SplitMix64 algorithm (2^64 divided by the golden ratio)
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    
+    //the root from which the generators created without a seed get their seeds. it's created only
+    //when the first such generator is created
+    private static class Root
+    {
+        //nextLong doesn't block, unlike generateSeed, which can wait for the entropy pool
+        static final long SEED = new SecureRandom().nextLong();
+        
+        static final AtomicLong streams = new AtomicLong();
+    }
+    
     private long u;
-    private long v = 4101842887655102017L;
-    private long w = 1;
+    private long v;
+    private long w;
     
     /**
-     * Constructor.
+     * Creates a generator with a seed that is different from the one of every other generator created
+     * by this constructor in the same process.
      */
     public HighQualityRandomGenerator()
     {
-        //used to seed this generator
-        //8 bytes because that's the size of a long in 99.9 % of implementations
-        long seed = ByteBuffer.wrap(new SecureRandom().generateSeed(8)).getLong();
+        this(getStreamSeed(Root.SEED, Root.streams.getAndIncrement()));
+    }
+    
+    /**
+     * Creates a generator with a specific seed. Two generators with the same seed generate the
+     * same numbers.
+     * 
+     * @param seed the seed.
+     */
+    public HighQualityRandomGenerator(long seed)
+    {
+        setSeed(seed);
+    }
+    
+    /**
+     * Seeds this generator again. Afterwards, it generates the same numbers as a new generator
+     * with the same seed.
+     * 
+     * @param seed the seed.
+     */
+    public void setSeed(long seed)
+    {
+        v = 4101842887655102017L;
+        w = 1;
         
         u = seed ^ v;
         nextLong();
@@ -45,6 +82,26 @@ public final class HighQualityRandomGenerator
         w = v;
         nextLong();
     }
+    
+    /**
+     * Derives the seed of one of many independent streams of random numbers from a master seed. The seed
+     * of stream <i>i</i> is the <i>i</i>-th number of a SplitMix64 generator seeded with the master seed,
+     * so nearby master seeds or stream numbers still give unrelated seeds.
+     * 
+     * @param masterSeed the master seed.
+     * @param stream the number of the stream.
+     * 
+     * @return the seed of the stream.
+     */
+    public static long getStreamSeed(long masterSeed, long stream)
+    {
+        long z = masterSeed + (stream + 1) * GOLDEN_GAMMA;
+        
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        
+        return z ^ (z >>> 31);
+    }
 
     /**
      * Provides a random long value.
@@ -65,6 +122,37 @@ public final class HighQualityRandomGenerator
         return ret;
     }
 
+    /**
+     * Fills the beginning of an array with random long values. The values are the same as the ones
+     * of <code>count</code> calls of {@link #nextLong()}, but they are generated faster: the state of
+     * the generator is kept in local variables (that can stay in registers) until all of them are generated.
+     *
+     * @param values the array that gets the values.
+     * @param count how many values to generate. Must not be bigger than the length of the array.
+     */
+    public void nextLongs(long[] values, int count)
+    {
+        long u = this.u;
+        long v = this.v;
+        long w = this.w;
+
+        for (int i = 0; i < count; i++) {
+            u = u * 2862933555777941757L + 7046029254386353087L;
+            v ^= v >>> 17;
+            v ^= v << 31;
+            v ^= v >>> 8;
+            w = 4294957665L * (w & 0xffffffff) + (w >>> 32);
+            long x = u ^ (u << 21);
+            x ^= x >>> 35;
+            x ^= x << 4;
+            values[i] = (x + v) ^ w;
+        }
+
+        this.u = u;
+        this.v = v;
+        this.w = w;
+    }
+
     /**
      * Provides a random integer that is at most 2^bits large.
      * @param bits how many bits the integer must have
@@ -74,4 +162,45 @@ public final class HighQualityRandomGenerator
     {
         return (int) (nextLong() >>> (64 - bits));
     }
+
+    /**
+     * Provides a random integer between 0 (inclusive) and bound (exclusive). All the values
+     * have the same probability.
+     * @param bound the upper bound (exclusive). Must be strictly positive.
+     * @return a random integer between 0 and bound - 1.
+     */
+    public int nextBoundedInt(int bound)
+    {
+        return nextBoundedInt(nextLong(), bound);
+    }
+
+    /**
+     * Turns a random long value of this generator, for example one from {@link #nextLongs(long[], int)},
+     * into a random integer between 0 (inclusive) and bound (exclusive). All the values have the same
+     * probability.
+     * <br />
+     * This is Lemire's multiply-shift method: the result is the high half of the product between
+     * the high 32 bits of the random value and the bound, so no division is needed. In the rare cases
+     * where the value has to be rejected, new values are taken from this generator.
+     *
+     * @param random a random long value, generated by this generator.
+     * @param bound the upper bound (exclusive). Must be strictly positive.
+     * @return a random integer between 0 and bound - 1.
+     */
+    public int nextBoundedInt(long random, int bound)
+    {
+        long product = (random >>> 32) * bound;
+
+        //the low halves below 2^32 mod bound would make the small results more likely. they can
+        //only appear when the low half is below the bound, so the modulo is rarely computed
+        if ((product & 0xffffffffL) < bound) {
+            long threshold = (0x100000000L - bound) % bound;
+
+            while ((product & 0xffffffffL) < threshold) {
+                product = (nextLong() >>> 32) * bound;
+            }
+        }
+
+        return (int) (product >>> 32);
+    }
 }
\ No newline at end of file
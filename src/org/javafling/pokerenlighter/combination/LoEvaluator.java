@@ -0,0 +1,133 @@
+package org.javafling.pokerenlighter.combination;
+
+/**
+ * Table-based evaluator for the Lo part (8 or better) of Omaha Hi/Lo and 5-Card Omaha Hi/Lo hands.
+ * <br /><br />
+ * A Lo hand is made of 5 cards with different ranks, all of them 8 or lower (the Ace counts as 1).
+ * Exactly 2 of them must come from the hole cards and exactly 3 from the community cards. Because of this,
+ * only the set of distinct low ranks of the hole cards and the set of distinct low ranks of the community
+ * cards matter. Each set is stored in an 8-bit rank mask (bit 0 = Ace, bit 1 = 2, ..., bit 7 = 8) and
+ * the best Lo hand for every pair of masks is stored in a table.
+ * <br /><br />
+ * A Lo value is an <code>int</code> that can be compared directly: the bigger value is the better Lo hand
+ * and equal values mean a tie. A value of 0 means that there is no Lo hand.
+ * <br /><br />
+ * The table is built only once per JVM, when this class is loaded. It is never modified afterwards,
+ * so this class can be used by any number of threads at the same time.
+ *
+ * @author Radu Murzea
+ */
+public final class LoEvaluator
+{
+    /**
+     * The Lo value that means "no Lo hand".
+     */
+    public static final int NO_LO = 0;
+
+    //the best Lo value, indexed by (holeMask << 8) | boardMask
+    private static final int[] LO_VALUES = new int[256 * 256];
+
+    //the low rank mask bit of every card rank (2 to 14). ranks 9 to K have no bit
+    private static final int[] LOW_BITS = new int[15];
+
+    static {
+        for (int rank = 2; rank <= 8; rank++) {
+            LOW_BITS[rank] = 1 << (rank - 1);
+        }
+
+        LOW_BITS[14] = 1;
+
+        for (int holeMask = 0; holeMask < 256; holeMask++) {
+            for (int boardMask = 0; boardMask < 256; boardMask++) {
+                LO_VALUES[(holeMask << 8) | boardMask] = computeLoValue(holeMask, boardMask);
+            }
+        }
+    }
+
+    private LoEvaluator()
+    {
+    }
+
+    /**
+     * Determines the Lo value of an Omaha hand.
+     * <br />
+     * <strong>WARNING:</strong> This method does not check for duplicate or NULL cards.
+     *
+     * @param cards the cards. The hole cards come first (4 for Omaha, 5 for 5-Card Omaha), followed by
+     * the 5 community cards.
+     *
+     * @return the Lo value of the hand, {@link #NO_LO} if there is no Lo hand.
+     */
+    public static int evaluate(Card[] cards)
+    {
+        int holeCount = cards.length - 5;
+        int holeMask = 0, boardMask = 0;
+
+        for (int i = 0; i < holeCount; i++) {
+            holeMask |= LOW_BITS[cards[i].getRank()];
+        }
+
+        for (int i = holeCount; i < cards.length; i++) {
+            boardMask |= LOW_BITS[cards[i].getRank()];
+        }
+
+        return LO_VALUES[(holeMask << 8) | boardMask];
+    }
+
+    /**
+     * Returns the String representation of a Lo value. This is the same representation that the
+     * <code>getLoCombination</code> methods of the combination classes return: the 5 ranks in descending
+     * order (with the Ace last) or "0" if there is no Lo hand.
+     *
+     * @param loValue the Lo value.
+     *
+     * @return the String representation of the Lo value.
+     */
+    public static String toString(int loValue)
+    {
+        if (loValue == NO_LO) {
+            return "0";
+        }
+
+        int mask = 255 - loValue;
+        StringBuilder sb = new StringBuilder(5);
+
+        for (int bit = 7; bit >= 0; bit--) {
+            if ((mask & (1 << bit)) != 0) {
+                sb.append(bit == 0 ? 'A' : Card.getCharCard(bit + 1));
+            }
+        }
+
+        return sb.toString();
+    }
+
+    //finds the best Lo hand made of 2 ranks from the hole mask and 3 other ranks from the board mask.
+    //for two 5-rank masks, the one with the smaller value is the better Lo hand (its highest card
+    //is lower or, if they are equal, the next one is lower etc.), so the value is 255 - mask
+    private static int computeLoValue(int holeMask, int boardMask)
+    {
+        int best = 256;
+
+        for (int pair = 0; pair < 256; pair++) {
+            if (Integer.bitCount(pair) != 2 || (pair & holeMask) != pair) {
+                continue;
+            }
+
+            int available = boardMask & ~pair;
+
+            if (Integer.bitCount(available) < 3) {
+                continue;
+            }
+
+            //the 3 lowest remaining board ranks are always the best choice
+            int triple = 0;
+            for (int i = 0; i < 3; i++) {
+                triple |= Integer.lowestOneBit(available & ~triple);
+            }
+
+            best = Math.min(best, pair | triple);
+        }
+
+        return (best == 256) ? NO_LO : 255 - best;
+    }
+}
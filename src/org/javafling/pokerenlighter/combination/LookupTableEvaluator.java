@@ -0,0 +1,335 @@
+package org.javafling.pokerenlighter.combination;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Table-driven evaluator for combinations of 5, 6 or 7 cards. The results are the same hand ranks that
+ * {@link HandRank#evaluate(Card[])} returns, but they are obtained with a couple of additions and one or two
+ * array lookups instead of checking every kind of combination one after another.
+ * <br /><br />
+ * How it works:
+ * <ul>
+ * <li>every card rank has a key. The keys are chosen so that the sum of the keys of any 5, 6 or 7 cards
+ * (with at most 4 cards of a rank) identifies the ranks uniquely. A perfect hash (two multiplicative
+ * hashes and a displacement per row) maps these sums to a dense table that contains the hand rank of every
+ * non-flush combination.</li>
+ * <li>flushes are detected by counting the cards of every color. If there is a flush, the rank mask of
+ * the flush color is looked up in a second table. With at most 7 cards, a flush can not coexist with a full
+ * house or a quad, so the flush table alone gives the result.</li>
+ * </ul>
+ * The tables are built only once per JVM, when this class is loaded. They are never modified afterwards,
+ * so this class can be used by any number of threads at the same time.
+ *
+ * @author Radu Murzea
+ */
+public final class LookupTableEvaluator
+{
+    //the rank keys (for ranks 2 to 14). the sums of 5, 6 or 7 keys are unique within each card count.
+    //the extra 1 << 23 makes the card count part of the sum, so that sums of different counts can't collide
+    private static final int[] BASE_KEYS = {
+        0, 1, 5, 22, 98, 453, 2031, 8698, 22854, 83661, 262349, 636345, 1479181
+    };
+    private static final int CARD_COUNT_KEY = 1 << 23;
+
+    //the key of every rank, indexed directly by the rank (2 to 14)
+    static final int[] RANK_KEYS = new int[15];
+
+    //perfect hash parameters: the first hash selects a row, the offset of the row is added to the second hash
+    private static final int ROW_BITS = 15;
+    private static final int COLUMN_BITS = 15;
+    private static final int ROW_MULTIPLIER = 0x9E3779B1;
+    private static final int COLUMN_MULTIPLIER = 0x85EBCA6B;
+
+    private static final int[] ROW_OFFSETS;
+    private static final int[] RANKS;
+
+    //hand ranks of the flushes, indexed by the 13-bit rank mask of the flush color (bit 0 = rank 2)
+    private static final int[] FLUSH_RANKS = new int[1 << 13];
+
+    //the sum of the rank keys of the cards of one color, indexed by the 13-bit rank mask of the color
+    private static final int[] COLOR_KEYS = new int[1 << 13];
+
+    static {
+        for (int i = 0; i < 13; i++) {
+            RANK_KEYS[i + 2] = BASE_KEYS[i] + CARD_COUNT_KEY;
+        }
+
+        for (int mask = 0; mask < FLUSH_RANKS.length; mask++) {
+            if (Integer.bitCount(mask) >= 5) {
+                FLUSH_RANKS[mask] = HandRank.evaluate(mask << 2, 0, 0, 0);
+            }
+
+            for (int r = 0; r < 13; r++) {
+                if ((mask & (1 << r)) != 0) {
+                    COLOR_KEYS[mask] += RANK_KEYS[r + 2];
+                }
+            }
+        }
+
+        //collect every non-flush combination of 5, 6 and 7 cards
+        int total = 6175 + 18395 + 49205;
+        int[] keys = new int[total];
+        int[] ranks = new int[total];
+        int[] counts = new int[13];
+        int size = 0;
+
+        for (int cards = 5; cards <= 7; cards++) {
+            size = collect(counts, 0, cards, keys, ranks, size);
+        }
+
+        ROW_OFFSETS = new int[1 << ROW_BITS];
+        RANKS = buildPerfectHash(keys, ranks, size, ROW_OFFSETS);
+    }
+
+    private LookupTableEvaluator()
+    {
+    }
+
+    /**
+     * Determines the hand rank of the best 5-card combination that can be made from some cards.
+     * <br />
+     * <strong>WARNING:</strong> This method does not check for duplicate or NULL cards.
+     *
+     * @param cards the cards. There must be 5, 6 or 7 of them.
+     *
+     * @return the hand rank of the best combination. See {@link HandRank} for its structure.
+     */
+    public static int evaluate(Card[] cards)
+    {
+        int key = 0, colorCounts = 0;
+        int clubs = 0, diamonds = 0, hearts = 0, spades = 0;
+
+        for (Card card : cards) {
+            int rank = card.getRank();
+            key += RANK_KEYS[rank];
+
+            switch (card.getColor()) {
+                case 'c': clubs |= 1 << rank; colorCounts += 0x0001; break;
+                case 'd': diamonds |= 1 << rank; colorCounts += 0x0010; break;
+                case 'h': hearts |= 1 << rank; colorCounts += 0x0100; break;
+                default: spades |= 1 << rank; colorCounts += 0x1000; break;
+            }
+        }
+
+        //adding 3 to every 4-bit counter sets its top bit only if the counter is at least 5
+        if (((colorCounts + 0x3333) & 0x8888) != 0) {
+            int flushMask;
+
+            if ((colorCounts & 0xF) >= 5) {
+                flushMask = clubs;
+            } else if (((colorCounts >>> 4) & 0xF) >= 5) {
+                flushMask = diamonds;
+            } else if (((colorCounts >>> 8) & 0xF) >= 5) {
+                flushMask = hearts;
+            } else {
+                flushMask = spades;
+            }
+
+            return evaluateFlush(flushMask);
+        }
+
+        return evaluateKey(key);
+    }
+
+    /**
+     * Determines the hand rank of the best 5-card combination that can be made from a set of cards.
+     *
+     * @param cards the cards, as a set (see {@link CardSet}). There must be 5, 6 or 7 of them.
+     *
+     * @return the hand rank of the best combination. See {@link HandRank} for its structure.
+     */
+    public static int evaluate(long cards)
+    {
+        //the card indexes are grouped by color, 13 bits for each one
+        int clubs = (int) cards & 0x1FFF;
+        int diamonds = (int) (cards >>> 13) & 0x1FFF;
+        int hearts = (int) (cards >>> 26) & 0x1FFF;
+        int spades = (int) (cards >>> 39) & 0x1FFF;
+
+        if (Integer.bitCount(clubs) >= 5) {
+            return FLUSH_RANKS[clubs];
+        } else if (Integer.bitCount(diamonds) >= 5) {
+            return FLUSH_RANKS[diamonds];
+        } else if (Integer.bitCount(hearts) >= 5) {
+            return FLUSH_RANKS[hearts];
+        } else if (Integer.bitCount(spades) >= 5) {
+            return FLUSH_RANKS[spades];
+        }
+
+        return evaluateKey(COLOR_KEYS[clubs] + COLOR_KEYS[diamonds] + COLOR_KEYS[hearts] + COLOR_KEYS[spades]);
+    }
+
+    //hand rank of a combination without a flush, given the sum of the rank keys of its cards
+    static int evaluateKey(int key)
+    {
+        return RANKS[ROW_OFFSETS[row(key)] + column(key)];
+    }
+
+    //hand rank of a flush, given the rank mask of its color (bit r = rank r)
+    static int evaluateFlush(int rankMask)
+    {
+        return FLUSH_RANKS[rankMask >>> 2];
+    }
+
+    private static int row(int key)
+    {
+        return (key * ROW_MULTIPLIER) >>> (32 - ROW_BITS);
+    }
+
+    private static int column(int key)
+    {
+        return (key * COLUMN_MULTIPLIER) >>> (32 - COLUMN_BITS);
+    }
+
+    //recursively generates all the rank multisets of the given size, storing their key and hand rank
+    private static int collect(int[] counts, int rank, int left, int[] keys, int[] ranks, int size)
+    {
+        if (rank == 13) {
+            if (left == 0) {
+                int key = 0, color = 0;
+                int[] masks = new int[4];
+
+                //spread the copies of every rank over different colors, so that no flush is formed
+                for (int r = 0; r < 13; r++) {
+                    for (int c = 0; c < counts[r]; c++) {
+                        key += RANK_KEYS[r + 2];
+                        masks[color & 3] |= 1 << (r + 2);
+                        color++;
+                    }
+                }
+
+                keys[size] = key;
+                ranks[size] = HandRank.evaluate(masks[0], masks[1], masks[2], masks[3]);
+                size++;
+            }
+
+            return size;
+        }
+
+        for (int c = 0; c <= Math.min(4, left); c++) {
+            counts[rank] = c;
+            size = collect(counts, rank + 1, left - c, keys, ranks, size);
+        }
+
+        counts[rank] = 0;
+
+        return size;
+    }
+
+    //builds the perfect hash table: every row gets an offset so that "offset + column(key)"
+    //is a unique index for all the keys
+    private static int[] buildPerfectHash(int[] keys, int[] ranks, int size, int[] rowOffsets)
+    {
+        int rows = rowOffsets.length;
+
+        //bucket the keys by row
+        int[] rowSizes = new int[rows];
+        for (int i = 0; i < size; i++) {
+            rowSizes[row(keys[i])]++;
+        }
+
+        int[] rowStarts = new int[rows + 1];
+        for (int r = 0; r < rows; r++) {
+            rowStarts[r + 1] = rowStarts[r] + rowSizes[r];
+        }
+
+        int[] bucketed = new int[size];
+        int[] fill = rowStarts.clone();
+        for (int i = 0; i < size; i++) {
+            bucketed[fill[row(keys[i])]++] = i;
+        }
+
+        //place the fullest rows first, they are the hardest to fit
+        Integer[] order = new Integer[rows];
+        for (int r = 0; r < rows; r++) {
+            order[r] = r;
+        }
+
+        final int[] sizes = rowSizes;
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b)
+            {
+                return sizes[b] - sizes[a];
+            }
+        });
+
+        int capacity = 2 * size + (1 << COLUMN_BITS);
+        boolean[] used = new boolean[capacity];
+
+        //nextFree[i] leads to the first free slot at or after i (with path compression)
+        int[] nextFree = new int[capacity + 1];
+        for (int i = 0; i <= capacity; i++) {
+            nextFree[i] = i;
+        }
+
+        int tableSize = 0;
+
+        for (Integer row : order) {
+            if (rowSizes[row] == 0) {
+                break;
+            }
+
+            int start = rowStarts[row], end = rowStarts[row + 1];
+            int minColumn = Integer.MAX_VALUE;
+
+            for (int j = start; j < end; j++) {
+                int c = column(keys[bucketed[j]]);
+                minColumn = Math.min(minColumn, c);
+
+                for (int k = start; k < j; k++) {
+                    if (column(keys[bucketed[k]]) == c) {
+                        throw new IllegalStateException("The hash multipliers produce a collision.");
+                    }
+                }
+            }
+
+            //put the smallest column on every free slot, from left to right, until the whole row fits
+            for (int slot = findFree(nextFree, minColumn); ; slot = findFree(nextFree, slot + 1)) {
+                int offset = slot - minColumn;
+                boolean fits = true;
+
+                for (int j = start; j < end && fits; j++) {
+                    fits = ! used[offset + column(keys[bucketed[j]])];
+                }
+
+                if (fits) {
+                    rowOffsets[row] = offset;
+
+                    for (int j = start; j < end; j++) {
+                        int index = offset + column(keys[bucketed[j]]);
+                        used[index] = true;
+                        nextFree[index] = index + 1;
+                        tableSize = Math.max(tableSize, index + 1);
+                    }
+
+                    break;
+                }
+            }
+        }
+
+        int[] table = new int[tableSize];
+        for (int i = 0; i < size; i++) {
+            table[rowOffsets[row(keys[i])] + column(keys[i])] = ranks[i];
+        }
+
+        return table;
+    }
+
+    private static int findFree(int[] nextFree, int index)
+    {
+        int root = index;
+        while (nextFree[root] != root) {
+            root = nextFree[root];
+        }
+
+        while (nextFree[index] != root) {
+            int next = nextFree[index];
+            nextFree[index] = root;
+            index = next;
+        }
+
+        return root;
+    }
+}
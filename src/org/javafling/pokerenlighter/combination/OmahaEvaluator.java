@@ -0,0 +1,75 @@
+package org.javafling.pokerenlighter.combination;
+
+/**
+ * Evaluator for the Hi part of Omaha and 5-Card Omaha hands. The best combination is made from exactly
+ * 2 hole cards and exactly 3 community cards, so every such pair and triple is tried and the 5 resulting
+ * cards are evaluated with the tables of {@link LookupTableEvaluator}.
+ * <br /><br />
+ * Unlike {@link OmahaCombination} and {@link FiveCardOmahaCombination}, nothing is allocated during
+ * the evaluation and no state is kept, so this class can be used by any number of threads at the same time.
+ *
+ * @author Radu Murzea
+ */
+public final class OmahaEvaluator
+{
+    private OmahaEvaluator()
+    {
+    }
+
+    /**
+     * Determines the hand rank of the best Omaha combination that can be made from some cards.
+     * <br />
+     * <strong>WARNING:</strong> This method does not check for duplicate or NULL cards.
+     *
+     * @param cards the cards. The hole cards come first (4 for Omaha, 5 for 5-Card Omaha), followed by
+     * the 5 community cards. The size of the array must be 9 or 10.
+     *
+     * @return the hand rank of the best combination. See {@link HandRank} for its structure.
+     */
+    public static int evaluate(Card[] cards)
+    {
+        int holeCount = cards.length - 5;
+        int best = -1;
+
+        for (int i = 0; i < holeCount - 1; i++) {
+            for (int j = i + 1; j < holeCount; j++) {
+                int pairKey = LookupTableEvaluator.RANK_KEYS[cards[i].getRank()]
+                              + LookupTableEvaluator.RANK_KEYS[cards[j].getRank()];
+                int pairMask = (1 << cards[i].getRank()) | (1 << cards[j].getRank());
+
+                //a flush is possible only if both hole cards have the same color
+                char pairColor = cards[i].isSuited(cards[j]) ? cards[i].getColor() : 0;
+
+                for (int a = holeCount; a < holeCount + 3; a++) {
+                    for (int b = a + 1; b < holeCount + 4; b++) {
+                        for (int c = b + 1; c < holeCount + 5; c++) {
+                            int rank;
+
+                            if (pairColor != 0
+                                && cards[a].getColor() == pairColor
+                                && cards[b].getColor() == pairColor
+                                && cards[c].getColor() == pairColor)
+                            {
+                                rank = LookupTableEvaluator.evaluateFlush(pairMask
+                                                                         | (1 << cards[a].getRank())
+                                                                         | (1 << cards[b].getRank())
+                                                                         | (1 << cards[c].getRank()));
+                            } else {
+                                rank = LookupTableEvaluator.evaluateKey(pairKey
+                                                                       + LookupTableEvaluator.RANK_KEYS[cards[a].getRank()]
+                                                                       + LookupTableEvaluator.RANK_KEYS[cards[b].getRank()]
+                                                                       + LookupTableEvaluator.RANK_KEYS[cards[c].getRank()]);
+                            }
+
+                            if (rank > best) {
+                                best = rank;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return best;
+    }
+}
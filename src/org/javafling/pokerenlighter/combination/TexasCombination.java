@@ -15,6 +15,9 @@ public final class TexasCombination
     //result of "getCombination" is cached here
     private String result;
 
+    //result of "getCombinationRank" is cached here (-1 means "not computed yet")
+    private int handRank;
+
     /**
      * Constructs a TexasCombination object.
      * <br />
@@ -72,6 +75,7 @@ public final class TexasCombination
         
         //new input means old cache is invalid, so purge it
         result = null;
+        handRank = -1;
     }
     
     /**
@@ -185,6 +189,23 @@ public final class TexasCombination
         return result;
     }
 
+    /**
+     * Returns the strength of the highest 5-card combination of the 7 cards as a single integer.
+     * This is much cheaper than {@link #getCombination()} and it should be preferred whenever
+     * combinations only need to be compared.
+     *
+     * @return The hand rank of the highest combination. See {@link HandRank} for its structure.
+     * A bigger value means a better combination, equal values mean a tie.
+     */
+    public int getCombinationRank()
+    {
+        if (handRank == -1) {
+            handRank = HandRank.evaluate(cards);
+        }
+
+        return handRank;
+    }
+
     /**
      * Determines the high card combination of this combination.
      *
@@ -817,7 +838,7 @@ public final class TexasCombination
         TexasCombination param = (TexasCombination) c;
 
         for (int i = 0; i < 7; ++i) {
-            if (! cards[i].equals(param.getCard(i))) {
+            if (cards[i].getIndex() != param.getCard(i).getIndex()) {
                 return false;
             }
         }
@@ -0,0 +1,159 @@
+package org.javafling.pokerenlighter.simulation;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+
+/**
+ * Delivers the events of a simulation to a notifiable on an executor, instead of on the threads that
+ * play the rounds. The events are delivered one at a time, in the order in which they happened, even
+ * if the executor has many threads: the next event is given to the executor only after the previous
+ * one was delivered.
+ * <br />
+ * If the executor rejects the delivery (for example, because it was shut down), the exception is thrown
+ * to the thread that sent the event. The events that were not delivered stay queued and the next event
+ * tries to deliver them again.
+ *
+ * @author Radu Murzea
+ */
+final class AsyncNotifiable implements SimulationNotifiable
+{
+    private final SimulationNotifiable notifiable;
+    private final Executor executor;
+
+    //the events that were not delivered yet. guarded by itself
+    private final ArrayDeque<Runnable> events = new ArrayDeque<>();
+    private boolean isDelivering;
+
+    //delivers the oldest event, then gives itself to the executor again if there are more
+    private final Runnable delivery = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            Runnable event;
+
+            synchronized (events) {
+                event = events.poll();
+            }
+
+            try {
+                event.run();
+            } finally {
+                deliverNext();
+            }
+        }
+    };
+
+    AsyncNotifiable(SimulationNotifiable notifiable, Executor executor)
+    {
+        this.notifiable = notifiable;
+        this.executor = executor;
+    }
+
+    @Override
+    public void onSimulationStart(final SimulationEvent event)
+    {
+        deliver(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                notifiable.onSimulationStart(event);
+            }
+        });
+    }
+
+    @Override
+    public void onSimulationDone(final SimulationEvent event)
+    {
+        deliver(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                notifiable.onSimulationDone(event);
+            }
+        });
+    }
+
+    @Override
+    public void onSimulationCancel(final SimulationEvent event)
+    {
+        deliver(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                notifiable.onSimulationCancel(event);
+            }
+        });
+    }
+
+    @Override
+    public void onSimulationProgress(final SimulationEvent event)
+    {
+        deliver(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                notifiable.onSimulationProgress(event);
+            }
+        });
+    }
+
+    @Override
+    public void onSimulationError(final SimulationEvent event)
+    {
+        deliver(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                notifiable.onSimulationError(event);
+            }
+        });
+    }
+
+    private void deliver(Runnable event)
+    {
+        synchronized (events) {
+            events.add(event);
+
+            if (isDelivering) {
+                return;
+            }
+
+            isDelivering = true;
+        }
+
+        execute();
+    }
+
+    private void deliverNext()
+    {
+        synchronized (events) {
+            if (events.isEmpty()) {
+                isDelivering = false;
+                return;
+            }
+        }
+
+        execute();
+    }
+
+    //gives the delivery to the executor. if it's rejected, no delivery is running anymore, so the next
+    //event must start one
+    private void execute()
+    {
+        try {
+            executor.execute(delivery);
+        } catch (RuntimeException ex) {
+            synchronized (events) {
+                isDelivering = false;
+            }
+
+            throw ex;
+        }
+    }
+}
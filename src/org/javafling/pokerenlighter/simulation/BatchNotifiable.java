@@ -0,0 +1,39 @@
+package org.javafling.pokerenlighter.simulation;
+
+/**
+ * Any class that wants to get the results of a {@link SimulationBatch} must implement this interface.
+ * <br /><br />
+ * The scenarios of a batch finish on the threads of its engine, so the methods can be called from several
+ * threads at the same time, in any order of the scenarios.
+ *
+ * @author Radu Murzea
+ */
+public interface BatchNotifiable
+{
+    /**
+     * This event will be triggered when a scenario of the batch is done.
+     * @param scenario the position of the scenario in the batch, starting from 0.
+     * @param result the result of the scenario.
+     */
+    public void onScenarioDone(int scenario, SimulationFinalResult result);
+
+    /**
+     * This event will be triggered when a scenario of the batch can't be simulated: it's not valid or
+     * its simulation encountered an error. The other scenarios are not affected.
+     * <br />
+     * It's also triggered if the iterator of the scenarios throws an exception, for the scenario that it
+     * should have given. No more scenarios are taken from it, and the batch is done when the ones that
+     * were already started are done.
+     * <br />
+     * When the run is cancelled, every running scenario gets a <code>CancellationException</code>. When the
+     * engine is shut down, every running scenario and the next one get an <code>IllegalStateException</code>.
+     * @param scenario the position of the scenario in the batch, starting from 0.
+     * @param error the exception that describes the error.
+     */
+    public void onScenarioError(int scenario, Exception error);
+
+    /**
+     * This event will be triggered once, after all the scenarios of the batch are done.
+     */
+    public void onBatchDone();
+}
@@ -0,0 +1,71 @@
+package org.javafling.pokerenlighter.simulation;
+
+/**
+ * Guards the progress events of a simulation, which are sent from the progress sampler instead of the
+ * threads that play the rounds:
+ * <br />
+ * - an exception thrown by the notifiable for a progress event is given to its
+ * <code>onSimulationError</code>, instead of being lost on the thread that delivered the event.
+ * <br />
+ * - no progress event is delivered after the done or cancel event, or at the same time as them.
+ *
+ * @author Radu Murzea
+ */
+final class GuardedNotifiable implements SimulationNotifiable
+{
+    private final SimulationNotifiable notifiable;
+
+    //true after the done or cancel event. guarded by this
+    private boolean isEnded;
+
+    GuardedNotifiable(SimulationNotifiable notifiable)
+    {
+        this.notifiable = notifiable;
+    }
+
+    @Override
+    public void onSimulationStart(SimulationEvent event)
+    {
+        notifiable.onSimulationStart(event);
+    }
+
+    @Override
+    public void onSimulationDone(SimulationEvent event)
+    {
+        end();
+        notifiable.onSimulationDone(event);
+    }
+
+    @Override
+    public void onSimulationCancel(SimulationEvent event)
+    {
+        end();
+        notifiable.onSimulationCancel(event);
+    }
+
+    @Override
+    public synchronized void onSimulationProgress(SimulationEvent event)
+    {
+        if (isEnded) {
+            return;
+        }
+
+        try {
+            notifiable.onSimulationProgress(event);
+        } catch (RuntimeException ex) {
+            notifiable.onSimulationError(new SimulationEvent(SimulationEvent.EVENT_SIM_ERROR, ex));
+        }
+    }
+
+    @Override
+    public void onSimulationError(SimulationEvent event)
+    {
+        notifiable.onSimulationError(event);
+    }
+
+    //waits for the progress event that is being delivered, if any
+    private synchronized void end()
+    {
+        isEnded = true;
+    }
+}
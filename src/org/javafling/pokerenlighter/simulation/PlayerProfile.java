@@ -1,6 +1,7 @@
 package org.javafling.pokerenlighter.simulation;
 
 import org.javafling.pokerenlighter.combination.Card;
+import org.javafling.pokerenlighter.combination.CardSet;
 
 /**
  * Contains all the information about a player necessary for the simulator to do his job.
@@ -65,7 +66,7 @@ public final class PlayerProfile
                     throw new NullPointerException();
                 }
                 
-                if ((cards.length != 2 && cards.length != 4 && cards.length != 5) || containsDuplicates(cards)) {
+                if ((cards.length != 2 && cards.length != 4 && cards.length != 5) || CardSet.hasDuplicates(cards)) {
                     throw new IllegalArgumentException();
                 }
             }
@@ -117,17 +118,4 @@ public final class PlayerProfile
         
         return false;
     }
-    
-    private boolean containsDuplicates(Card[] cards)
-    {
-        for (int i = 0; i < cards.length - 1; i++) {
-            for (int j = i + 1; j < cards.length; j++) {
-                if (cards[i].equals(cards[j])) {
-                    return true;
-                }
-            }
-        }
-        
-        return false;
-    }
 }
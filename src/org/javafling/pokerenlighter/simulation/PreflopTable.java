@@ -0,0 +1,196 @@
+package org.javafling.pokerenlighter.simulation;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import org.javafling.pokerenlighter.combination.Card;
+
+/**
+ * The exact results of all the heads-up preflop matchups of Texas Hold'em (2 players with exact cards
+ * and no community cards), read from a file created by {@link PreflopTableGenerator}. The file is
+ * memory-mapped, so loading it reads nothing and every result is found in constant time.
+ * <br /><br />
+ * The file has a header of 4 ints (a magic number, the version of the format, the number of boards
+ * and the number of matchups), followed by 2 ints for every matchup: the number of boards won and the
+ * number of boards tied by the hand with the smaller index. The hand made of the cards with the indexes
+ * a &lt; b (see <code>Card.getIndex</code>) has the index b * (b - 1) / 2 + a, and the matchup of the hands
+ * x &lt; y has the index y * (y - 1) / 2 + x. The matchups of hands with a common card are left empty.
+ * <br /><br />
+ * Objects of this class are immutable and thread-safe.
+ *
+ * @author Radu Murzea
+ */
+public final class PreflopTable
+{
+    /**
+     * The number of boards of every matchup: the 5 community cards can be any 5 of the 48 other cards.
+     */
+    public static final int NR_OF_BOARDS = 1712304;
+
+    //the number of 2-card hands and of pairs of hands
+    static final int NR_OF_HANDS = 52 * 51 / 2;
+    static final int NR_OF_MATCHUPS = NR_OF_HANDS * (NR_OF_HANDS - 1) / 2;
+
+    //the header of the file. the magic number is "PEPT" in ASCII
+    static final int MAGIC = 0x50455054;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final long FILE_SIZE = HEADER_SIZE + 8L * NR_OF_MATCHUPS;
+
+    private final ByteBuffer table;
+
+    private PreflopTable(ByteBuffer table)
+    {
+        this.table = table;
+    }
+
+    /**
+     * Memory-maps a table file, read-only.
+     *
+     * @param file the file created by <code>PreflopTableGenerator</code>.
+     *
+     * @return the table.
+     *
+     * @throws IOException if the file can't be read or if it's not a table file of this version.
+     */
+    public static PreflopTable load(File file) throws IOException
+    {
+        //the mapping stays valid after the file is closed
+        try (RandomAccessFile input = new RandomAccessFile(file, "r");
+             FileChannel channel = input.getChannel())
+        {
+            if (channel.size() != FILE_SIZE) {
+                throw new IOException("The file is not a preflop table: " + file);
+            }
+
+            ByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, 0, FILE_SIZE);
+
+            if (table.getInt(0) != MAGIC
+                || table.getInt(4) != VERSION
+                || table.getInt(8) != NR_OF_BOARDS
+                || table.getInt(12) != NR_OF_MATCHUPS)
+            {
+                throw new IOException("The file is not a preflop table of version " + VERSION + ": " + file);
+            }
+
+            return new PreflopTable(table);
+        }
+    }
+
+    /**
+     * Returns the number of boards won by the first hand of a matchup.
+     *
+     * @param first the cards of the first player.
+     * @param second the cards of the second player.
+     *
+     * @return the number of boards won by the first player, out of {@link #NR_OF_BOARDS}.
+     *
+     * @throws IllegalArgumentException if a player doesn't have 2 cards or if the hands have a common card.
+     */
+    public int getWins(Card[] first, Card[] second)
+    {
+        int firstHand = getHandIndex(first);
+        int secondHand = getHandIndex(second);
+
+        checkMatchup(first, second);
+
+        //the table has the results of the hand with the smaller index. the other one wins when it loses
+        if (firstHand < secondHand) {
+            return table.getInt(getPosition(firstHand, secondHand));
+        } else {
+            int position = getPosition(secondHand, firstHand);
+
+            return NR_OF_BOARDS - table.getInt(position) - table.getInt(position + 4);
+        }
+    }
+
+    /**
+     * Returns the number of boards tied by the hands of a matchup.
+     *
+     * @param first the cards of the first player.
+     * @param second the cards of the second player.
+     *
+     * @return the number of boards tied, out of {@link #NR_OF_BOARDS}.
+     *
+     * @throws IllegalArgumentException if a player doesn't have 2 cards or if the hands have a common card.
+     */
+    public int getTies(Card[] first, Card[] second)
+    {
+        int firstHand = getHandIndex(first);
+        int secondHand = getHandIndex(second);
+
+        checkMatchup(first, second);
+
+        return table.getInt(getPosition(Math.min(firstHand, secondHand), Math.max(firstHand, secondHand)) + 4);
+    }
+
+    /**
+     * Returns the number of boards lost by the first hand of a matchup.
+     *
+     * @param first the cards of the first player.
+     * @param second the cards of the second player.
+     *
+     * @return the number of boards lost by the first player, out of {@link #NR_OF_BOARDS}.
+     *
+     * @throws IllegalArgumentException if a player doesn't have 2 cards or if the hands have a common card.
+     */
+    public int getLoses(Card[] first, Card[] second)
+    {
+        return getWins(second, first);
+    }
+
+    //the position of the results of the matchup of the hands x < y in the file
+    private static int getPosition(int x, int y)
+    {
+        return HEADER_SIZE + 8 * getMatchupIndex(x, y);
+    }
+
+    private static void checkMatchup(Card[] first, Card[] second)
+    {
+        for (Card card : first) {
+            if (card.equals(second[0]) || card.equals(second[1])) {
+                throw new IllegalArgumentException("The hands have a common card");
+            }
+        }
+    }
+
+    private static int getHandIndex(Card[] cards)
+    {
+        if (cards.length != 2 || cards[0].equals(cards[1])) {
+            throw new IllegalArgumentException("A hand must have 2 different cards");
+        }
+
+        return getHandIndex(cards[0].getIndex(), cards[1].getIndex());
+    }
+
+    /**
+     * Returns the index of the hand made of 2 different cards.
+     *
+     * @param card1 the index of a card.
+     * @param card2 the index of the other card.
+     *
+     * @return the index of the hand, between 0 and <code>NR_OF_HANDS - 1</code>.
+     */
+    static int getHandIndex(int card1, int card2)
+    {
+        int a = Math.min(card1, card2);
+        int b = Math.max(card1, card2);
+
+        return b * (b - 1) / 2 + a;
+    }
+
+    /**
+     * Returns the index of the matchup of 2 hands.
+     *
+     * @param x the index of the hand with the smaller index.
+     * @param y the index of the other hand.
+     *
+     * @return the index of the matchup, between 0 and <code>NR_OF_MATCHUPS - 1</code>.
+     */
+    static int getMatchupIndex(int x, int y)
+    {
+        return y * (y - 1) / 2 + x;
+    }
+}
@@ -0,0 +1,288 @@
+package org.javafling.pokerenlighter.simulation;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.javafling.pokerenlighter.combination.Card;
+import org.javafling.pokerenlighter.simulation.worker.EnumerationWorker;
+import org.javafling.pokerenlighter.simulation.worker.SimulationWorker;
+import org.javafling.pokerenlighter.simulation.worker.SimulationWorkerResult;
+import org.javafling.pokerenlighter.simulation.worker.WorkerEvent;
+import org.javafling.pokerenlighter.simulation.worker.WorkerNotifiable;
+
+/**
+ * Creates the file of a {@link PreflopTable}: the exact results of all the heads-up preflop matchups of
+ * Texas Hold'em, computed by enumerating all their boards with an <code>EnumerationWorker</code>.
+ * <br /><br />
+ * Renaming the colors of a matchup doesn't change its result, so only one matchup of every group of
+ * matchups that differ only by the colors is enumerated: 47008 matchups instead of 812175. This still
+ * takes about an hour on a single thread, so the file is meant to be created once and then shipped with
+ * the application:
+ * <pre>
+ * java org.javafling.pokerenlighter.simulation.PreflopTableGenerator preflop.dat [threads]
+ * </pre>
+ *
+ * @author Radu Murzea
+ */
+public final class PreflopTableGenerator
+{
+    private static final WorkerNotifiable NOTIFIABLE = new WorkerNotifiable()
+    {
+        @Override
+        public void onSimulationDone(WorkerEvent event)
+        {
+        }
+
+        @Override
+        public void onSimulationProgress(WorkerEvent event)
+        {
+        }
+
+        @Override
+        public void onSimulationError(WorkerEvent event)
+        {
+        }
+    };
+
+    private PreflopTableGenerator()
+    {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        if (args.length < 1 || args.length > 2) {
+            System.out.println("Usage: PreflopTableGenerator <file> [threads]");
+            return;
+        }
+
+        int nrThreads = (args.length == 2) ? Integer.parseInt(args[1]) : SystemUtils.getNrOfLogicalCPUs();
+
+        long startTime = System.currentTimeMillis();
+
+        generate(new File(args[0]), nrThreads);
+
+        System.out.println("Done in " + (System.currentTimeMillis() - startTime) / 1000 + " seconds");
+    }
+
+    /**
+     * Computes the results of all the matchups and writes them to a file. If the enumeration of any
+     * matchup fails, the file is not written, since the table would give wrong results as exact ones.
+     *
+     * @param file the file. If it exists, it's overwritten.
+     * @param nrThreads the number of threads that enumerate the matchups.
+     *
+     * @throws IOException if the file can't be written.
+     * @throws InterruptedException if the thread is interrupted while waiting for the enumerations.
+     * @throws IllegalStateException if the enumeration of a matchup fails.
+     */
+    public static void generate(File file, int nrThreads) throws IOException, InterruptedException
+    {
+        final int[] canonical = getCanonicalMatchups();
+        final int[] wins = new int[PreflopTable.NR_OF_MATCHUPS];
+        final int[] ties = new int[PreflopTable.NR_OF_MATCHUPS];
+
+        ExecutorService executor = Executors.newFixedThreadPool(nrThreads);
+        List<Future<?>> tasks = new ArrayList<>();
+
+        try {
+            for (int x = 0; x < PreflopTable.NR_OF_HANDS; x++) {
+                for (int y = x + 1; y < PreflopTable.NR_OF_HANDS; y++) {
+                    final int matchup = PreflopTable.getMatchupIndex(x, y);
+
+                    if (canonical[matchup] != matchup) {
+                        continue;
+                    }
+
+                    final Card[] first = getCards(x);
+                    final Card[] second = getCards(y);
+
+                    tasks.add(executor.submit(new Runnable()
+                    {
+                        @Override
+                        public void run()
+                        {
+                            SimulationWorkerResult result = enumerate(first, second);
+
+                            wins[matchup] = result.getWins(0);
+                            ties[matchup] = result.getTies(0);
+                        }
+                    }));
+                }
+            }
+
+            //the results written by the tasks are visible after Future.get
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("The enumeration of a matchup failed", ex.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        //every other matchup has the result of its canonical matchup, maybe with the players swapped
+        for (int matchup = 0; matchup < PreflopTable.NR_OF_MATCHUPS; matchup++) {
+            int c = canonical[matchup];
+
+            if (c == -1 || c == matchup) {
+                continue;
+            } else if (c >= 0) {
+                wins[matchup] = wins[c];
+            } else {
+                c = ~c;
+                wins[matchup] = PreflopTable.NR_OF_BOARDS - wins[c] - ties[c];
+            }
+
+            ties[matchup] = ties[c];
+        }
+
+        write(file, wins, ties);
+    }
+
+    /**
+     * Enumerates all the boards of a heads-up preflop matchup.
+     *
+     * @param first the cards of the first player.
+     * @param second the cards of the second player.
+     *
+     * @return the result of the enumeration.
+     */
+    static SimulationWorkerResult enumerate(Card[] first, Card[] second)
+    {
+        SimulationWorker worker = EnumerationWorker.builder()
+            .setGameType(PokerType.TEXAS_HOLDEM)
+            .setCommunityCards(new Card[5])
+            .setUpdateInterval(100)
+            .setNotifier(NOTIFIABLE)
+            .addPlayer(new PlayerProfile(HandType.EXACTCARDS, null, first))
+            .addPlayer(new PlayerProfile(HandType.EXACTCARDS, null, second))
+            .build();
+
+        worker.run();
+
+        SimulationWorkerResult result = worker.getResult();
+
+        //an interrupted worker stops before all the boards are played
+        if (result == null || result.getRounds() != PreflopTable.NR_OF_BOARDS) {
+            throw new IllegalStateException("Not all the boards were enumerated");
+        }
+
+        return result;
+    }
+
+    /**
+     * Finds the canonical matchup of every matchup: the one with the smallest index among the matchups
+     * that differ from it only by the colors.
+     *
+     * @return for every matchup, the index of its canonical matchup if the hand with the smaller index
+     * has the same result in both, the complement (<code>~index</code>) of that index if it has the result
+     * of the other hand and -1 if the hands have a common card.
+     */
+    static int[] getCanonicalMatchups()
+    {
+        int[][] permutations = ScenarioKey.getPermutations();
+
+        //the index of every hand, for every renaming of the colors
+        int[][] permutedHands = new int[permutations.length][PreflopTable.NR_OF_HANDS];
+
+        for (int p = 0; p < permutations.length; p++) {
+            for (int a = 0; a < 52; a++) {
+                for (int b = a + 1; b < 52; b++) {
+                    int hand = PreflopTable.getHandIndex(a, b);
+
+                    permutedHands[p][hand] = PreflopTable.getHandIndex(permute(a, permutations[p]), permute(b, permutations[p]));
+                }
+            }
+        }
+
+        int[] canonical = new int[PreflopTable.NR_OF_MATCHUPS];
+        long[] handMasks = new long[PreflopTable.NR_OF_HANDS];
+
+        for (int a = 0; a < 52; a++) {
+            for (int b = a + 1; b < 52; b++) {
+                handMasks[PreflopTable.getHandIndex(a, b)] = (1L << a) | (1L << b);
+            }
+        }
+
+        for (int x = 0; x < PreflopTable.NR_OF_HANDS; x++) {
+            for (int y = x + 1; y < PreflopTable.NR_OF_HANDS; y++) {
+                int matchup = PreflopTable.getMatchupIndex(x, y);
+
+                if ((handMasks[x] & handMasks[y]) != 0) {
+                    canonical[matchup] = -1;
+                    continue;
+                }
+
+                int best = matchup;
+                boolean swapped = false;
+
+                for (int[] hands : permutedHands) {
+                    int px = hands[x];
+                    int py = hands[y];
+                    int index = PreflopTable.getMatchupIndex(Math.min(px, py), Math.max(px, py));
+
+                    if (index < best) {
+                        best = index;
+                        swapped = px > py;
+                    }
+                }
+
+                canonical[matchup] = swapped ? ~best : best;
+            }
+        }
+
+        return canonical;
+    }
+
+    //renames the color of a card
+    private static int permute(int card, int[] permutation)
+    {
+        return 13 * permutation[card / 13] + card % 13;
+    }
+
+    //the cards of the hand with an index
+    private static Card[] getCards(int hand)
+    {
+        int b = 1;
+
+        while ((b + 1) * b / 2 <= hand) {
+            b++;
+        }
+
+        int a = hand - b * (b - 1) / 2;
+
+        return new Card[] {Card.valueOf(a), Card.valueOf(b)};
+    }
+
+    /**
+     * Writes a table file.
+     *
+     * @param file the file.
+     * @param wins the number of boards won by the hand with the smaller index, for every matchup.
+     * @param ties the number of boards tied, for every matchup.
+     *
+     * @throws IOException if the file can't be written.
+     */
+    static void write(File file, int[] wins, int[] ties) throws IOException
+    {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            output.writeInt(PreflopTable.MAGIC);
+            output.writeInt(PreflopTable.VERSION);
+            output.writeInt(PreflopTable.NR_OF_BOARDS);
+            output.writeInt(PreflopTable.NR_OF_MATCHUPS);
+
+            for (int matchup = 0; matchup < PreflopTable.NR_OF_MATCHUPS; matchup++) {
+                output.writeInt(wins[matchup]);
+                output.writeInt(ties[matchup]);
+            }
+        }
+    }
+}
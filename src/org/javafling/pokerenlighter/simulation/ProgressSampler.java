@@ -0,0 +1,86 @@
+package org.javafling.pokerenlighter.simulation;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the progress sampling of all the simulations on a single daemon thread, at a fixed time cadence.
+ * <br /><br />
+ * The workers never notify the <code>Simulator</code> of their progress; they only count the rounds they
+ * played. Every sampling reads the counters once, so the cost of reporting the progress doesn't depend on
+ * the number of workers or on how fast they play.
+ * <br /><br />
+ * The sampling thread never runs the notifiables, so a slow notifiable can't delay the progress of the
+ * other simulations. The progress events are handed to the notification executor of the simulation or,
+ * if it has none, to the executor returned by {@link #getDeliveryExecutor()}.
+ *
+ * @author Radu Murzea
+ */
+final class ProgressSampler
+{
+    //created only when the first simulation starts
+    private static class Holder
+    {
+        static final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable r)
+            {
+                Thread thread = new Thread(r, "simulation-progress-sampler");
+                thread.setDaemon(true);
+
+                return thread;
+            }
+        });
+    }
+
+    //created only when the first progress event is delivered
+    private static class DeliveryHolder
+    {
+        static final Executor executor = Executors.newCachedThreadPool(new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable r)
+            {
+                Thread thread = new Thread(r, "simulation-progress-delivery");
+                thread.setDaemon(true);
+
+                return thread;
+            }
+        });
+    }
+
+    private ProgressSampler()
+    {
+    }
+
+    /**
+     * Runs a sampling task periodically, until it's cancelled.
+     *
+     * @param task the task. It must be short and must not call the notifiables, since all the simulations
+     * share the same thread.
+     * @param periodMillis the time between two runs, in milliseconds.
+     *
+     * @return the future that cancels the task.
+     */
+    static ScheduledFuture<?> schedule(Runnable task, long periodMillis)
+    {
+        return Holder.executor.scheduleAtFixedRate(task, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the executor on which the progress events of the simulations without a notification
+     * executor are delivered. Its threads are created as needed, so a notifiable that blocks keeps
+     * only one of them busy.
+     *
+     * @return the executor.
+     */
+    static Executor getDeliveryExecutor()
+    {
+        return DeliveryHolder.executor;
+    }
+}
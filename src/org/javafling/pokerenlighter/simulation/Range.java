@@ -1,5 +1,6 @@
 package org.javafling.pokerenlighter.simulation;
 
+import java.util.Arrays;
 import org.javafling.pokerenlighter.combination.Card;
 
 /**
@@ -144,6 +145,18 @@ public final class Range
     
     private int percentage;
     
+    //the cell of every hand in the 13x13 grid (row << 4 | column), indexed by card1 * 52 + card2,
+    //where card1 and card2 are card indexes (see Card.getIndex)
+    private static final int[] HAND_CELLS = new int[52 * 52];
+    
+    static {
+        for (int i = 0; i < 52; i++) {
+            for (int j = 0; j < 52; j++) {
+                HAND_CELLS[i * 52 + j] = getCell(Card.valueOf(i), Card.valueOf(j));
+            }
+        }
+    }
+    
     //contains the set of cards selected for this range.
     //initially, none are selected (0 % range)
     private final boolean[][] rangeSelections = {
@@ -257,6 +270,52 @@ public final class Range
      * @return true if the specified hand is selected in this range, false otherwise.
      */
     public boolean containsHand(Card c1, Card c2)
+    {
+        return containsHand(c1.getIndex(), c2.getIndex());
+    }
+    
+    /**
+     * Tells if the hand composed of the two cards with the specified indexes is selected in this range.
+     * The order in which you specify the cards is not relevant.
+     * @param card1 the index of the first card (see Card.getIndex)
+     * @param card2 the index of the second card (see Card.getIndex)
+     * @return true if the specified hand is selected in this range, false otherwise.
+     */
+    public boolean containsHand(int card1, int card2)
+    {
+        int cell = HAND_CELLS[card1 * 52 + card2];
+        
+        return this.rangeSelections[cell >>> 4][cell & 0xF];
+    }
+    
+    /**
+     * Returns all the concrete 2-card hands selected in this range that don't contain any of the
+     * specified dead cards. The result reflects the current selections only; later changes to this range
+     * don't affect it.
+     * @param deadCards the cards that can't be part of any hand, as a set of cards (see CardSet).
+     * @return the hands, each one as a set of 2 cards (see CardSet). The array is empty if there are no
+     * such hands.
+     */
+    public long[] getHands(long deadCards)
+    {
+        long[] hands = new long[52 * 51 / 2];
+        int count = 0;
+
+        for (int i = 0; i < 52; i++) {
+            for (int j = i + 1; j < 52; j++) {
+                long hand = (1L << i) | (1L << j);
+
+                if ((hand & deadCards) == 0 && containsHand(i, j)) {
+                    hands[count++] = hand;
+                }
+            }
+        }
+
+        return Arrays.copyOf(hands, count);
+    }
+
+    //determines the cell of the 13x13 grid that contains the hand made of the 2 cards
+    private static int getCell(Card c1, Card c2)
     {
         int rbig, rsmall;
 
@@ -285,6 +344,6 @@ public final class Range
             }
         }
 
-        return this.rangeSelections[row][column];
+        return (row << 4) | column;
     }
 }
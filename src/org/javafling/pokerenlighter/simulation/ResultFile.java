@@ -0,0 +1,431 @@
+package org.javafling.pokerenlighter.simulation;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.javafling.pokerenlighter.combination.Card;
+
+/**
+ * Simulation results stored in a compact binary file, created by {@link ResultFileWriter}. The file is
+ * memory-mapped, so loading it reads nothing: the results are read from the page cache when they are
+ * needed, by their position or by their scenario.
+ * <br /><br />
+ * All the results of a file have the same number of players. The file has a header of 32 bytes (a magic
+ * number, the version of the format, the number of players, the size of a record, the number of records
+ * and 8 reserved bytes), followed by the records, sorted by their scenario keys (see {@link ScenarioKey}),
+ * so a scenario is found with a binary search. A record has a fixed size:
+ * <ul>
+ * <li>the scenario key, as 2 + 3 * players longs. The first long has the ordinal of the game type in its
+ * top 8 bits and the set of the flop cards (see <code>CardSet</code>) in the others. The second one has
+ * the index of the turn card + 1 in bits 8 to 15 and the index of the river card + 1 in bits 0 to 7,
+ * with 0 for an unknown card. Every player has 3 longs: the 169 bits of the range or, in the first long,
+ * the set of exact cards, and the ordinal of the hand type in the top 8 bits of the third long;</li>
+ * <li>the number of rounds (an int) and the error (a float);</li>
+ * <li>the win, tie and lose percentages of every player, as floats.</li>
+ * </ul>
+ * A heads-up record takes 96 bytes. Since the keys are canonical, the exact cards and the community cards
+ * stored in a record may have other colors than the ones of the simulation it was created from.
+ * <br /><br />
+ * Objects of this class are immutable and thread-safe.
+ *
+ * @author Radu Murzea
+ */
+public final class ResultFile
+{
+    //the header of the file. the magic number is "PERF" in ASCII
+    static final int MAGIC = 0x50455246;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+
+    //a mapping can't be larger than 2 GB, so a large file is mapped in several segments
+    private static final int MAX_SEGMENT_SIZE = Integer.MAX_VALUE;
+
+    private static final long FLOP_MASK = (1L << 52) - 1;
+
+    private final ByteBuffer[] segments;
+    private final int recordsPerSegment;
+    private final int nrOfPlayers;
+    private final int recordSize;
+    private final int nrOfRecords;
+
+    private ResultFile(ByteBuffer[] segments, int recordsPerSegment, int nrOfPlayers, int nrOfRecords)
+    {
+        this.segments = segments;
+        this.recordsPerSegment = recordsPerSegment;
+        this.nrOfPlayers = nrOfPlayers;
+        this.recordSize = getRecordSize(nrOfPlayers);
+        this.nrOfRecords = nrOfRecords;
+    }
+
+    /**
+     * Memory-maps a result file, read-only.
+     *
+     * @param file the file created by <code>ResultFileWriter</code>.
+     *
+     * @return the result file.
+     *
+     * @throws IOException if the file can't be read or if it's not a result file of this version.
+     */
+    public static ResultFile load(File file) throws IOException
+    {
+        //the mappings stay valid after the file is closed
+        try (RandomAccessFile input = new RandomAccessFile(file, "r");
+             FileChannel channel = input.getChannel())
+        {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    break;
+                }
+            }
+
+            if (header.hasRemaining()
+                || header.getInt(0) != MAGIC
+                || header.getInt(4) != VERSION)
+            {
+                throw new IOException("The file is not a result file of version " + VERSION + ": " + file);
+            }
+
+            int nrOfPlayers = header.getInt(8);
+            int recordSize = header.getInt(12);
+            long nrOfRecords = header.getLong(16);
+
+            if (nrOfPlayers < 2
+                || recordSize != getRecordSize(nrOfPlayers)
+                || nrOfRecords < 0
+                || nrOfRecords > Integer.MAX_VALUE
+                || channel.size() != HEADER_SIZE + nrOfRecords * recordSize)
+            {
+                throw new IOException("The result file is damaged: " + file);
+            }
+
+            int recordsPerSegment = MAX_SEGMENT_SIZE / recordSize;
+            int nrOfSegments = (int) ((nrOfRecords + recordsPerSegment - 1) / recordsPerSegment);
+            ByteBuffer[] segments = new ByteBuffer[nrOfSegments];
+
+            for (int s = 0; s < nrOfSegments; s++) {
+                long records = Math.min(recordsPerSegment, nrOfRecords - (long) s * recordsPerSegment);
+                long position = HEADER_SIZE + (long) s * recordsPerSegment * recordSize;
+
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, position, records * recordSize);
+            }
+
+            return new ResultFile(segments, recordsPerSegment, nrOfPlayers, (int) nrOfRecords);
+        }
+    }
+
+    public int getNrOfPlayers()
+    {
+        return nrOfPlayers;
+    }
+
+    public int getNrOfRecords()
+    {
+        return nrOfRecords;
+    }
+
+    /**
+     * Finds the record of a scenario with a binary search.
+     *
+     * @param key the key of the scenario.
+     *
+     * @return the position of the record or -1 if the file doesn't have the scenario.
+     */
+    public int indexOf(ScenarioKey key)
+    {
+        long[] encodedKey = encodeKey(key);
+
+        if (encodedKey.length != getKeyLongs(nrOfPlayers)) {
+            return -1;
+        }
+
+        int low = 0;
+        int high = nrOfRecords - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compare(middle, encodedKey);
+
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Finds the result of a scenario. The numbers are the stored ones, the players and the community cards
+     * are the given ones.
+     *
+     * @param gameType the game type.
+     * @param profiles the players, in the order in which their results are given.
+     * @param communityCards the 5 community cards, with <code>null</code> for the unknown ones.
+     *
+     * @return the result or NULL if the file doesn't have the scenario. Its duration is 0 and it was
+     * computed by 1 thread.
+     */
+    public SimulationFinalResult find(PokerType gameType, List<PlayerProfile> profiles, Card[] communityCards)
+    {
+        int record = indexOf(ScenarioKey.valueOf(gameType, profiles, communityCards));
+
+        if (record < 0) {
+            return null;
+        }
+
+        SimulationFinalResult.ResultBuilder builder = new SimulationFinalResult.ResultBuilder()
+            .setGameType(gameType)
+            .setPlayers(new ArrayList<>(profiles));
+
+        if (communityCards[0] != null) {
+            builder.setFlop(Arrays.copyOfRange(communityCards, 0, 3));
+        }
+
+        return setNumbers(builder.setTurn(communityCards[3]).setRiver(communityCards[4]), record).build();
+    }
+
+    /**
+     * Returns a record as a result. The players and the community cards are the stored ones.
+     *
+     * @param record the position of the record.
+     *
+     * @return the result. Its duration is 0 and it was computed by 1 thread.
+     *
+     * @throws IndexOutOfBoundsException if there is no record at this position.
+     */
+    public SimulationFinalResult get(int record)
+    {
+        checkRecord(record);
+
+        ByteBuffer segment = getSegment(record);
+        int position = getPosition(record);
+
+        long board = segment.getLong(position);
+        long lastCards = segment.getLong(position + 8);
+
+        SimulationFinalResult.ResultBuilder builder = new SimulationFinalResult.ResultBuilder()
+            .setGameType(PokerType.values()[(int) (board >>> 56)]);
+
+        if ((board & FLOP_MASK) != 0) {
+            builder.setFlop(getCards(board & FLOP_MASK));
+        }
+
+        if (((lastCards >>> 8) & 0xFF) != 0) {
+            builder.setTurn(Card.valueOf((int) ((lastCards >>> 8) & 0xFF) - 1));
+        }
+
+        if ((lastCards & 0xFF) != 0) {
+            builder.setRiver(Card.valueOf((int) (lastCards & 0xFF) - 1));
+        }
+
+        ArrayList<PlayerProfile> players = new ArrayList<>();
+
+        for (int i = 0; i < nrOfPlayers; i++) {
+            int start = position + 16 + 24 * i;
+            long last = segment.getLong(start + 16);
+            HandType handType = HandType.values()[(int) (last >>> 56)];
+
+            if (handType == HandType.EXACTCARDS) {
+                players.add(new PlayerProfile(handType, null, getCards(segment.getLong(start))));
+            } else if (handType == HandType.RANGE) {
+                long[] bits = {segment.getLong(start), segment.getLong(start + 8), last};
+                Range range = new Range();
+
+                for (int bit = 0; bit < 169; bit++) {
+                    if ((bits[bit / 64] & (1L << (bit % 64))) != 0) {
+                        range.changeValue(bit / 13, bit % 13, true);
+                    }
+                }
+
+                players.add(new PlayerProfile(handType, range, null));
+            } else {
+                players.add(new PlayerProfile(handType, null, null));
+            }
+        }
+
+        return setNumbers(builder.setPlayers(players), record).build();
+    }
+
+    public int getRounds(int record)
+    {
+        checkRecord(record);
+
+        return getSegment(record).getInt(getPosition(record) + 8 * getKeyLongs(nrOfPlayers));
+    }
+
+    public double getError(int record)
+    {
+        checkRecord(record);
+
+        return getSegment(record).getFloat(getPosition(record) + 8 * getKeyLongs(nrOfPlayers) + 4);
+    }
+
+    public double getWinPercentage(int record, int player)
+    {
+        return getPercentage(record, player, 0);
+    }
+
+    public double getTiePercentage(int record, int player)
+    {
+        return getPercentage(record, player, 1);
+    }
+
+    public double getLosePercentage(int record, int player)
+    {
+        return getPercentage(record, player, 2);
+    }
+
+    //reads a percentage of a player: 0 for the wins, 1 for the ties and 2 for the loses
+    private double getPercentage(int record, int player, int which)
+    {
+        checkRecord(record);
+
+        if (player < 0 || player >= nrOfPlayers) {
+            throw new IndexOutOfBoundsException("There is no player " + player);
+        }
+
+        int position = getPosition(record) + 8 * getKeyLongs(nrOfPlayers) + 8 + 12 * player + 4 * which;
+
+        return getSegment(record).getFloat(position);
+    }
+
+    private SimulationFinalResult.ResultBuilder setNumbers(SimulationFinalResult.ResultBuilder builder, int record)
+    {
+        double[] wins = new double[nrOfPlayers];
+        double[] ties = new double[nrOfPlayers];
+        double[] loses = new double[nrOfPlayers];
+
+        for (int i = 0; i < nrOfPlayers; i++) {
+            wins[i] = getWinPercentage(record, i);
+            ties[i] = getTiePercentage(record, i);
+            loses[i] = getLosePercentage(record, i);
+        }
+
+        return builder.setWins(wins)
+                      .setTies(ties)
+                      .setLoses(loses)
+                      .setRounds(getRounds(record))
+                      .setError(getError(record))
+                      .setThreads(1);
+    }
+
+    //compares the key of a record to a key, as sequences of unsigned numbers
+    private int compare(int record, long[] key)
+    {
+        ByteBuffer segment = getSegment(record);
+        int position = getPosition(record);
+
+        for (int i = 0; i < key.length; i++) {
+            long value = segment.getLong(position + 8 * i);
+
+            if (value != key[i]) {
+                return (value + Long.MIN_VALUE < key[i] + Long.MIN_VALUE) ? -1 : 1;
+            }
+        }
+
+        return 0;
+    }
+
+    private void checkRecord(int record)
+    {
+        if (record < 0 || record >= nrOfRecords) {
+            throw new IndexOutOfBoundsException("There is no record " + record);
+        }
+    }
+
+    private ByteBuffer getSegment(int record)
+    {
+        return segments[record / recordsPerSegment];
+    }
+
+    //the position of a record in its segment
+    private int getPosition(int record)
+    {
+        return (record % recordsPerSegment) * recordSize;
+    }
+
+    //the cards of a set, in the order of their indexes
+    private static Card[] getCards(long set)
+    {
+        Card[] cards = new Card[Long.bitCount(set)];
+
+        for (int i = 0; i < cards.length; i++) {
+            cards[i] = Card.valueOf(Long.numberOfTrailingZeros(set));
+            set &= set - 1;
+        }
+
+        return cards;
+    }
+
+    /**
+     * Returns the number of longs of the key of a record.
+     *
+     * @param nrOfPlayers the number of players.
+     *
+     * @return the number of longs.
+     */
+    static int getKeyLongs(int nrOfPlayers)
+    {
+        return 2 + ScenarioKey.RANGE_LONGS * nrOfPlayers;
+    }
+
+    /**
+     * Returns the size of a record.
+     *
+     * @param nrOfPlayers the number of players.
+     *
+     * @return the size of a record, in bytes.
+     */
+    static int getRecordSize(int nrOfPlayers)
+    {
+        return 8 * getKeyLongs(nrOfPlayers) + 8 + 12 * nrOfPlayers;
+    }
+
+    /**
+     * Encodes a scenario key in the format of the records.
+     *
+     * @param key the key.
+     *
+     * @return the encoded key.
+     */
+    static long[] encodeKey(ScenarioKey key)
+    {
+        long[] longs = key.toArray();
+
+        //the game type, then 1 + 3 longs for every player, then the flop, the turn and the river
+        int nrPlayers = (longs.length - 4) / (1 + ScenarioKey.RANGE_LONGS);
+        int board = 1 + nrPlayers * (1 + ScenarioKey.RANGE_LONGS);
+
+        long[] encoded = new long[getKeyLongs(nrPlayers)];
+
+        encoded[0] = (longs[0] << 56) | longs[board];
+        encoded[1] = (getCardCode(longs[board + 1]) << 8) | getCardCode(longs[board + 2]);
+
+        for (int i = 0; i < nrPlayers; i++) {
+            int k = 1 + i * (1 + ScenarioKey.RANGE_LONGS);
+            int e = 2 + i * ScenarioKey.RANGE_LONGS;
+
+            encoded[e] = longs[k + 1];
+            encoded[e + 1] = longs[k + 2];
+            encoded[e + 2] = longs[k + 3] | (longs[k] << 56);
+        }
+
+        return encoded;
+    }
+
+    //the index of the card of a set of 1 card, + 1, or 0 for an empty set
+    private static long getCardCode(long set)
+    {
+        return (set == 0) ? 0 : Long.numberOfTrailingZeros(set) + 1;
+    }
+}
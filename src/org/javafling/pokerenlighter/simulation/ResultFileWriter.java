@@ -0,0 +1,215 @@
+package org.javafling.pokerenlighter.simulation;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import org.javafling.pokerenlighter.combination.Card;
+
+/**
+ * Creates a {@link ResultFile}. The results are added in any order and encoded immediately, then sorted
+ * by their scenario keys when the file is written. Each result takes only its record in memory (96 bytes
+ * for 2 players, plus the overhead of an array), so millions of results can be collected before writing.
+ * <br /><br />
+ * If a scenario is added more than once, only one of its results is kept: an exact one if there is any,
+ * otherwise the one with the most rounds.
+ * <br /><br />
+ * The results can be added from several threads at the same time, for example from a
+ * {@link BatchNotifiable}. This class is thread-safe.
+ *
+ * @author Radu Murzea
+ */
+public final class ResultFileWriter
+{
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final int nrOfPlayers;
+    private final int keySize;
+    private final int recordSize;
+    private final ArrayList<byte[]> records = new ArrayList<>();
+
+    //orders the records by their keys, as sequences of unsigned bytes
+    private final Comparator<byte[]> keyComparator = new Comparator<byte[]>()
+    {
+        @Override
+        public int compare(byte[] a, byte[] b)
+        {
+            for (int i = 0; i < keySize; i++) {
+                if (a[i] != b[i]) {
+                    return (a[i] & 0xFF) - (b[i] & 0xFF);
+                }
+            }
+
+            return 0;
+        }
+    };
+
+    /**
+     * Creates a writer for results with a number of players.
+     *
+     * @param nrOfPlayers the number of players of all the results.
+     *
+     * @throws IllegalArgumentException if there are less than 2 players.
+     */
+    public ResultFileWriter(int nrOfPlayers)
+    {
+        if (nrOfPlayers < 2) {
+            throw new IllegalArgumentException("There must be at least 2 players");
+        }
+
+        this.nrOfPlayers = nrOfPlayers;
+        this.keySize = 8 * ResultFile.getKeyLongs(nrOfPlayers);
+        this.recordSize = ResultFile.getRecordSize(nrOfPlayers);
+    }
+
+    public int getNrOfPlayers()
+    {
+        return nrOfPlayers;
+    }
+
+    /**
+     * Returns the number of results added so far, including the ones of the same scenario.
+     * @return the number of results.
+     */
+    public synchronized int getNrOfResults()
+    {
+        return records.size();
+    }
+
+    /**
+     * Adds a result. The percentages are stored as floats.
+     *
+     * @param result the result.
+     *
+     * @throws NullPointerException if the result is NULL.
+     * @throws IllegalArgumentException if the result doesn't have the number of players of this writer.
+     */
+    public void add(SimulationFinalResult result)
+    {
+        if (result.getNrOfPlayers() != nrOfPlayers) {
+            throw new IllegalArgumentException("The result must have " + nrOfPlayers + " players");
+        }
+
+        List<PlayerProfile> players = new ArrayList<>();
+        for (int i = 0; i < nrOfPlayers; i++) {
+            players.add(result.getPlayer(i));
+        }
+
+        Card[] communityCards = new Card[5];
+        if (result.getFlop() != null) {
+            System.arraycopy(result.getFlop(), 0, communityCards, 0, 3);
+        }
+        communityCards[3] = result.getTurn();
+        communityCards[4] = result.getRiver();
+
+        ByteBuffer record = ByteBuffer.wrap(new byte[recordSize]);
+
+        for (long value : ResultFile.encodeKey(ScenarioKey.valueOf(result.getPokerType(), players, communityCards))) {
+            record.putLong(value);
+        }
+
+        record.putInt(result.getRounds());
+        record.putFloat((float) result.getError());
+
+        for (int i = 0; i < nrOfPlayers; i++) {
+            record.putFloat((float) result.getWinPercentage(i));
+            record.putFloat((float) result.getTiePercentage(i));
+            record.putFloat((float) result.getLosePercentage(i));
+        }
+
+        synchronized (this) {
+            records.add(record.array());
+        }
+    }
+
+    /**
+     * Writes the file. If it exists, it's overwritten. The results stay in the writer, so more of them
+     * can be added and another file can be written.
+     *
+     * @param file the file.
+     *
+     * @throws IOException if the file can't be written.
+     */
+    public void write(File file) throws IOException
+    {
+        try (FileOutputStream output = new FileOutputStream(file)) {
+            write(output.getChannel());
+        }
+    }
+
+    /**
+     * Writes the content of a file to a channel.
+     *
+     * @param channel the channel. It's not closed.
+     *
+     * @throws IOException if the channel throws it.
+     */
+    public synchronized void write(WritableByteChannel channel) throws IOException
+    {
+        Collections.sort(records, keyComparator);
+
+        //the records of a scenario are next to each other. only the best one is kept
+        ArrayList<byte[]> unique = new ArrayList<>(records.size());
+
+        for (byte[] record : records) {
+            int last = unique.size() - 1;
+
+            if (last < 0 || keyComparator.compare(unique.get(last), record) != 0) {
+                unique.add(record);
+            } else if (isBetter(record, unique.get(last))) {
+                unique.set(last, record);
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(BUFFER_SIZE, recordSize));
+
+        buffer.putInt(ResultFile.MAGIC)
+              .putInt(ResultFile.VERSION)
+              .putInt(nrOfPlayers)
+              .putInt(recordSize)
+              .putLong(unique.size())
+              .putLong(0);
+
+        for (byte[] record : unique) {
+            if (buffer.remaining() < recordSize) {
+                flush(buffer, channel);
+            }
+
+            buffer.put(record);
+        }
+
+        flush(buffer, channel);
+    }
+
+    //an exact result is better than any other, otherwise the one with more rounds is better
+    private boolean isBetter(byte[] record, byte[] other)
+    {
+        ByteBuffer a = ByteBuffer.wrap(record);
+        ByteBuffer b = ByteBuffer.wrap(other);
+
+        boolean isExact = a.getFloat(keySize + 4) == 0;
+        boolean isOtherExact = b.getFloat(keySize + 4) == 0;
+
+        if (isExact != isOtherExact) {
+            return isExact;
+        }
+
+        return a.getInt(keySize) > b.getInt(keySize);
+    }
+
+    private static void flush(ByteBuffer buffer, WritableByteChannel channel) throws IOException
+    {
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+}
@@ -0,0 +1,215 @@
+package org.javafling.pokerenlighter.simulation;
+
+import java.util.Arrays;
+import java.util.List;
+import org.javafling.pokerenlighter.combination.Card;
+import org.javafling.pokerenlighter.combination.CardSet;
+
+/**
+ * Identifies a simulation scenario (the game type, the players and the known community cards) up to
+ * the things that don't change its result:
+ * <ul>
+ * <li>the order of the cards of a player and the order of the flop cards;</li>
+ * <li>the names of the colors: AhKh vs QsQd is the same scenario as AsKs vs QhQc, since renaming the
+ * colors in the same way everywhere gives every player the same chances.</li>
+ * </ul>
+ * The order of the players matters, since the results are given for every player.
+ * <br /><br />
+ * The key is made of the cards of all the players and of the board, as sets of cards (see {@link CardSet}),
+ * under the renaming of the colors that gives the smallest key. All the 24 renamings are tried, so
+ * two scenarios have equal keys exactly when one of them can be turned into the other. The ranges
+ * contain hand types, which don't depend on the colors, so they are part of the key as they are.
+ * <br /><br />
+ * Objects of this class are immutable. Later changes to the ranges of the players don't affect the key.
+ *
+ * @author Radu Murzea
+ */
+public final class ScenarioKey
+{
+    //all the orderings of the 4 colors. permutation p gives the color c the new color p[c]
+    private static final int[][] PERMUTATIONS = getPermutations();
+
+    //a range is stored as 3 longs of 64 hand types each (169 in total)
+    static final int RANGE_LONGS = 3;
+
+    private final long[] key;
+    private final int hashCode;
+
+    private ScenarioKey(long[] key)
+    {
+        this.key = key;
+        this.hashCode = Arrays.hashCode(key);
+    }
+
+    /**
+     * Creates the key of a scenario.
+     *
+     * @param gameType the game type.
+     * @param profiles the players, in the order in which their results are given.
+     * @param communityCards the 5 community cards, with <code>null</code> for the unknown ones.
+     *
+     * @return the key of the scenario.
+     *
+     * @throws NullPointerException if any of the parameters or any of the profiles is <code>null</code>.
+     * @throws IllegalArgumentException if there are not exactly 5 community cards.
+     */
+    public static ScenarioKey valueOf(PokerType gameType, List<PlayerProfile> profiles, Card[] communityCards)
+    {
+        if (gameType == null || profiles == null || communityCards == null) {
+            throw new NullPointerException();
+        } else if (communityCards.length != 5) {
+            throw new IllegalArgumentException("There must be 5 community cards");
+        }
+
+        int nrPlayers = profiles.size();
+
+        //the key is the game type, then the hand type and 3 more longs for every player (the range or,
+        //in the first one, the exact cards), then the flop, the turn and the river. the parts that don't
+        //depend on the colors are filled in now, the cards are filled in for every renaming of the colors
+        long[] key = new long[1 + nrPlayers * (1 + RANGE_LONGS) + 3];
+        int k = 0;
+
+        key[k++] = gameType.ordinal();
+
+        long[] cards = new long[nrPlayers + 3];
+        boolean[] hasCards = new boolean[nrPlayers];
+
+        for (int i = 0; i < nrPlayers; i++) {
+            PlayerProfile profile = profiles.get(i);
+
+            key[k++] = profile.getHandType().ordinal();
+
+            if (profile.getHandType() == HandType.EXACTCARDS) {
+                cards[i] = CardSet.getMask(profile.getCards());
+                hasCards[i] = true;
+            } else if (profile.getHandType() == HandType.RANGE) {
+                putRange(key, k, profile.getRange());
+            }
+
+            k += RANGE_LONGS;
+        }
+
+        //the flop is a set, the turn and the river are single cards
+        cards[nrPlayers] = CardSet.getMask(Arrays.copyOfRange(communityCards, 0, 3));
+        cards[nrPlayers + 1] = CardSet.getMask(new Card[] {communityCards[3]});
+        cards[nrPlayers + 2] = CardSet.getMask(new Card[] {communityCards[4]});
+
+        long[] best = null;
+        long[] candidate = key.clone();
+
+        for (int[] permutation : PERMUTATIONS) {
+            int c = 1;
+
+            for (int i = 0; i < nrPlayers; i++) {
+                if (hasCards[i]) {
+                    candidate[c + 1] = permute(cards[i], permutation);
+                }
+
+                c += 1 + RANGE_LONGS;
+            }
+
+            for (int j = 0; j < 3; j++) {
+                candidate[c++] = permute(cards[nrPlayers + j], permutation);
+            }
+
+            if (best == null || compare(candidate, best) < 0) {
+                best = candidate.clone();
+            }
+        }
+
+        return new ScenarioKey(best);
+    }
+
+    //renames the colors of all the cards of a set
+    private static long permute(long set, int[] permutation)
+    {
+        long result = CardSet.EMPTY;
+
+        for (int color = 0; color < 4; color++) {
+            result |= ((set >>> (13 * color)) & 0x1FFFL) << (13 * permutation[color]);
+        }
+
+        return result;
+    }
+
+    //puts the 169 hand types of a range in the key, starting at a position
+    private static void putRange(long[] key, int start, Range range)
+    {
+        for (int row = 0; row < 13; row++) {
+            for (int column = 0; column < 13; column++) {
+                if (range.getValue(row, column)) {
+                    int bit = row * 13 + column;
+                    key[start + bit / 64] |= 1L << (bit % 64);
+                }
+            }
+        }
+    }
+
+    //compares 2 keys of the same length, as sequences of unsigned numbers
+    private static int compare(long[] a, long[] b)
+    {
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] != b[i]) {
+                return (a[i] + Long.MIN_VALUE < b[i] + Long.MIN_VALUE) ? -1 : 1;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Returns all the 24 renamings of the 4 colors. Renaming p gives the color c (numbered like in the
+     * card indexes) the new color p[c].
+     *
+     * @return the renamings.
+     */
+    static int[][] getPermutations()
+    {
+        int[][] permutations = new int[24][];
+        int count = 0;
+
+        for (int a = 0; a < 4; a++) {
+            for (int b = 0; b < 4; b++) {
+                for (int c = 0; c < 4; c++) {
+                    int d = 6 - a - b - c;
+
+                    if (a != b && a != c && b != c && d >= 0 && d < 4 && d != a && d != b && d != c) {
+                        permutations[count++] = new int[] {a, b, c, d};
+                    }
+                }
+            }
+        }
+
+        return permutations;
+    }
+
+    /**
+     * Returns the numbers that make up the key: the ordinal of the game type, then the ordinal of the hand
+     * type and 3 more numbers for every player (the 169 bits of the range or, in the first one, the set of
+     * exact cards), then the sets of the flop, of the turn and of the river.
+     *
+     * @return a copy of the numbers of the key.
+     */
+    long[] toArray()
+    {
+        return key.clone();
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        } else if (! (o instanceof ScenarioKey)) {
+            return false;
+        }
+
+        return Arrays.equals(key, ((ScenarioKey) o).key);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return hashCode;
+    }
+}
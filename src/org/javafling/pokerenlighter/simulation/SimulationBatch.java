@@ -0,0 +1,541 @@
+package org.javafling.pokerenlighter.simulation;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Simulates many scenarios on a shared {@link SimulationEngine}. A scenario is described by a
+ * <code>SimulatorBuilder</code> with everything except the engine, the executors, the notifiable and the
+ * update interval, which are set by the batch on a copy of the builder (the builders of the caller are not
+ * changed). The scenarios are taken from an iterator only when they can start, so a batch can have any
+ * number of them, even more than would fit in memory at once.
+ * <br /><br />
+ * Unlike a <code>Simulator</code> started on its own, every scenario runs with a single worker: the
+ * engine is kept busy by running many scenarios at the same time (by default, twice the number of threads
+ * of the engine), so no scenario pays for creating and merging one worker for every thread. A single long
+ * simulation is therefore faster with a <code>Simulator</code>.
+ * <br /><br />
+ * The results are given in the order in which the scenarios finish, either to a {@link BatchNotifiable}
+ * (see {@link #start(Iterator, BatchNotifiable)}), through an iterator (see {@link #run(Iterator)}) or
+ * as a stream (see {@link #stream(Stream)}).
+ * <br /><br />
+ * Every run of a batch has a feeder that waits for the scenarios to finish before starting new ones. By
+ * default, the feeder has its own thread and the results are given on the threads of the engine. With an
+ * orchestration executor, both the feeder and the notifications run on that executor instead, so an
+ * executor of virtual threads (see {@link SystemUtils#newVirtualThreadExecutor()}) lets a service run
+ * thousands of batches without an OS thread for each of them, while the rounds are still played only by
+ * the threads of the engine.
+ * <br /><br />
+ * A run can be cancelled (see {@link Run#cancel()}, or close the stream returned by {@link #stream(Stream)}):
+ * no more scenarios are taken and the running ones are stopped.
+ * <br /><br />
+ * A batch can be used for any number of runs, one after the other or at the same time.
+ * This class is thread-safe.
+ *
+ * @author Radu Murzea
+ */
+public final class SimulationBatch
+{
+    private static final AtomicInteger runCounter = new AtomicInteger();
+
+    private final SimulationEngine engine;
+    private final int maxRunning;
+    private final Executor orchestrationExecutor;
+
+    /**
+     * The result of a scenario, as given by {@link SimulationBatch#run(Iterator)} and
+     * {@link SimulationBatch#stream(Stream)}.
+     */
+    public static final class ScenarioResult
+    {
+        private final int scenario;
+        private final SimulationFinalResult result;
+        private final Exception error;
+
+        private ScenarioResult(int scenario, SimulationFinalResult result, Exception error)
+        {
+            this.scenario = scenario;
+            this.result = result;
+            this.error = error;
+        }
+
+        /**
+         * Returns the position of the scenario in the batch.
+         * @return the position of the scenario, starting from 0.
+         */
+        public int getScenario()
+        {
+            return scenario;
+        }
+
+        /**
+         * Returns the result of the scenario.
+         * @return the result or NULL if the scenario had an error.
+         */
+        public SimulationFinalResult getResult()
+        {
+            return result;
+        }
+
+        /**
+         * Returns the error of the scenario.
+         * @return the error or NULL if the scenario has a result.
+         */
+        public Exception getError()
+        {
+            return error;
+        }
+    }
+
+    /**
+     * A run of the batch, as started by {@link SimulationBatch#start(Iterator, BatchNotifiable)}.
+     */
+    public final class Run
+    {
+        private final Feeder feeder;
+
+        private Run(Feeder feeder)
+        {
+            this.feeder = feeder;
+        }
+
+        /**
+         * Cancels this run: no more scenarios are taken from the iterator and the running scenarios are
+         * stopped. Every scenario that was started and isn't done yet gets an error (a
+         * <code>CancellationException</code>) and then the batch is done, as usual.
+         */
+        public void cancel()
+        {
+            feeder.cancel();
+        }
+
+        /**
+         * Tells if this run was cancelled.
+         *
+         * @return true if the run was cancelled, false otherwise.
+         */
+        public boolean isCancelled()
+        {
+            return feeder.isCancelled();
+        }
+    }
+
+    /**
+     * Creates a batch that runs twice as many scenarios at the same time as the engine has threads.
+     *
+     * @param engine the engine.
+     */
+    public SimulationBatch(SimulationEngine engine)
+    {
+        this(engine, 2 * engine.getNrOfThreads());
+    }
+
+    /**
+     * Creates a batch.
+     *
+     * @param engine the engine.
+     * @param maxRunning the maximum number of scenarios that run at the same time. It should be at least
+     * the number of threads of the engine, otherwise some of them have nothing to do.
+     *
+     * @throws IllegalArgumentException if the maximum number of scenarios is not strictly positive.
+     */
+    public SimulationBatch(SimulationEngine engine, int maxRunning)
+    {
+        this(engine, maxRunning, null);
+    }
+
+    /**
+     * Creates a batch whose feeders and notifications run on an executor.
+     *
+     * @param engine the engine.
+     * @param maxRunning the maximum number of scenarios that run at the same time.
+     * @param orchestrationExecutor the executor of the feeders and of the notifications. NULL means
+     * that every run has its own feeder thread and that the results are given on the threads of the engine.
+     *
+     * @throws IllegalArgumentException if the maximum number of scenarios is not strictly positive.
+     */
+    public SimulationBatch(SimulationEngine engine, int maxRunning, Executor orchestrationExecutor)
+    {
+        if (engine == null) {
+            throw new NullPointerException();
+        } else if (maxRunning <= 0) {
+            throw new IllegalArgumentException("The maximum number of running scenarios must be strictly positive");
+        }
+
+        this.engine = engine;
+        this.maxRunning = maxRunning;
+        this.orchestrationExecutor = orchestrationExecutor;
+    }
+
+    public SimulationEngine getEngine()
+    {
+        return engine;
+    }
+
+    public int getMaxRunning()
+    {
+        return maxRunning;
+    }
+
+    public Executor getOrchestrationExecutor()
+    {
+        return orchestrationExecutor;
+    }
+
+    /**
+     * Starts simulating the scenarios and returns immediately. The scenarios are taken from the iterator
+     * by the feeder of the run, so the iterator doesn't have to be thread-safe.
+     *
+     * @param scenarios the scenarios. Their engine, executors, notifiable and update interval are ignored.
+     * @param notifiable gets the result of every scenario and the end of the batch.
+     *
+     * @return the run, which can be cancelled.
+     *
+     * @throws NullPointerException if any of the parameters is NULL.
+     * @throws IllegalStateException if the engine was shut down.
+     */
+    public Run start(Iterator<Simulator.SimulatorBuilder> scenarios, BatchNotifiable notifiable)
+    {
+        if (scenarios == null || notifiable == null) {
+            throw new NullPointerException();
+        } else if (engine.isShutdown()) {
+            throw new IllegalStateException("The engine was shut down");
+        }
+
+        Feeder feeder = new Feeder(scenarios, notifiable);
+
+        if (orchestrationExecutor != null) {
+            orchestrationExecutor.execute(feeder);
+        } else {
+            Thread thread = new Thread(feeder, "simulation-batch-" + runCounter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        return new Run(feeder);
+    }
+
+    /**
+     * Starts simulating the scenarios and returns the results as they finish. The <code>hasNext</code>
+     * method of the returned iterator waits until there is a new result or until all the scenarios are done.
+     * <br />
+     * The results wait in the iterator until they are read, so they should be read as they come. A run
+     * that must be cancelled should be started with {@link #stream(Stream)} instead.
+     *
+     * @param scenarios the scenarios. Their engine, executors, notifiable and update interval are ignored.
+     *
+     * @return the results, in the order in which the scenarios finish.
+     *
+     * @throws NullPointerException if the scenarios are NULL.
+     * @throws IllegalStateException if the engine was shut down.
+     */
+    public Iterator<ScenarioResult> run(Iterator<Simulator.SimulatorBuilder> scenarios)
+    {
+        ResultIterator results = new ResultIterator();
+
+        start(scenarios, results);
+
+        return results;
+    }
+
+    /**
+     * Starts simulating the scenarios and returns the results as a stream, in the order in which the
+     * scenarios finish. The scenarios are taken from the given stream only when they can start, like from
+     * the iterator of {@link #run(Iterator)}, and the returned stream waits for the results as they are read.
+     * <br />
+     * Closing the returned stream cancels the run (see {@link Run#cancel()}) and closes the stream of
+     * the scenarios.
+     *
+     * @param scenarios the scenarios. Their engine, executors, notifiable and update interval are ignored.
+     *
+     * @return the results, in the order in which the scenarios finish.
+     *
+     * @throws NullPointerException if the scenarios are NULL.
+     * @throws IllegalStateException if the engine was shut down.
+     */
+    public Stream<ScenarioResult> stream(final Stream<Simulator.SimulatorBuilder> scenarios)
+    {
+        ResultIterator results = new ResultIterator();
+        final Run run = start(scenarios.iterator(), results);
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(results, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                            .onClose(new Runnable()
+                            {
+                                @Override
+                                public void run()
+                                {
+                                    try {
+                                        run.cancel();
+                                    } finally {
+                                        scenarios.close();
+                                    }
+                                }
+                            });
+    }
+
+    //takes the scenarios from the iterator and starts them, as long as fewer than maxRunning are running
+    private class Feeder implements Runnable
+    {
+        private final Iterator<Simulator.SimulatorBuilder> scenarios;
+        private final BatchNotifiable notifiable;
+
+        //one permit for every scenario that can still start. a scenario gives its permit back when it's done
+        private final Semaphore permits = new Semaphore(maxRunning);
+
+        //the scenarios that were started and aren't done yet, so that they can be stopped by cancel().
+        //guarded by this, like isCancelled: a scenario is either stopped by cancel() or not started at all
+        private final Set<Simulator> running = new HashSet<>();
+        private volatile boolean isCancelled;
+
+        public Feeder(Iterator<Simulator.SimulatorBuilder> scenarios, BatchNotifiable notifiable)
+        {
+            this.scenarios = scenarios;
+            this.notifiable = notifiable;
+        }
+
+        @Override
+        public void run()
+        {
+            int scenario = 0;
+            RuntimeException failure = null;
+
+            try {
+                try {
+                    while (! isCancelled && scenarios.hasNext()) {
+                        permits.acquire();
+
+                        if (isCancelled) {
+                            permits.release();
+                            break;
+                        } else if (engine.isShutdown()) {
+                            //no scenario can be simulated anymore
+                            permits.release();
+                            throw new IllegalStateException("The engine was shut down");
+                        }
+
+                        Simulator.SimulatorBuilder builder;
+                        try {
+                            builder = scenarios.next();
+                        } catch (RuntimeException ex) {
+                            permits.release();
+                            throw ex;
+                        }
+
+                        startScenario(scenario++, builder);
+                    }
+                } catch (RuntimeException ex) {
+                    //no more scenarios can be taken, but the ones that were started still run
+                    failure = ex;
+                }
+
+                //all the scenarios are done when all the permits are back
+                permits.acquire(maxRunning);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                try {
+                    //the failure belongs to the scenario that couldn't be taken
+                    if (failure != null) {
+                        notifiable.onScenarioError(scenario, failure);
+                    }
+                } finally {
+                    notifiable.onBatchDone();
+                }
+            }
+        }
+
+        public void cancel()
+        {
+            List<Simulator> stopped;
+
+            synchronized (this) {
+                isCancelled = true;
+                stopped = new ArrayList<>(running);
+            }
+
+            //a stopped scenario gives its permit back, which wakes up the feeder
+            for (Simulator simulator : stopped) {
+                simulator.stop();
+            }
+        }
+
+        public boolean isCancelled()
+        {
+            return isCancelled;
+        }
+
+        private synchronized void remove(Simulator simulator)
+        {
+            running.remove(simulator);
+        }
+
+        private void startScenario(final int scenario, Simulator.SimulatorBuilder builder)
+        {
+            final AtomicBoolean isDone = new AtomicBoolean();
+            final Simulator[] simulator = new Simulator[1];
+
+            SimulationNotifiable scenarioNotifiable = new SimulationNotifiable()
+            {
+                @Override
+                public void onSimulationStart(SimulationEvent event)
+                {
+                }
+
+                @Override
+                public void onSimulationDone(SimulationEvent event)
+                {
+                    if (isDone.compareAndSet(false, true)) {
+                        try {
+                            remove(simulator[0]);
+                            notifiable.onScenarioDone(scenario, (SimulationFinalResult) event.getEventData());
+                        } finally {
+                            permits.release();
+                        }
+                    }
+                }
+
+                @Override
+                public void onSimulationCancel(SimulationEvent event)
+                {
+                    //after an error, which was already notified, or by cancel()
+                    fail(new CancellationException("The batch was cancelled"));
+                }
+
+                @Override
+                public void onSimulationProgress(SimulationEvent event)
+                {
+                }
+
+                @Override
+                public void onSimulationError(SimulationEvent event)
+                {
+                    Object error = event.getEventData();
+
+                    fail((error instanceof Exception) ? (Exception) error : new RuntimeException(String.valueOf(error)));
+
+                    //the worker that had the error will never finish, so the simulation must be stopped
+                    simulator[0].stop();
+                }
+
+                private void fail(Exception error)
+                {
+                    if (isDone.compareAndSet(false, true)) {
+                        try {
+                            remove(simulator[0]);
+                            notifiable.onScenarioError(scenario, error);
+                        } finally {
+                            permits.release();
+                        }
+                    }
+                }
+            };
+
+            try {
+                simulator[0] = builder.copy()
+                                      .setEngine(engine)
+                                      .setExecutor(null)
+                                      .setNotificationExecutor(orchestrationExecutor)
+                                      .setNotifiable(scenarioNotifiable)
+                                      .setUpdateInterval(100)
+                                      .setNrOfWorkers(1)
+                                      .build();
+
+                //the scenario is started while holding the lock, so cancel() can't stop it before it starts
+                synchronized (this) {
+                    if (isCancelled) {
+                        permits.release();
+                        return;
+                    }
+
+                    running.add(simulator[0]);
+
+                    try {
+                        simulator[0].start();
+                    } catch (RuntimeException ex) {
+                        running.remove(simulator[0]);
+                        throw ex;
+                    }
+                }
+            } catch (RuntimeException ex) {
+                if (isDone.compareAndSet(false, true)) {
+                    try {
+                        notifiable.onScenarioError(scenario, ex);
+                    } finally {
+                        permits.release();
+                    }
+                }
+            }
+        }
+    }
+
+    //gives the results of a run through an iterator. the end of the run is marked by a result without
+    //a scenario
+    private static class ResultIterator implements Iterator<ScenarioResult>, BatchNotifiable
+    {
+        private static final ScenarioResult END = new ScenarioResult(-1, null, null);
+
+        private final BlockingQueue<ScenarioResult> results = new LinkedBlockingQueue<>();
+        private ScenarioResult next;
+
+        @Override
+        public void onScenarioDone(int scenario, SimulationFinalResult result)
+        {
+            results.add(new ScenarioResult(scenario, result, null));
+        }
+
+        @Override
+        public void onScenarioError(int scenario, Exception error)
+        {
+            results.add(new ScenarioResult(scenario, null, error));
+        }
+
+        @Override
+        public void onBatchDone()
+        {
+            results.add(END);
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if (next == null) {
+                try {
+                    next = results.take();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for a result", ex);
+                }
+            }
+
+            return next != END;
+        }
+
+        @Override
+        public ScenarioResult next()
+        {
+            if (! hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            ScenarioResult result = next;
+            next = null;
+
+            return result;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.javafling.pokerenlighter.simulation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the results of the most recent simulation scenarios, so that a scenario that was already
+ * simulated (maybe with other colors, see {@link ScenarioKey}) doesn't have to be simulated again.
+ * When the cache is full, the result that wasn't used for the longest time is dropped.
+ * <br /><br />
+ * A scenario has a single result in the cache: the one with the most rounds, unless there is an exact
+ * result (one with an error of 0, see {@link SimulationFinalResult#getError()}), which is never replaced.
+ * <br /><br />
+ * A cache can be shared by many simulators (see <code>Simulator.SimulatorBuilder.setCache</code>)
+ * and all its methods are thread-safe.
+ *
+ * @author Radu Murzea
+ */
+public final class SimulationCache
+{
+    private final int capacity;
+    private final LinkedHashMap<ScenarioKey, SimulationFinalResult> results;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param capacity the maximum number of scenarios in the cache.
+     *
+     * @throws IllegalArgumentException if the capacity is not strictly positive.
+     */
+    public SimulationCache(int capacity)
+    {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid capacity value");
+        }
+
+        this.capacity = capacity;
+
+        //in access order, so the first entry is always the least recently used one
+        this.results = new LinkedHashMap<ScenarioKey, SimulationFinalResult>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ScenarioKey, SimulationFinalResult> eldest)
+            {
+                return size() > SimulationCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the result of a scenario.
+     *
+     * @param key the scenario.
+     *
+     * @return the result, or <code>null</code> if the scenario is not in the cache. The players and the
+     * community cards of the result are the ones of the scenario that was simulated, which can have
+     * other colors than the requested one.
+     */
+    public synchronized SimulationFinalResult get(ScenarioKey key)
+    {
+        return results.get(key);
+    }
+
+    /**
+     * Puts the result of a scenario in the cache, unless the cache has a better result for it:
+     * an exact one or, if the new result is not exact, one with at least as many rounds.
+     *
+     * @param key the scenario.
+     * @param result the result of the scenario.
+     *
+     * @return true if the result was put in the cache, false if the cache kept its result.
+     */
+    public synchronized boolean put(ScenarioKey key, SimulationFinalResult result)
+    {
+        if (key == null || result == null) {
+            throw new NullPointerException();
+        }
+
+        SimulationFinalResult old = results.get(key);
+
+        if (old != null && (old.getError() == 0 || (result.getError() != 0 && old.getRounds() >= result.getRounds()))) {
+            return false;
+        }
+
+        results.put(key, result);
+
+        return true;
+    }
+
+    /**
+     * Returns the number of scenarios in the cache.
+     *
+     * @return the number of scenarios.
+     */
+    public synchronized int size()
+    {
+        return results.size();
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * Removes all the results from the cache.
+     */
+    public synchronized void clear()
+    {
+        results.clear();
+    }
+}
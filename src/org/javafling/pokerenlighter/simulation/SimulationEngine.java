@@ -0,0 +1,157 @@
+package org.javafling.pokerenlighter.simulation;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.javafling.pokerenlighter.simulation.worker.SimulationWorker;
+import org.javafling.pokerenlighter.simulation.worker.WorkerEvent;
+
+/**
+ * A long-lived pool of threads on which any number of simulations can run, one after the other or at
+ * the same time. A <code>Simulator</code> runs on an engine if it was built with
+ * <code>SimulatorBuilder.setEngine</code>; otherwise, it creates its own threads every time it's started.
+ * <br /><br />
+ * The engine never runs a worker for a long time without interruption: it plays one batch of rounds of a
+ * worker and then puts the worker at the end of its queue. Because of this, simultaneous simulations share
+ * the threads fairly (each of them progresses at about the same speed) and a short simulation doesn't have
+ * to wait for a long one to finish.
+ * <br /><br />
+ * The threads of the engine are daemon threads. They live until {@link #shutdown()} is called.
+ * This class is thread-safe.
+ *
+ * @author Radu Murzea
+ */
+public final class SimulationEngine
+{
+    private static final AtomicInteger engineCounter = new AtomicInteger();
+
+    private final ExecutorService executor;
+    private final int nrOfThreads;
+
+    /**
+     * Creates an engine with one thread for every logical CPU.
+     */
+    public SimulationEngine()
+    {
+        this(SystemUtils.getNrOfLogicalCPUs());
+    }
+
+    /**
+     * Creates an engine with the specified number of threads.
+     *
+     * @param nrOfThreads the number of threads.
+     *
+     * @throws IllegalArgumentException if the number of threads is not strictly positive.
+     */
+    public SimulationEngine(int nrOfThreads)
+    {
+        if (nrOfThreads <= 0) {
+            throw new IllegalArgumentException("The number of threads must be a strictly positive number");
+        }
+
+        final int engineId = engineCounter.incrementAndGet();
+
+        this.nrOfThreads = nrOfThreads;
+        this.executor = Executors.newFixedThreadPool(nrOfThreads, new ThreadFactory()
+        {
+            private final AtomicInteger threadCounter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r)
+            {
+                Thread thread = new Thread(r, "simulation-engine-" + engineId + "-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Returns the number of threads of this engine. This is also the number of workers that every
+     * simulation uses when it runs on this engine.
+     *
+     * @return the number of threads.
+     */
+    public int getNrOfThreads()
+    {
+        return nrOfThreads;
+    }
+
+    /**
+     * Stops the threads of this engine. No simulation can be started on this engine anymore and the
+     * running simulations can't finish: they get an error event (an <code>IllegalStateException</code>)
+     * and they are stopped.
+     */
+    public void shutdown()
+    {
+        List<Runnable> pending = executor.shutdownNow();
+
+        //the batches that were waiting in the queue will never be played
+        for (Runnable task : pending) {
+            if (task instanceof BatchTask) {
+                ((BatchTask) task).abort();
+            }
+        }
+    }
+
+    /**
+     * Tells if this engine was shut down.
+     *
+     * @return true if the engine was shut down, false otherwise.
+     */
+    public boolean isShutdown()
+    {
+        return executor.isShutdown();
+    }
+
+    //starts playing the batches of a worker of the specified simulator
+    void execute(SimulationWorker worker, Simulator simulator)
+    {
+        executor.execute(new BatchTask(worker, simulator));
+    }
+
+    //plays one batch of a worker and then puts itself at the end of the queue, until the worker
+    //has no more rounds or its simulation is stopped
+    private class BatchTask implements Runnable
+    {
+        private final SimulationWorker worker;
+        private final Simulator simulator;
+
+        public BatchTask(SimulationWorker worker, Simulator simulator)
+        {
+            this.worker = worker;
+            this.simulator = simulator;
+        }
+
+        @Override
+        public void run()
+        {
+            if (simulator.isCancelled()) {
+                return;
+            }
+
+            try {
+                if (worker.playBatch()) {
+                    executor.execute(this);
+                } else {
+                    worker.finish();
+                }
+            } catch (RejectedExecutionException ex) {
+                //the engine was shut down, so the next batch can't be played
+                abort();
+            } catch (RuntimeException ex) {
+                simulator.onSimulationError(new WorkerEvent(WorkerEvent.EVENT_SIMWORKER_ERROR, ex));
+            }
+        }
+
+        //ends the simulation of the worker, which can't finish without the engine
+        public void abort()
+        {
+            simulator.abort(new IllegalStateException("The engine was shut down"));
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package org.javafling.pokerenlighter.simulation;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import org.javafling.pokerenlighter.combination.Card;
 
 /**
@@ -11,7 +14,9 @@ public class SimulationExport
 {
     private static final String LINE_END = System.lineSeparator();
     
-    private static final String TAB_CHAR = Character.toString('\t');
+    private static final char TAB_CHAR = '\t';
+    
+    static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\" ?>";
     
     /**
      * Constructs a XML representation of the simulation result and returns it in the form of
@@ -28,189 +33,146 @@ public class SimulationExport
             return "";
         }
         
-        StringBuilder xml = new StringBuilder();
+        StringWriter xml = new StringWriter();
+        
+        try {
+            xml.write(XML_DECLARATION);
+            xml.write(LINE_END);
+            
+            writeSimulation(xml, result, 0);
+        } catch (IOException ex) {
+            //a StringWriter doesn't throw
+            throw new IllegalStateException(ex);
+        }
         
-        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\" ?>")
-            .append(LINE_END)
-            .append("<simulation>")
-            .append(LINE_END)
-            .append(getNestingCharacters(1))
-            .append("<meta>")
-            .append(LINE_END)
-            .append(getNestingCharacters(2))
-            .append("<playercount>")
-            .append(result.getNrOfPlayers())
-            .append("</playercount>")
-            .append(LINE_END)
-            .append(getNestingCharacters(2))
-            .append("<rounds>")
-            .append(result.getRounds ())
-            .append("</rounds>")
-            .append(LINE_END)
-            .append(getNestingCharacters(2))
-            .append("<type>")
-            .append(result.getPokerType().toString())
-            .append("</type>")
-            .append(LINE_END)
-            .append(getNestingCharacters(2))
-            .append("<threads>")
-            .append(result.getNrOfThreads())
-            .append("</threads>")
-            .append(LINE_END)
-            .append(getNestingCharacters(2))
-            .append("<duration unit=\"milliseconds\">")
-            .append(result.getDuration())
-            .append("</duration>")
-            .append(LINE_END)
-            .append(getNestingCharacters(1))
-            .append("</meta>")
-            .append(LINE_END)
-            .append(getNestingCharacters(1))
-            .append("<players>")
-            .append(LINE_END);
+        return xml.toString();
+    }
+    
+    /**
+     * Writes the XML element of a simulation result, without the XML declaration and without a line end
+     * after its end tag. The element is written directly to the writer, so its size doesn't matter.
+     * 
+     * @param out the writer.
+     * @param result the result.
+     * @param level the nesting level of the element: every line starts with this many tabs.
+     * 
+     * @throws IOException if the writer throws it.
+     */
+    static void writeSimulation(Writer out, SimulationFinalResult result, int level) throws IOException
+    {
+        writeLine(out, level, "<simulation>");
+        writeLine(out, level + 1, "<meta>");
+        writeElement(out, level + 2, "<playercount>", result.getNrOfPlayers(), "</playercount>");
+        writeElement(out, level + 2, "<rounds>", result.getRounds(), "</rounds>");
+        writeElement(out, level + 2, "<type>", result.getPokerType().toString(), "</type>");
+        writeElement(out, level + 2, "<threads>", result.getNrOfThreads(), "</threads>");
+        writeElement(out, level + 2, "<duration unit=\"milliseconds\">", result.getDuration(), "</duration>");
+        writeLine(out, level + 1, "</meta>");
+        writeLine(out, level + 1, "<players>");
         
         for (int i = 1; i <= result.getNrOfPlayers(); i++) {
-            xml.append(getNestingCharacters(2))
-                .append("<player id=\"")
-                .append(i)
-                .append("\">")
-                .append(LINE_END)
-                .append(getNestingCharacters(3));
+            writeElement(out, level + 2, "<player id=\"", i, "\">");
             
             PlayerProfile profile = result.getPlayer(i - 1);
             
-            xml.append("<handtype>");
-            xml.append(profile.getHandType().toString());
-            xml.append("</handtype>");
-            xml.append(LINE_END);
+            writeElement(out, level + 3, "<handtype>", profile.getHandType().toString(), "</handtype>");
             
             if (profile.getHandType() == HandType.EXACTCARDS) {
                 Card[] cards = profile.getCards();
                 for (Card card : cards) {
-                    xml.append(getNestingCharacters(3))
-                        .append("<card>")
-                        .append(card.toString())
-                        .append("</card>")
-                        .append(LINE_END);
+                    writeCard(out, level + 3, "<card>", card, "</card>");
                 }
             } else if (profile.getHandType() == HandType.RANGE) {
                 Range range = profile.getRange();
                 for (int row = 0; row < 13; row++) {
                     for (int col = 0; col < 13; col++) {
                         if (range.getValue(row, col)) {
-                            xml.append(getNestingCharacters(3));
-                            xml.append("<cardtype>");
-                            xml.append(Range.rangeNames[row][col]);
-                            xml.append("</cardtype>");
-                            xml.append(LINE_END);
+                            writeElement(out, level + 3, "<cardtype>", Range.rangeNames[row][col], "</cardtype>");
                         }
                     }
                 }
             }
             
-            xml.append(getNestingCharacters(2));
-            xml.append("</player>");
-            xml.append(LINE_END);
+            writeLine(out, level + 2, "</player>");
         }
         
-        xml.append(getNestingCharacters(1));
-        xml.append("</players>");
-        xml.append(LINE_END);
+        writeLine(out, level + 1, "</players>");
         
         Card[] flop = result.getFlop();
         Card turn = result.getTurn();
         Card river = result.getRiver();
         
         if (flop != null || turn != null || river != null) {
-            xml.append(getNestingCharacters(1));
-            xml.append("<community>");
-            xml.append(LINE_END);
+            writeLine(out, level + 1, "<community>");
             
             if (flop != null) {
-                xml.append(getNestingCharacters(2))
-                    .append("<flop id=\"1\">")
-                    .append(flop[0].toString())
-                    .append("</flop>")
-                    .append(LINE_END)
-                    .append(getNestingCharacters(2))
-                    .append("<flop id=\"2\">")
-                    .append(flop[1].toString())
-                    .append("</flop>")
-                    .append(LINE_END)
-                    .append(getNestingCharacters(2))
-                    .append("<flop id=\"3\">")
-                    .append(flop[2].toString())
-                    .append("</flop>")
-                    .append(LINE_END);
+                writeCard(out, level + 2, "<flop id=\"1\">", flop[0], "</flop>");
+                writeCard(out, level + 2, "<flop id=\"2\">", flop[1], "</flop>");
+                writeCard(out, level + 2, "<flop id=\"3\">", flop[2], "</flop>");
             }
             
             if (turn != null) {
-                xml.append(getNestingCharacters(2))
-                    .append("<turn>")
-                    .append(turn.toString())
-                    .append("</turn>")
-                    .append(LINE_END);
+                writeCard(out, level + 2, "<turn>", turn, "</turn>");
             }
             
             if (river != null) {
-                xml.append(getNestingCharacters(2))
-                    .append("<river>")
-                    .append(river.toString())
-                    .append("</river>")
-                    .append(LINE_END);
+                writeCard(out, level + 2, "<river>", river, "</river>");
             }
             
-            xml.append(getNestingCharacters(1))
-                .append("</community>")
-                .append(LINE_END);
+            writeLine(out, level + 1, "</community>");
         }
         
-        xml.append(getNestingCharacters(1))
-            .append("<result>")
-            .append(LINE_END);
+        writeLine(out, level + 1, "<result>");
         
         for (int i = 1; i <= result.getNrOfPlayers(); i++) {
-            xml.append(getNestingCharacters(2))
-                .append("<player id=\"")
-                .append(i)
-                .append("\">")
-                .append(LINE_END)
-                .append(getNestingCharacters(3))
-                .append("<wins>")
-                .append(result.getFormattedWinPercentage(i - 1))
-                .append("</wins>")
-                .append(LINE_END)
-                .append(getNestingCharacters(3))
-                .append("<loses>")
-                .append(result.getFormattedLosePercentage(i - 1))
-                .append("</loses>")
-                .append(LINE_END)
-                .append(getNestingCharacters(3))
-                .append("<ties>")
-                .append(result.getFormattedTiePercentage(i - 1))
-                .append("</ties>")
-                .append(LINE_END)
-                .append(getNestingCharacters(2))
-                .append("</player>")
-                .append(LINE_END);
+            writeElement(out, level + 2, "<player id=\"", i, "\">");
+            writeElement(out, level + 3, "<wins>", result.getFormattedWinPercentage(i - 1), "</wins>");
+            writeElement(out, level + 3, "<loses>", result.getFormattedLosePercentage(i - 1), "</loses>");
+            writeElement(out, level + 3, "<ties>", result.getFormattedTiePercentage(i - 1), "</ties>");
+            writeLine(out, level + 2, "</player>");
         }
-
-        xml.append(getNestingCharacters(1))
-            .append("</result>")
-            .append(LINE_END)
-            .append("</simulation>");
         
-        return xml.toString();
+        writeLine(out, level + 1, "</result>");
+        writeNesting(out, level);
+        out.write("</simulation>");
     }
     
-    //returns the specified number of tab characters as a String
-    private static String getNestingCharacters(int nestedLevel)
+    private static void writeLine(Writer out, int level, String line) throws IOException
+    {
+        writeNesting(out, level);
+        out.write(line);
+        out.write(LINE_END);
+    }
+    
+    private static void writeElement(Writer out, int level, String start, String value, String end) throws IOException
+    {
+        writeNesting(out, level);
+        out.write(start);
+        out.write(value);
+        out.write(end);
+        out.write(LINE_END);
+    }
+    
+    private static void writeElement(Writer out, int level, String start, long value, String end) throws IOException
+    {
+        writeElement(out, level, start, Long.toString(value), end);
+    }
+    
+    private static void writeCard(Writer out, int level, String start, Card card, String end) throws IOException
+    {
+        writeNesting(out, level);
+        out.write(start);
+        out.write(card.getCharCard());
+        out.write(card.getColor());
+        out.write(end);
+        out.write(LINE_END);
+    }
+    
+    //writes the specified number of tab characters
+    private static void writeNesting(Writer out, int nestedLevel) throws IOException
     {
-        StringBuilder sb = new StringBuilder();
         for (int i = 0; i < nestedLevel; i++) {
-            sb.append(TAB_CHAR);
+            out.write(TAB_CHAR);
         }
-        
-        return sb.toString();
     }
 }
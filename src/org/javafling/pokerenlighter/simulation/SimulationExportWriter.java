@@ -0,0 +1,193 @@
+package org.javafling.pokerenlighter.simulation;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes many simulation results to one XML document, one result at a time. Every result is written
+ * as soon as it's given, so the memory used doesn't depend on the number of results: a batch can export
+ * all its results while they are produced, for example from a {@link BatchNotifiable}.
+ * <br /><br />
+ * The document has a <code>simulations</code> element that contains a <code>simulation</code> element
+ * for every result, in the format of {@link SimulationExport#getResultXMLString(SimulationFinalResult)}.
+ * The end tag is written by {@link #close()}, so the document is complete only after the writer is closed.
+ * <br /><br />
+ * The results can be written from several threads at the same time. This class is thread-safe.
+ *
+ * @author Radu Murzea
+ */
+public final class SimulationExportWriter implements Closeable, Flushable
+{
+    private static final String LINE_END = System.lineSeparator();
+
+    //the size of the buffer of the characters and of the buffer of the compressed bytes
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Writer out;
+    private int nrOfResults;
+    private boolean isClosed;
+
+    /**
+     * Creates a writer that writes to a character stream. The XML declaration and the start tag of the
+     * document are written immediately.
+     *
+     * @param out the character stream. It's closed when this writer is closed. It should be buffered.
+     *
+     * @throws IOException if the character stream throws it.
+     */
+    public SimulationExportWriter(Writer out) throws IOException
+    {
+        if (out == null) {
+            throw new NullPointerException();
+        }
+
+        this.out = out;
+
+        out.write(SimulationExport.XML_DECLARATION);
+        out.write(LINE_END);
+        out.write("<simulations>");
+        out.write(LINE_END);
+    }
+
+    /**
+     * Creates a writer that writes UTF-8 to a byte stream, through a buffer.
+     *
+     * @param out the byte stream. It's closed when this writer is closed.
+     * @param gzip true if the document must be compressed with gzip.
+     *
+     * @return the writer.
+     *
+     * @throws IOException if the byte stream throws it.
+     */
+    public static SimulationExportWriter newWriter(OutputStream out, boolean gzip) throws IOException
+    {
+        if (gzip) {
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+
+        return new SimulationExportWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE));
+    }
+
+    /**
+     * Creates a writer that writes UTF-8 to a channel, through a buffer.
+     *
+     * @param channel the channel. It's closed when this writer is closed.
+     * @param gzip true if the document must be compressed with gzip.
+     *
+     * @return the writer.
+     *
+     * @throws IOException if the channel throws it.
+     */
+    public static SimulationExportWriter newWriter(WritableByteChannel channel, boolean gzip) throws IOException
+    {
+        if (gzip) {
+            return newWriter(Channels.newOutputStream(channel), true);
+        }
+
+        //the encoder writes its bytes to the channel without another copy
+        Writer encoder = Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE);
+
+        return new SimulationExportWriter(new BufferedWriter(encoder, BUFFER_SIZE));
+    }
+
+    /**
+     * Creates a writer that writes UTF-8 to a file, through a buffer. If the file exists, it's overwritten.
+     *
+     * @param file the file.
+     * @param gzip true if the document must be compressed with gzip.
+     *
+     * @return the writer.
+     *
+     * @throws IOException if the file can't be written.
+     */
+    public static SimulationExportWriter newWriter(File file, boolean gzip) throws IOException
+    {
+        FileOutputStream output = new FileOutputStream(file);
+
+        try {
+            return newWriter(output.getChannel(), gzip);
+        } catch (IOException | RuntimeException ex) {
+            output.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Writes a result at the end of the document. The result is not flushed.
+     *
+     * @param result the result.
+     *
+     * @throws NullPointerException if the result is NULL.
+     * @throws IllegalStateException if the writer was closed.
+     * @throws IOException if the underlying stream throws it.
+     */
+    public synchronized void write(SimulationFinalResult result) throws IOException
+    {
+        if (result == null) {
+            throw new NullPointerException();
+        } else if (isClosed) {
+            throw new IllegalStateException("The writer was closed");
+        }
+
+        SimulationExport.writeSimulation(out, result, 1);
+        out.write(LINE_END);
+
+        nrOfResults++;
+    }
+
+    /**
+     * Returns the number of results written so far.
+     * @return the number of results.
+     */
+    public synchronized int getNrOfResults()
+    {
+        return nrOfResults;
+    }
+
+    /**
+     * Writes everything that was buffered. The document is not complete until the writer is closed.
+     *
+     * @throws IOException if the underlying stream throws it.
+     */
+    @Override
+    public synchronized void flush() throws IOException
+    {
+        if (! isClosed) {
+            out.flush();
+        }
+    }
+
+    /**
+     * Writes the end tag of the document and closes the underlying stream. Closing a closed writer
+     * has no effect.
+     *
+     * @throws IOException if the underlying stream throws it.
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if (isClosed) {
+            return;
+        }
+
+        isClosed = true;
+
+        try {
+            out.write("</simulations>");
+            out.write(LINE_END);
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -19,6 +19,7 @@ public class SimulationFinalResult
     private Card river;
     private ArrayList<PlayerProfile> players;
     private int nrThreads;
+    private double error;
     
     private DecimalFormat formatter;
     
@@ -33,6 +34,7 @@ public class SimulationFinalResult
         private Card river;
         private ArrayList<PlayerProfile> players;
         private int nrThreads;
+        private double error;
         
         public ResultBuilder setGameType(PokerType gameType)
         {
@@ -100,6 +102,12 @@ public class SimulationFinalResult
             return this;
         }
         
+        public ResultBuilder setError(double error)
+        {
+            this.error = error;
+            return this;
+        }
+        
         public SimulationFinalResult build()
         {
             if (gameType == null
@@ -110,8 +118,9 @@ public class SimulationFinalResult
                 || wins.length != ties.length
                 || ties.length != loses.length
                 || rounds <= 0
-                || duration <= 0
-                || nrThreads <= 0)
+                || duration < 0
+                || nrThreads <= 0
+                || ! (error >= 0))
             {
                 throw new IllegalStateException();
             }
@@ -147,6 +156,7 @@ public class SimulationFinalResult
         this.duration = builder.duration;
         this.gameType = builder.gameType;
         this.nrThreads = builder.nrThreads;
+        this.error = builder.error;
         
         formatter = new DecimalFormat();
         formatter.setMaximumFractionDigits(2);
@@ -217,6 +227,16 @@ public class SimulationFinalResult
         return rounds;
     }
     
+    /**
+     * Returns the precision of this result: the biggest error of the win, tie and lose percentages of all
+     * the players, measured by their 95% confidence intervals (see <code>ConvergenceMonitor</code>).
+     * @return the error, in percentage points. It's 0 if the result is exact (all the boards were enumerated).
+     */
+    public double getError()
+    {
+        return error;
+    }
+    
     public PokerType getPokerType()
     {
         return gameType;
@@ -1,16 +1,29 @@
 package org.javafling.pokerenlighter.simulation;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.javafling.pokerenlighter.combination.Card;
+import org.javafling.pokerenlighter.combination.CardSet;
 import org.javafling.pokerenlighter.simulation.SimulationFinalResult.ResultBuilder;
+import org.javafling.pokerenlighter.simulation.worker.ConvergenceMonitor;
+import org.javafling.pokerenlighter.simulation.worker.EnumerationWorker;
 import org.javafling.pokerenlighter.simulation.worker.FiveCardOmahaHiLoWorker;
 import org.javafling.pokerenlighter.simulation.worker.FiveCardOmahaWorker;
 import org.javafling.pokerenlighter.simulation.worker.OmahaHiLoWorker;
 import org.javafling.pokerenlighter.simulation.worker.OmahaWorker;
+import org.javafling.pokerenlighter.simulation.worker.RoundScheduler;
 import org.javafling.pokerenlighter.simulation.worker.SimulationWorker;
 import org.javafling.pokerenlighter.simulation.worker.SimulationWorker.WorkerBuilder;
 import org.javafling.pokerenlighter.simulation.worker.SimulationWorkerResult;
@@ -23,8 +36,9 @@ import org.javafling.pokerenlighter.simulation.worker.WorkerNotifiable;
  * centralizes them. It will split the simulations on multiple threads, so you can safely create a
  * <code>Simulator</code> and/or start it on any thread you want, even the GUI thread.
  * <br />
- * The progress and events of the simulation must be monitored by passing an instance of
- * <code>SimulationNotifiable</code> to the Simulator's constructor.
+ * The progress and events of the simulation can be monitored by passing an instance of
+ * <code>SimulationNotifiable</code> to the Simulator's builder. If only the result is needed, the
+ * notifiable can be left out and the simulation started with {@link #runAsync()} or {@link #run(Duration)}.
  * <br />
  * Once a simulation is completed, it can not be started again.
  * 
@@ -32,6 +46,46 @@ import org.javafling.pokerenlighter.simulation.worker.WorkerNotifiable;
  */
 public final class Simulator implements WorkerNotifiable
 {
+    /**
+     * The default maximum number of boards for which the exact result is computed by enumerating
+     * all of them, instead of simulating random rounds.
+     */
+    public static final int DEFAULT_ENUMERATION_THRESHOLD = 100000;
+    
+    /**
+     * The default time between two samplings of the progress, in milliseconds.
+     */
+    public static final long DEFAULT_PROGRESS_PERIOD = 100;
+    
+    //used when the builder has no notifiable
+    private static final SimulationNotifiable NO_NOTIFIABLE = new SimulationNotifiable()
+    {
+        @Override
+        public void onSimulationStart(SimulationEvent event)
+        {
+        }
+
+        @Override
+        public void onSimulationDone(SimulationEvent event)
+        {
+        }
+
+        @Override
+        public void onSimulationCancel(SimulationEvent event)
+        {
+        }
+
+        @Override
+        public void onSimulationProgress(SimulationEvent event)
+        {
+        }
+
+        @Override
+        public void onSimulationError(SimulationEvent event)
+        {
+        }
+    };
+    
     //simulation data
     private PokerType gameType;
     private ArrayList<PlayerProfile> profiles;
@@ -40,19 +94,65 @@ public final class Simulator implements WorkerNotifiable
     
     //workers
     private ArrayList<SimulationWorker> workers;
+    private RoundScheduler scheduler;
     
     //additional stuff needed for correct implementation
     private ExecutorService executor;
-    private CountDownLatch latch;
+    private Executor workerExecutor;
+    private SimulationEngine engine;
+    private AtomicInteger remainingWorkers;
     private long startTime, endTime;
-    private int updateInterval, overallProgress, lastUpdatePercentage;
+    private int updateInterval, lastUpdatePercentage;
+    private volatile int overallProgress;
+    private long progressPeriod;
+    private ScheduledFuture<?> progressSampler;
     private int nrOfWorkers;
+    private double targetError;
+    private Long seed;
+    private SimulationCache cache;
+    private ScenarioKey scenarioKey;
+    private boolean isFromCache;
+    private PreflopTable preflopTable;
+    private boolean isFromPreflopTable;
     private boolean isRunning;
+    private volatile boolean isCancelled;
+    private final AtomicBoolean isAborted = new AtomicBoolean();
+    
+    //true if all the possible boards are enumerated instead of simulating random rounds
+    private boolean isEnumeration;
     
     private SimulationNotifiable notifiable;
     
+    //the same as the notifiable, but it delivers the events on another thread
+    private SimulationNotifiable progressNotifiable;
+    
+    //completed with the result, if the simulation was started by runAsync
+    private SimulationFuture future;
+    
     private SimulationFinalResult simulationResult;
     
+    //the future of runAsync. cancelling it stops the simulation
+    private class SimulationFuture extends CompletableFuture<SimulationFinalResult>
+    {
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning)
+        {
+            boolean isCancelledNow = super.cancel(mayInterruptIfRunning);
+            
+            if (isCancelledNow) {
+                stop();
+            }
+            
+            return isCancelledNow;
+        }
+        
+        //cancels the future after the simulation was stopped
+        void onStop()
+        {
+            super.cancel(false);
+        }
+    }
+    
     public static class SimulatorBuilder
     {
         private PokerType gameType;
@@ -61,6 +161,66 @@ public final class Simulator implements WorkerNotifiable
         private Card[] communityCards = new Card[5];
         private int updateInterval;
         private SimulationNotifiable notifiable;
+        private int enumerationThreshold = DEFAULT_ENUMERATION_THRESHOLD;
+        private SimulationEngine engine;
+        private double targetError;
+        private long progressPeriod = DEFAULT_PROGRESS_PERIOD;
+        private Long seed;
+        private SimulationCache cache;
+        private PreflopTable preflopTable;
+        private Executor executor;
+        private Executor notificationExecutor;
+        private int nrOfWorkers;
+
+        public int getEnumerationThreshold()
+        {
+            return this.enumerationThreshold;
+        }
+
+        public SimulationEngine getEngine()
+        {
+            return this.engine;
+        }
+
+        public double getTargetError()
+        {
+            return this.targetError;
+        }
+
+        public long getProgressPeriod()
+        {
+            return this.progressPeriod;
+        }
+
+        public Long getSeed()
+        {
+            return this.seed;
+        }
+
+        public SimulationCache getCache()
+        {
+            return this.cache;
+        }
+
+        public PreflopTable getPreflopTable()
+        {
+            return this.preflopTable;
+        }
+
+        public Executor getExecutor()
+        {
+            return this.executor;
+        }
+
+        public Executor getNotificationExecutor()
+        {
+            return this.notificationExecutor;
+        }
+
+        int getNrOfWorkers()
+        {
+            return this.nrOfWorkers;
+        }
 
         public PokerType getGameType()
         {
@@ -142,12 +302,209 @@ public final class Simulator implements WorkerNotifiable
             return this;
         }
 
+        /**
+         * Sets the object that gets the events of the simulation. A simulation without a notifiable
+         * must be started with <code>runAsync</code> or <code>run</code>, which give its result.
+         * 
+         * @param notifiable the notifiable.
+         * 
+         * @return this builder.
+         */
         public SimulatorBuilder setNotifiable(SimulationNotifiable notifiable)
         {
             this.notifiable = notifiable;
             return this;
         }
         
+        /**
+         * Sets the maximum number of possible boards for which the simulation is replaced by an exact
+         * enumeration of all the boards. This can happen only if all the players have exact cards.
+         * The default value is {@link Simulator#DEFAULT_ENUMERATION_THRESHOLD}.
+         * 
+         * @param enumerationThreshold the maximum number of boards. 0 disables the enumeration.
+         * 
+         * @return this builder.
+         */
+        public SimulatorBuilder setEnumerationThreshold(int enumerationThreshold)
+        {
+            this.enumerationThreshold = enumerationThreshold;
+            return this;
+        }
+        
+        /**
+         * Sets the engine on which the simulation will run. Many simulators can share the same engine,
+         * which avoids creating new threads for every simulation. If no engine is set, the simulator
+         * creates its own threads when it's started and stops them when it's done.
+         * 
+         * @param engine the engine.
+         * 
+         * @return this builder.
+         */
+        public SimulatorBuilder setEngine(SimulationEngine engine)
+        {
+            this.engine = engine;
+            return this;
+        }
+        
+        /**
+         * Sets the executor on which the workers of the simulation will run, instead of threads created
+         * by the simulator. Every worker is one task that plays all its rounds, so the executor should have
+         * at least as many threads as the simulation has workers (one for every logical CPU). The executor
+         * is not shut down by the simulator. It can't be used together with an engine.
+         * 
+         * @param executor the executor.
+         * 
+         * @return this builder.
+         */
+        public SimulatorBuilder setExecutor(Executor executor)
+        {
+            this.executor = executor;
+            return this;
+        }
+        
+        /**
+         * Sets the executor on which the notifiable gets the events of the simulation. The events are
+         * delivered one at a time and in order, even if the executor has many threads. By default, the
+         * progress events are delivered on a thread of a pool shared by all the simulations and the other
+         * events on the threads that play the rounds (and, for the start event, on the thread that starts
+         * the simulation), so a notifiable that blocks slows the simulations down.
+         * <br />
+         * An executor of virtual threads (see {@link SystemUtils#newVirtualThreadExecutor()}) lets many
+         * simulations wait for their notifiables without keeping an OS thread busy for each of them.
+         * 
+         * @param notificationExecutor the executor.
+         * 
+         * @return this builder.
+         */
+        public SimulatorBuilder setNotificationExecutor(Executor notificationExecutor)
+        {
+            this.notificationExecutor = notificationExecutor;
+            return this;
+        }
+        
+        /**
+         * Sets the precision at which the simulation stops. The simulation stops as soon as the bounds of the
+         * 95% confidence interval of the win, tie and lose percentages of every player are at most
+         * <code>targetError</code> percentage points away from them (see <code>ConvergenceMonitor</code>).
+         * In this case, the number of rounds set with <code>setNrRounds</code> is the maximum number of rounds.
+         * The default value is 0, which means that all the rounds are played.
+         * 
+         * @param targetError the target error, in percentage points (for example, 0.1).
+         * 
+         * @return this builder.
+         */
+        public SimulatorBuilder setTargetError(double targetError)
+        {
+            this.targetError = targetError;
+            return this;
+        }
+        
+        /**
+         * Sets how often the progress of the simulation is sampled. After every sampling, the notifiable
+         * gets a progress event if the progress grew by at least the update interval since the last event.
+         * The default value is {@link Simulator#DEFAULT_PROGRESS_PERIOD}.
+         * 
+         * @param progressPeriod the time between two samplings, in milliseconds.
+         * 
+         * @return this builder.
+         */
+        public SimulatorBuilder setProgressPeriod(long progressPeriod)
+        {
+            this.progressPeriod = progressPeriod;
+            return this;
+        }
+        
+        /**
+         * Sets the master seed of the random numbers, which makes the simulation reproducible: running it
+         * again with the same seed gives exactly the same result, with any number of threads. Every batch
+         * of rounds gets its own stream of random numbers, derived from the seed and the position of the
+         * batch, and the batches don't depend on the number of threads.
+         * <br />
+         * A simulation that stops at a target error (see <code>setTargetError</code>) is not reproducible,
+         * since the number of rounds played before stopping depends on the timing of the threads.
+         * By default, the random numbers are not reproducible.
+         * 
+         * @param seed the master seed.
+         * 
+         * @return this builder.
+         */
+        public SimulatorBuilder setSeed(long seed)
+        {
+            this.seed = seed;
+            return this;
+        }
+        
+        /**
+         * Sets the cache of results that this simulation uses. If the cache has a result of the same
+         * scenario (see {@link ScenarioKey}) that is at least as precise as this simulation would be,
+         * the simulation gives that result without playing any round: it's exact, it has at least as
+         * many rounds or, if a target error is set, its error is at most the target error. In that case,
+         * the start event says that 0 threads are used and the done event follows immediately.
+         * Otherwise, the simulation runs and its result is put in the cache.
+         * <br />
+         * A simulation with a seed doesn't take its result from the cache, since it must be reproducible.
+         * By default, no cache is used.
+         * 
+         * @param cache the cache.
+         * 
+         * @return this builder.
+         */
+        public SimulatorBuilder setCache(SimulationCache cache)
+        {
+            this.cache = cache;
+            return this;
+        }
+        
+        /**
+         * Sets the table of the exact results of the heads-up preflop matchups of Texas Hold'em. A Texas
+         * Hold'em simulation of 2 players with exact cards and no community cards then takes its result
+         * from the table, without playing any round: the result is exact and its rounds are all the boards
+         * (see {@link PreflopTable#NR_OF_BOARDS}). The start event says that 0 threads are used and the
+         * done event follows immediately. By default, no table is used.
+         * 
+         * @param preflopTable the table.
+         * 
+         * @return this builder.
+         */
+        public SimulatorBuilder setPreflopTable(PreflopTable preflopTable)
+        {
+            this.preflopTable = preflopTable;
+            return this;
+        }
+        
+        //sets the number of workers that share the rounds. 0 means one for every thread of the engine.
+        //used by SimulationBatch, which runs many simulations with a single worker each
+        SimulatorBuilder setNrOfWorkers(int nrOfWorkers)
+        {
+            this.nrOfWorkers = nrOfWorkers;
+            return this;
+        }
+        
+        //a builder with the same settings, which can be changed without changing this one
+        SimulatorBuilder copy()
+        {
+            SimulatorBuilder copy = new SimulatorBuilder();
+            
+            copy.gameType = this.gameType;
+            copy.profiles = (this.profiles == null) ? null : new ArrayList<>(this.profiles);
+            copy.nrRounds = this.nrRounds;
+            copy.communityCards = this.communityCards.clone();
+            copy.updateInterval = this.updateInterval;
+            copy.notifiable = this.notifiable;
+            copy.enumerationThreshold = this.enumerationThreshold;
+            copy.engine = this.engine;
+            copy.targetError = this.targetError;
+            copy.progressPeriod = this.progressPeriod;
+            copy.seed = this.seed;
+            copy.cache = this.cache;
+            copy.preflopTable = this.preflopTable;
+            copy.executor = this.executor;
+            copy.notificationExecutor = this.notificationExecutor;
+            copy.nrOfWorkers = this.nrOfWorkers;
+            
+            return copy;
+        }
+        
         private boolean isPredictableResult()
         {
             boolean commSet = true;
@@ -203,16 +560,25 @@ public final class Simulator implements WorkerNotifiable
         
         public Simulator build()
         {
-            if (this.updateInterval <= 0 || 100 % this.updateInterval != 0) {
+            //the update interval matters only to the notifiable
+            if (this.notifiable != null && (this.updateInterval <= 0 || 100 % this.updateInterval != 0)) {
                 throw new IllegalStateException("Invalid update interval value");
             } else if (this.gameType == null) {
                 throw new IllegalStateException("Invalid game type value");
             } else if (this.nrRounds <= 0) {
                 throw new IllegalStateException("Invalid rounds value");
-            } else if (this.notifiable == null) {
-                throw new IllegalStateException("No notifiable was set");
             } else if (this.profiles == null || this.profiles.size() < 2) {
                 throw new IllegalStateException("Invalid or insufficient player profiles");
+            } else if (this.enumerationThreshold < 0) {
+                throw new IllegalStateException("Invalid enumeration threshold value");
+            } else if (! (this.targetError >= 0)) {
+                throw new IllegalStateException("Invalid target error value");
+            } else if (this.progressPeriod <= 0) {
+                throw new IllegalStateException("Invalid progress period value");
+            } else if (this.engine != null && this.engine.isShutdown()) {
+                throw new IllegalStateException("The engine was shut down");
+            } else if (this.engine != null && this.executor != null) {
+                throw new IllegalStateException("An engine and an executor can't be used together");
             }
             
             for (PlayerProfile profile : this.profiles) {
@@ -245,12 +611,15 @@ public final class Simulator implements WorkerNotifiable
                 throw new IllegalStateException("The simulation result is predictable");
             }
             
-            Card[] allCards = this.getAllCards();
-            for (int i = 0; i < allCards.length - 1; i++) {
-                for (int j = i + 1; j < allCards.length; j++) {
-                    if (allCards[i].equals(allCards[j])) {
-                        throw new IllegalStateException("No duplicate cards allowed");
-                    }
+            if (CardSet.hasDuplicates(this.getAllCards())) {
+                throw new IllegalStateException("No duplicate cards allowed");
+            }
+            
+            //every range must contain at least one hand that doesn't use the known cards
+            long usedCards = CardSet.getMask(this.getAllCards());
+            for (PlayerProfile profile : this.profiles) {
+                if (profile.getHandType() == HandType.RANGE && profile.getRange().getHands(usedCards).length == 0) {
+                    throw new IllegalStateException("A range has no hands that are possible with the known cards");
                 }
             }
             
@@ -264,12 +633,48 @@ public final class Simulator implements WorkerNotifiable
         this.nrRounds = builder.getNrRounds();
         this.profiles = builder.getProfiles();
         this.communityCards = builder.getCommunityCards();
-        this.updateInterval = builder.getUpdateInterval();
-        this.notifiable = builder.getNotifiable();
+        this.workerExecutor = builder.getExecutor();
+        
+        //the progress events are never delivered on the thread of the progress sampler, see ProgressSampler
+        if (builder.getNotifiable() == null) {
+            this.notifiable = this.progressNotifiable = NO_NOTIFIABLE;
+            this.updateInterval = 100;
+        } else if (builder.getNotificationExecutor() != null) {
+            this.notifiable = this.progressNotifiable = new AsyncNotifiable(new GuardedNotifiable(builder.getNotifiable()),
+                                                                            builder.getNotificationExecutor());
+            this.updateInterval = builder.getUpdateInterval();
+        } else {
+            this.notifiable = new GuardedNotifiable(builder.getNotifiable());
+            this.progressNotifiable = new AsyncNotifiable(this.notifiable, ProgressSampler.getDeliveryExecutor());
+            this.updateInterval = builder.getUpdateInterval();
+        }
         
         this.workers = new ArrayList<>();
         this.startTime = this.endTime = this.overallProgress = this.lastUpdatePercentage = 0;
-        this.nrOfWorkers = SystemUtils.getNrOfLogicalCPUs();
+        this.engine = builder.getEngine();
+        this.targetError = builder.getTargetError();
+        this.progressPeriod = builder.getProgressPeriod();
+        this.seed = builder.getSeed();
+        this.cache = builder.getCache();
+        this.preflopTable = builder.getPreflopTable();
+        if (builder.getNrOfWorkers() > 0) {
+            this.nrOfWorkers = builder.getNrOfWorkers();
+        } else {
+            this.nrOfWorkers = (this.engine != null) ? this.engine.getNrOfThreads() : SystemUtils.getNrOfLogicalCPUs();
+        }
+        
+        //if there are only a few possible boards, going through all of them is both faster and exact.
+        //in that case, the number of rounds becomes the number of boards
+        long nrOfBoards = EnumerationWorker.getNrOfBoards(this.profiles, this.communityCards);
+        
+        if (nrOfBoards > 0 && nrOfBoards <= builder.getEnumerationThreshold()) {
+            this.isEnumeration = true;
+            this.nrRounds = (int) nrOfBoards;
+        }
+        
+        if (this.cache != null) {
+            this.scenarioKey = ScenarioKey.valueOf(this.gameType, this.profiles, this.communityCards);
+        }
     }
     
     public boolean isRunning()
@@ -282,6 +687,37 @@ public final class Simulator implements WorkerNotifiable
         return overallProgress;
     }
     
+    /**
+     * Tells if this simulation enumerates all the possible boards (and so its result is exact)
+     * instead of simulating random rounds.
+     * 
+     * @return true if the boards are enumerated, false otherwise.
+     */
+    public boolean isEnumeration()
+    {
+        return isEnumeration;
+    }
+    
+    /**
+     * Tells if the result of this simulation was taken from its cache, without playing any round.
+     * 
+     * @return true if the result came from the cache, false otherwise.
+     */
+    public boolean isFromCache()
+    {
+        return isFromCache;
+    }
+    
+    /**
+     * Tells if the result of this simulation was taken from its preflop table, without playing any round.
+     * 
+     * @return true if the result came from the preflop table, false otherwise.
+     */
+    public boolean isFromPreflopTable()
+    {
+        return isFromPreflopTable;
+    }
+    
     public SimulationFinalResult getResult()
     {
         return this.simulationResult;
@@ -293,25 +729,36 @@ public final class Simulator implements WorkerNotifiable
     @Override
     public void onSimulationDone(WorkerEvent event)
     {
-        this.latch.countDown();
+        //the last worker that is done finalizes the simulation
+        if (this.remainingWorkers.decrementAndGet() == 0) {
+            this.finalizeSimulation();
+        }
     }
     
     /**
      * {@inheritDoc} 
      */
     @Override
-    public synchronized void onSimulationProgress(WorkerEvent event)
+    public void onSimulationProgress(WorkerEvent event)
     {
-        int totalProgress = 0;
-        for (int i = 0; i < this.nrOfWorkers; i++) {
-            totalProgress += this.workers.get(i).getProgress();
-        }
+        //the workers of a simulator never send progress events (their update interval is 100).
+        //the progress is sampled periodically instead, see sampleProgress
+    }
+    
+    //reads the number of rounds played so far and notifies the progress if it grew enough.
+    //it's called only by the progress sampler, so it needs no synchronization
+    private void sampleProgress()
+    {
+        this.overallProgress = this.scheduler.getProgress();
         
-        this.overallProgress = (int) (totalProgress / this.nrOfWorkers);
+        //the notifiable also skips the progress events that arrive after the simulation ended
+        if (this.isCancelled || this.endTime != 0) {
+            return;
+        }
         
-        if (this.overallProgress - this.lastUpdatePercentage >= this.updateInterval) {
+        if (this.overallProgress - this.lastUpdatePercentage >= this.updateInterval && this.overallProgress < 100) {
             SimulationEvent mainEvent = new SimulationEvent(SimulationEvent.EVENT_SIM_PROGRESS, this.overallProgress);
-            this.notifiable.onSimulationProgress(mainEvent);
+            this.progressNotifiable.onSimulationProgress(mainEvent);
             this.lastUpdatePercentage = this.overallProgress;
         }
     }
@@ -322,8 +769,84 @@ public final class Simulator implements WorkerNotifiable
     @Override
     public void onSimulationError(WorkerEvent event)
     {
+        //the worker that had the error will never finish, so the simulation of a future is stopped
+        boolean isFutureFailed = this.future != null && this.future.completeExceptionally(getThrowable(event.getEventData()));
+        
         SimulationEvent errorEvent = new SimulationEvent(SimulationEvent.EVENT_SIM_ERROR, event.getEventData());
         this.notifiable.onSimulationError(errorEvent);
+        
+        if (isFutureFailed) {
+            this.stop();
+        }
+    }
+    
+    private static Throwable getThrowable(Object error)
+    {
+        return (error instanceof Throwable) ? (Throwable) error : new RuntimeException(String.valueOf(error));
+    }
+    
+    /**
+     * Starts the simulation and returns immediately. The returned future is completed with the result
+     * when the simulation is done, so it can be combined with other asynchronous work without waiting on
+     * any thread. The notifiable, if any, still gets all the events.
+     * <br />
+     * The future is completed exceptionally with the exception of a worker if the simulation encounters
+     * an error (the simulation is then stopped) and it's cancelled if the simulation is stopped. Cancelling
+     * the future stops the simulation.
+     * 
+     * @return the future of the result.
+     * 
+     * @throws IllegalStateException if the simulation was already started.
+     */
+    public CompletableFuture<SimulationFinalResult> runAsync()
+    {
+        if (this.isRunning || this.simulationResult != null || this.future != null) {
+            throw new IllegalStateException("The simulation was already started");
+        }
+        
+        SimulationFuture result = new SimulationFuture();
+        this.future = result;
+        
+        try {
+            this.start();
+        } catch (RuntimeException ex) {
+            result.completeExceptionally(ex);
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Runs the simulation and waits for its result. If the result doesn't come in time, the simulation
+     * is stopped.
+     * 
+     * @param timeout the maximum time to wait.
+     * 
+     * @return the result.
+     * 
+     * @throws IllegalStateException if the simulation was already started.
+     * @throws TimeoutException if the simulation didn't finish in time.
+     * @throws InterruptedException if the thread was interrupted while waiting. The simulation is stopped.
+     * @throws RuntimeException the exception of a worker that encountered an error, if it's a
+     * <code>RuntimeException</code>; otherwise, an <code>IllegalStateException</code> with that exception
+     * as its cause.
+     */
+    public SimulationFinalResult run(Duration timeout) throws TimeoutException, InterruptedException
+    {
+        CompletableFuture<SimulationFinalResult> result = this.runAsync();
+        
+        try {
+            return result.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | InterruptedException ex) {
+            result.cancel(false);
+            throw ex;
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            
+            throw new IllegalStateException("The simulation encountered an error", ex.getCause());
+        }
     }
 
     public void start()
@@ -332,17 +855,44 @@ public final class Simulator implements WorkerNotifiable
             return;
         }
         
-        this.latch = new CountDownLatch(this.nrOfWorkers);
-        int roundsPerWorker = getNrOfRoundsPerWorker(this.nrOfWorkers);
+        if (this.preflopTable != null && this.isHeadsUpPreflop()) {
+            this.finishFromPreflopTable();
+            return;
+        }
         
-        this.executor = Executors.newFixedThreadPool(this.nrOfWorkers);
-    
-        int workerUpdateInterval = getUpdateInterval(this.nrOfWorkers);
+        if (this.cache != null && this.seed == null) {
+            SimulationFinalResult cachedResult = this.cache.get(this.scenarioKey);
+            
+            if (cachedResult != null && this.isPreciseEnough(cachedResult)) {
+                this.finishFromCache(cachedResult);
+                return;
+            }
+        }
+        
+        //nothing is changed, so the simulation can still be started on another engine
+        if (this.engine != null && this.engine.isShutdown()) {
+            throw new IllegalStateException("The engine was shut down");
+        }
+        
+        this.remainingWorkers = new AtomicInteger(this.nrOfWorkers);
+        
+        //all the workers take their rounds from the same scheduler, in small batches. the batches of a
+        //reproducible simulation must not depend on the number of workers
+        this.scheduler = (this.seed != null)
+                         ? new RoundScheduler(this.nrRounds)
+                         : new RoundScheduler(this.nrRounds, this.nrOfWorkers);
+        
+        //an enumeration is exact, so it never stops early
+        ConvergenceMonitor convergenceMonitor = null;
+        if (this.targetError > 0 && ! this.isEnumeration) {
+            convergenceMonitor = new ConvergenceMonitor(this.profiles.size(), this.targetError);
+        }
         
         for (int i = 0; i < this.nrOfWorkers; i++) {
-            SimulationWorker worker;
             WorkerBuilder builder;
-            if (this.gameType == PokerType.TEXAS_HOLDEM) {
+            if (this.isEnumeration) {
+                builder = EnumerationWorker.builder().setGameType(this.gameType);
+            } else if (this.gameType == PokerType.TEXAS_HOLDEM) {
                 builder = TexasHoldemWorker.builder();
             } else if (this.gameType == PokerType.OMAHA) {
                 builder = OmahaWorker.builder();
@@ -356,34 +906,205 @@ public final class Simulator implements WorkerNotifiable
             
             builder.setCommunityCards(this.communityCards)
                 .setNotifier(this)
-                .setRounds(roundsPerWorker)
-                .setUpdateInterval(workerUpdateInterval);
+                .setScheduler(this.scheduler)
+                .setConvergenceMonitor(convergenceMonitor)
+                .setSeed(this.seed)
+                .setUpdateInterval(100);
             
             for (PlayerProfile profile : this.profiles) {
                 builder.addPlayer(profile);
             }
             
-            worker = builder.build();
-            
-            this.executor.execute(worker);
-            this.workers.add(worker);
+            this.workers.add(builder.build());
         }
         
         this.startTime = System.currentTimeMillis();
         
         this.isRunning = true;
         
-        Thread masterThread = new Thread(new Supervisor());
-        masterThread.setDaemon(true);
-        masterThread.start();
-        
         SimulationEvent event = new SimulationEvent(SimulationEvent.EVENT_SIM_STARTED, this.nrOfWorkers);
         this.notifiable.onSimulationStart(event);
+        
+        this.progressSampler = ProgressSampler.schedule(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                sampleProgress();
+            }
+        }, this.progressPeriod);
+        
+        //the workers are started only after all of them were created, since the last one that is done
+        //needs all of them
+        if (this.engine != null) {
+            try {
+                for (SimulationWorker worker : this.workers) {
+                    this.engine.execute(worker, this);
+                }
+            } catch (RejectedExecutionException ex) {
+                //the engine was shut down meanwhile
+                this.abort(new IllegalStateException("The engine was shut down", ex));
+            }
+        } else if (this.workerExecutor != null) {
+            for (SimulationWorker worker : this.workers) {
+                this.workerExecutor.execute(this.getWorkerTask(worker));
+            }
+        } else {
+            this.executor = Executors.newFixedThreadPool(this.nrOfWorkers);
+            
+            for (SimulationWorker worker : this.workers) {
+                this.executor.execute(worker);
+            }
+        }
+    }
+    
+    //plays all the rounds of a worker on an executor that the simulator doesn't own. the executor can't be
+    //shut down when the simulation is stopped, so the worker checks for that after every batch
+    private Runnable getWorkerTask(final SimulationWorker worker)
+    {
+        return new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try {
+                    while (! isCancelled && worker.playBatch()) {
+                        //the batches are played one after the other, on this thread
+                    }
+                    
+                    if (! isCancelled) {
+                        worker.finish();
+                    }
+                } catch (RuntimeException ex) {
+                    onSimulationError(new WorkerEvent(WorkerEvent.EVENT_SIMWORKER_ERROR, ex));
+                }
+            }
+        };
+    }
+    
+    //tells if a result is at least as precise as the one this simulation would give
+    private boolean isPreciseEnough(SimulationFinalResult result)
+    {
+        if (result.getError() == 0) {
+            return true;
+        } else if (this.isEnumeration) {
+            return false;
+        }
+        
+        return result.getRounds() >= this.nrRounds || (this.targetError > 0 && result.getError() <= this.targetError);
+    }
+    
+    //tells if this is a Texas Hold'em simulation of 2 players with exact cards and no community cards
+    private boolean isHeadsUpPreflop()
+    {
+        if (this.gameType != PokerType.TEXAS_HOLDEM || this.profiles.size() != 2 || this.communityCards[0] != null) {
+            return false;
+        }
+        
+        for (PlayerProfile profile : this.profiles) {
+            if (profile.getHandType() != HandType.EXACTCARDS || profile.getCards().length != 2) {
+                return false;
+            }
+        }
+        
+        return true;
+    }
+    
+    //gives the exact result of the matchup from the preflop table
+    private void finishFromPreflopTable()
+    {
+        this.startTime = System.currentTimeMillis();
+        this.isFromPreflopTable = true;
+        
+        SimulationEvent startEvent = new SimulationEvent(SimulationEvent.EVENT_SIM_STARTED, 0);
+        this.notifiable.onSimulationStart(startEvent);
+        
+        double[] wins = new double[2];
+        double[] loses = new double[2];
+        double[] ties = new double[2];
+        
+        for (int j = 0; j < 2; j++) {
+            Card[] cards = this.profiles.get(j).getCards();
+            Card[] otherCards = this.profiles.get(1 - j).getCards();
+            
+            wins[j] = (100.0 * this.preflopTable.getWins(cards, otherCards)) / PreflopTable.NR_OF_BOARDS;
+            loses[j] = (100.0 * this.preflopTable.getLoses(cards, otherCards)) / PreflopTable.NR_OF_BOARDS;
+            ties[j] = (100.0 * this.preflopTable.getTies(cards, otherCards)) / PreflopTable.NR_OF_BOARDS;
+        }
+        
+        //the table was read on the calling thread
+        this.finishWithoutWorkers(wins, ties, loses, PreflopTable.NR_OF_BOARDS, 0, 1);
+    }
+    
+    //gives the cached result of the same scenario as the result of this simulation. the numbers are the
+    //cached ones, the players and the community cards are the ones of this simulation
+    private void finishFromCache(SimulationFinalResult cachedResult)
+    {
+        this.startTime = System.currentTimeMillis();
+        this.isFromCache = true;
+        
+        SimulationEvent startEvent = new SimulationEvent(SimulationEvent.EVENT_SIM_STARTED, 0);
+        this.notifiable.onSimulationStart(startEvent);
+        
+        int nrPlayers = this.profiles.size();
+        
+        double[] wins = new double[nrPlayers];
+        double[] loses = new double[nrPlayers];
+        double[] ties = new double[nrPlayers];
+        
+        for (int j = 0; j < nrPlayers; j++) {
+            wins[j] = cachedResult.getWinPercentage(j);
+            loses[j] = cachedResult.getLosePercentage(j);
+            ties[j] = cachedResult.getTiePercentage(j);
+        }
+        
+        this.finishWithoutWorkers(wins, ties, loses, cachedResult.getRounds(), cachedResult.getError(), cachedResult.getNrOfThreads());
+    }
+    
+    //builds the result of a simulation that didn't need any worker and notifies that it's done
+    private void finishWithoutWorkers(double[] wins, double[] ties, double[] loses, int rounds, double error, int nrThreads)
+    {
+        this.endTime = System.currentTimeMillis();
+        this.overallProgress = 100;
+        
+        ResultBuilder resultBuilder = new SimulationFinalResult.ResultBuilder().setGameType(this.gameType)
+                                                                                .setPlayers(this.profiles);
+        
+        if (this.communityCards[0] != null) {
+            resultBuilder.setFlop(Arrays.copyOfRange(this.communityCards, 0, 3));
+        }
+        
+        this.simulationResult = resultBuilder.setTurn(this.communityCards[3])
+                                             .setRiver(this.communityCards[4])
+                                             .setWins(wins)
+                                             .setTies(ties)
+                                             .setLoses(loses)
+                                             .setRounds(rounds)
+                                             .setError(error)
+                                             .setThreads(nrThreads)
+                                             .setDuration(this.endTime - this.startTime)
+                                             .build();
+        
+        //the future is completed first, so a notifiable that throws can't keep it waiting
+        if (this.future != null) {
+            this.future.complete(this.simulationResult);
+        }
+        
+        SimulationEvent doneEvent = new SimulationEvent(SimulationEvent.EVENT_SIM_DONE, this.simulationResult);
+        this.notifiable.onSimulationDone(doneEvent);
     }
     
     public void stop()
     {
-        this.executor.shutdownNow();
+        this.isCancelled = true;
+        
+        if (this.progressSampler != null) {
+            this.progressSampler.cancel(false);
+        }
+        
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+        }
         
         this.isRunning = false;
         
@@ -391,10 +1112,44 @@ public final class Simulator implements WorkerNotifiable
             SimulationEvent event = new SimulationEvent(SimulationEvent.EVENT_SIM_DONE, this.overallProgress);
             this.notifiable.onSimulationCancel(event);
         }
+        
+        if (this.future != null) {
+            this.future.onStop();
+        }
+    }
+    
+    //ends a simulation that can't finish anymore, because its engine was shut down: the notifiable gets
+    //the error and the simulation is stopped. it's called once for every worker that can't play anymore
+    void abort(Exception error)
+    {
+        if (! this.isAborted.compareAndSet(false, true)) {
+            return;
+        }
+        
+        //the error of a simulation started by runAsync already stops it, like the notifiable of a batch does
+        this.onSimulationError(new WorkerEvent(WorkerEvent.EVENT_SIMWORKER_ERROR, error));
+        
+        if (! this.isCancelled) {
+            this.stop();
+        }
+    }
+    
+    //tells the engine that the workers of this simulator shouldn't play anymore
+    boolean isCancelled()
+    {
+        return this.isCancelled;
     }
         
     public boolean isSimulationDone()
     {
+        if (this.isFromCache || this.isFromPreflopTable) {
+            return true;
+        }
+        
+        if (this.scheduler == null || ! this.scheduler.isFinished()) {
+            return false;
+        }
+        
         for (SimulationWorker worker : workers) {
             if (worker.getProgress() != 100) {
                 return false;
@@ -403,24 +1158,6 @@ public final class Simulator implements WorkerNotifiable
         
         return true;
     }
-        
-    private int getNrOfRoundsPerWorker(int workers)
-    {
-        return (int) Math.ceil(1.0 * this.nrRounds / workers);
-    }
-    
-    //calculates how often the workers should notify the simulator of progress,
-    //based on how many workers there are
-    private int getUpdateInterval(int workers)
-    {
-        switch (workers) {
-            case 1:
-            case 2: return 10;
-            case 3:
-            case 4: return 20;
-            default: return 25;
-        }
-    }
     
     private void buildFinalResult()
     {
@@ -430,26 +1167,35 @@ public final class Simulator implements WorkerNotifiable
         double[] loses = new double[nrPlayers];
         double[] ties = new double[nrPlayers];
             
+        //if the target error was reached early, fewer rounds than the maximum were played
+        int playedRounds = scheduler.getFinishedRounds();
+            
+        //sum up the rounds won, tied and lost by every player in all the workers. the sums are exact,
+        //so the result doesn't depend on how the rounds were split between the workers
         for (int j = 0; j < nrPlayers; j++) {
-            wins[j] = loses[j] = ties[j] = 0;
-        }
+            long nrWins = 0, nrLoses = 0, nrTies = 0;
             
-        //sum up all the percentages
-        for (int i = 0; i < nrOfWorkers; i++) {
-            SimulationWorkerResult result = workers.get(i).getResult();
+            for (int i = 0; i < nrOfWorkers; i++) {
+                SimulationWorkerResult result = workers.get(i).getResult();
                 
-            for (int j = 0; j < nrPlayers; j++) {
-                wins[j] += result.getWinPercentage(j);
-                loses[j] += result.getLosePercentage(j);
-                ties[j] += result.getTiePercentage(j);
+                nrWins += result.getWins(j);
+                nrLoses += result.getLoses(j);
+                nrTies += result.getTies(j);
             }
-        }
             
-        //average is needed, so... divide
-        for (int j = 0; j < nrPlayers; j++) {
-            wins[j] /= nrOfWorkers;
-            loses[j] /= nrOfWorkers;
-            ties[j] /= nrOfWorkers;
+            wins[j] = (100.0 * nrWins) / playedRounds;
+            loses[j] = (100.0 * nrLoses) / playedRounds;
+            ties[j] = (100.0 * nrTies) / playedRounds;
+        }
+        
+        //the precision of the result. an enumeration has the exact result
+        double error = 0;
+        if (! isEnumeration) {
+            for (int j = 0; j < nrPlayers; j++) {
+                error = Math.max(error, ConvergenceMonitor.getError(wins[j], playedRounds));
+                error = Math.max(error, ConvergenceMonitor.getError(ties[j], playedRounds));
+                error = Math.max(error, ConvergenceMonitor.getError(loses[j], playedRounds));
+            }
         }
 
         long duration = endTime - startTime;
@@ -467,52 +1213,38 @@ public final class Simulator implements WorkerNotifiable
                                         .setWins(wins)
                                         .setTies(ties)
                                         .setLoses(loses)
-                                        .setRounds(nrRounds)
+                                        .setRounds(playedRounds)
+                                        .setError(error)
                                         .setThreads(nrOfWorkers)
                                         .setDuration(duration)
                                         .build();
     }
     
-    private class Supervisor implements Runnable
+    //will be called when all workers are done
+    private void finalizeSimulation()
     {
-        @Override
-        public void run()
-        {
-            try {
-                latch.await();
-            } catch (InterruptedException ex) {
-                SimulationEvent event = new SimulationEvent(SimulationEvent.EVENT_SIM_ERROR, ex);
-                notifiable.onSimulationError(event);
-                executor.shutdownNow();
-                return;
-            }
-            
-            try {
-                this.finalizeSimulation();
-            } finally {
-                isRunning = false;
-                if (! executor.isShutdown()) {
-                    executor.shutdownNow();
-                }
-            }
-        }
-        
-        //will be called when all workers are done
-        private void finalizeSimulation()
-        {
-            if (! isSimulationDone()) {
-                SimulationEvent event = new SimulationEvent(SimulationEvent.EVENT_SIM_CANCELLED, overallProgress);
-                notifiable.onSimulationCancel(event);
-                
-                return;
-            }
-
+        try {
             endTime = System.currentTimeMillis();
 
             buildFinalResult();
             
+            //the result of a cancelled simulation is not kept
+            if (cache != null && ! isCancelled) {
+                cache.put(scenarioKey, simulationResult);
+            }
+            
+            if (future != null) {
+                future.complete(simulationResult);
+            }
+            
             SimulationEvent event = new SimulationEvent(SimulationEvent.EVENT_SIM_DONE, simulationResult);
             notifiable.onSimulationDone(event);
+        } finally {
+            isRunning = false;
+            progressSampler.cancel(false);
+            if (executor != null) {
+                executor.shutdown();
+            }
         }
     }
 }
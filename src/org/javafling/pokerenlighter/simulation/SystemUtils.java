@@ -1,19 +1,75 @@
 package org.javafling.pokerenlighter.simulation;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 /**
  * Provides utility methods for the program.
- * 
+ *
  * @author Radu Murzea
  */
 public class SystemUtils
 {
+    //Executors.newVirtualThreadPerTaskExecutor, which exists only since Java 21
+    private static class VirtualThreads
+    {
+        static final Method factory = getFactory();
+
+        private static Method getFactory()
+        {
+            try {
+                return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            } catch (NoSuchMethodException ex) {
+                return null;
+            }
+        }
+    }
+
     /**
      * Will return the number of logical CPUs available to the machine.
-     * 
+     *
      * @return the number of logical CPUs available.
      */
     public static int getNrOfLogicalCPUs()
     {
         return Runtime.getRuntime().availableProcessors();
     }
+
+    /**
+     * Tells if the Java runtime has virtual threads (Java 21 or later).
+     *
+     * @return true if virtual threads are available, false otherwise.
+     */
+    public static boolean isVirtualThreadSupported()
+    {
+        return VirtualThreads.factory != null;
+    }
+
+    /**
+     * Creates an executor that runs every task on a new virtual thread. Waiting on a virtual thread
+     * doesn't keep an OS thread busy, so such an executor is meant for the work that mostly waits: the
+     * notifications of the simulations (see <code>SimulatorBuilder.setNotificationExecutor</code>) and the
+     * scheduling of the batches (see <code>SimulationBatch</code>). The rounds themselves should still be
+     * played by a bounded pool of platform threads, like a {@link SimulationEngine}.
+     * <br />
+     * The executor is created by reflection, so the program still runs on older versions of Java.
+     *
+     * @return the executor.
+     *
+     * @throws UnsupportedOperationException if the runtime doesn't have virtual threads.
+     */
+    public static ExecutorService newVirtualThreadExecutor()
+    {
+        if (VirtualThreads.factory == null) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+        }
+
+        try {
+            return (ExecutorService) VirtualThreads.factory.invoke(null);
+        } catch (IllegalAccessException | InvocationTargetException ex) {
+            throw new UnsupportedOperationException("Virtual threads can't be used", ex);
+        }
+    }
 }
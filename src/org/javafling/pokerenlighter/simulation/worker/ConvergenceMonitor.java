@@ -0,0 +1,151 @@
+package org.javafling.pokerenlighter.simulation.worker;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the results of the rounds played by all the workers of a simulation and tells when they
+ * are precise enough.
+ * <br /><br />
+ * The precision of a percentage is measured by its 95% confidence interval: the error is the distance,
+ * in percentage points, between the percentage and the farthest bound of the interval. The target is
+ * reached when this error is at most the target error for the win, tie and lose percentages of every player.
+ * <br /><br />
+ * The interval is the Wilson score interval. Unlike the simpler <code>1.96 * sqrt(p * (100 - p) / n)</code>,
+ * it's never empty: a percentage of 0 or 100 after <i>n</i> rounds still has an error of about
+ * <code>384 / n</code> points. An error of 0 is reserved for the exact results of the enumerations.
+ * <br /><br />
+ * This class is thread-safe.
+ *
+ * @author Radu Murzea
+ */
+public final class ConvergenceMonitor
+{
+    /**
+     * The quantile of the normal distribution for a 95% confidence interval.
+     */
+    public static final double Z_95 = 1.959963984540054;
+
+    /**
+     * The minimum number of rounds before the target can be considered reached. Below it, the
+     * percentages can be too far from the real values for their error to be meaningful.
+     */
+    public static final int MIN_ROUNDS = 10000;
+
+    private final double targetError;
+    private final int nrPlayers;
+
+    //every worker adds to the counters after each batch, so they are LongAdders: the workers don't
+    //compete for the same values
+    private final LongAdder[] wins, ties, loses;
+    private final LongAdder rounds = new LongAdder();
+
+    /**
+     * Creates a monitor.
+     *
+     * @param nrPlayers the number of players.
+     * @param targetError the target error, in percentage points (for example, 0.1).
+     *
+     * @throws IllegalArgumentException if the target error is not strictly positive.
+     */
+    public ConvergenceMonitor(int nrPlayers, double targetError)
+    {
+        if (! (targetError > 0)) {
+            throw new IllegalArgumentException("The target error must be a strictly positive number");
+        }
+
+        this.nrPlayers = nrPlayers;
+        this.targetError = targetError;
+        this.wins = createCounters(nrPlayers);
+        this.ties = createCounters(nrPlayers);
+        this.loses = createCounters(nrPlayers);
+    }
+
+    private static LongAdder[] createCounters(int nrPlayers)
+    {
+        LongAdder[] counters = new LongAdder[nrPlayers];
+
+        for (int i = 0; i < nrPlayers; i++) {
+            counters[i] = new LongAdder();
+        }
+
+        return counters;
+    }
+
+    /**
+     * Computes the distance between a percentage and the farthest bound of its 95% Wilson score interval.
+     *
+     * @param percentage the percentage (between 0 and 100).
+     * @param rounds the number of rounds from which the percentage was computed.
+     *
+     * @return the error, in percentage points. It's strictly positive.
+     */
+    public static double getError(double percentage, long rounds)
+    {
+        //while other threads add rounds, the counts can be slightly ahead of the number of rounds,
+        //which could make the percentage a little bigger than 100
+        double p = Math.min(1, Math.max(0, percentage / 100));
+        double z2n = (Z_95 * Z_95) / rounds;
+
+        double center = (p + z2n / 2) / (1 + z2n);
+        double halfWidth = Math.sqrt(p * (1 - p) / rounds + z2n / (4.0 * rounds)) * Z_95 / (1 + z2n);
+
+        return 100 * (halfWidth + Math.abs(center - p));
+    }
+
+    /**
+     * Adds the results of some rounds.
+     *
+     * @param rounds the number of rounds.
+     * @param wins the number of wins of every player in these rounds.
+     * @param ties the number of ties of every player in these rounds.
+     * @param loses the number of loses of every player in these rounds.
+     *
+     * @return true if the target error was reached, false otherwise.
+     */
+    public boolean addRounds(int rounds, int[] wins, int[] ties, int[] loses)
+    {
+        for (int i = 0; i < nrPlayers; i++) {
+            this.wins[i].add(wins[i]);
+            this.ties[i].add(ties[i]);
+            this.loses[i].add(loses[i]);
+        }
+
+        this.rounds.add(rounds);
+
+        return this.rounds.sum() >= MIN_ROUNDS && getError() <= targetError;
+    }
+
+    /**
+     * Returns the biggest error of the win, tie and lose percentages of all the players, based on the
+     * rounds added so far.
+     *
+     * @return the error, in percentage points. It's infinite if no rounds were added yet.
+     */
+    public double getError()
+    {
+        long totalRounds = rounds.sum();
+
+        if (totalRounds == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        double error = 0;
+        for (int i = 0; i < nrPlayers; i++) {
+            error = Math.max(error, getError((100.0 * wins[i].sum()) / totalRounds, totalRounds));
+            error = Math.max(error, getError((100.0 * ties[i].sum()) / totalRounds, totalRounds));
+            error = Math.max(error, getError((100.0 * loses[i].sum()) / totalRounds, totalRounds));
+        }
+
+        return error;
+    }
+
+    /**
+     * Returns the target error.
+     *
+     * @return the target error, in percentage points.
+     */
+    public double getTargetError()
+    {
+        return targetError;
+    }
+}
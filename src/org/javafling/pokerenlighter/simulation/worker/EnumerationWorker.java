@@ -0,0 +1,267 @@
+package org.javafling.pokerenlighter.simulation.worker;
+
+import java.util.List;
+import org.javafling.pokerenlighter.combination.Card;
+import org.javafling.pokerenlighter.combination.CardSet;
+import org.javafling.pokerenlighter.combination.Deck;
+import org.javafling.pokerenlighter.combination.LoEvaluator;
+import org.javafling.pokerenlighter.combination.LookupTableEvaluator;
+import org.javafling.pokerenlighter.combination.OmahaEvaluator;
+import org.javafling.pokerenlighter.simulation.HandType;
+import org.javafling.pokerenlighter.simulation.PlayerProfile;
+import org.javafling.pokerenlighter.simulation.PokerType;
+
+/**
+ * A worker that doesn't simulate random rounds, but goes through every possible way of completing the board
+ * exactly once. The result is therefore exact, not an approximation.
+ * <br /><br />
+ * This is possible only if all the players have exact cards. The number of rounds is the number of possible
+ * boards (see {@link #getNrOfBoards(List, Card[])}) and any value set with <code>setRounds</code> is ignored.
+ * Round <i>r</i> is the board with the rank <i>r</i> in the lexicographic order, so several workers that
+ * share a scheduler enumerate different boards. It works with all the game types.
+ *
+ * @author Radu Murzea
+ */
+public class EnumerationWorker extends SimulationWorker
+{
+    private GameDescriptor game;
+
+    //the state of a run, created by prepare() and reused by every batch
+    private Card[] available;
+    private int nrMissing;
+    private int[] missing;
+    private Card[] board;
+    private Card[][] hands;
+    private long[] holeMasks;
+    private int[] playerHands, playerHandsLo;
+
+    //the indexes (in the available cards) of the current combination, in increasing order
+    private int[] combination;
+
+    public static abstract class EnumerationBuilder<T extends EnumerationBuilder<T>> extends SimulationWorker.WorkerBuilder<T>
+    {
+        private PokerType gameType;
+
+        public T setGameType(PokerType gameType)
+        {
+            this.gameType = gameType;
+            return self();
+        }
+
+        public PokerType getGameType()
+        {
+            return gameType;
+        }
+
+        @Override
+        public EnumerationWorker build()
+        {
+            if (gameType == null) {
+                throw new IllegalStateException("The game type must be set");
+            } else if (super.getProfiles() == null || super.getProfiles().size() < 2) {
+                throw new IllegalStateException("There need to be at least 2 players in every simulation.");
+            } else if (super.getUpdateInterval() <= 0 || 100 % super.getUpdateInterval() != 0) {
+                throw new IllegalStateException("Invalid update interval value");
+            } else if (super.getNotifiable() == null) {
+                throw new IllegalStateException("There needs to be a notifiable for this worker");
+            }
+
+            for (PlayerProfile profile : super.getProfiles()) {
+                if (profile == null) {
+                    throw new NullPointerException();
+                }
+            }
+
+            long nrOfBoards = getNrOfBoards(super.getProfiles(), super.getCommunityCards());
+
+            if (nrOfBoards <= 0) {
+                throw new IllegalStateException("Only players with exact cards can be enumerated");
+            } else if (super.getScheduler() == null) {
+                super.setRounds((int) nrOfBoards);
+            } else if (super.getScheduler().getTotalRounds() != nrOfBoards) {
+                throw new IllegalStateException("The scheduler must have exactly one round for every board");
+            }
+
+            return new EnumerationWorker(this);
+        }
+    }
+
+    private static class Builder2 extends EnumerationBuilder<Builder2>
+    {
+        @Override
+        protected Builder2 self()
+        {
+            return this;
+        }
+    }
+
+    public static EnumerationBuilder<?> builder()
+    {
+        return new Builder2();
+    }
+
+    private EnumerationWorker(EnumerationBuilder<?> builder)
+    {
+        super(builder);
+
+        this.game = GameDescriptor.valueOf(builder.getGameType());
+    }
+
+    /**
+     * Computes how many different boards can complete the known community cards, given the players.
+     *
+     * @param profiles the players.
+     * @param communityCards the community cards (5 elements, the unknown ones are NULL).
+     *
+     * @return the number of possible boards or -1 if at least one player doesn't have exact cards
+     * (in which case the boards can't be enumerated).
+     */
+    public static long getNrOfBoards(List<PlayerProfile> profiles, Card[] communityCards)
+    {
+        long usedCards = CardSet.getMask(communityCards);
+
+        for (PlayerProfile profile : profiles) {
+            if (profile.getHandType() != HandType.EXACTCARDS) {
+                return -1;
+            }
+
+            usedCards |= CardSet.getMask(profile.getCards());
+        }
+
+        int available = 52 - CardSet.size(usedCards);
+        int missing = 5 - CardSet.size(CardSet.getMask(communityCards));
+
+        return getNrOfCombinations(available, missing);
+    }
+
+    //C(n, k), computed so that every intermediate result is an integer
+    private static long getNrOfCombinations(int n, int k)
+    {
+        if (k < 0 || k > n) {
+            return 0;
+        }
+
+        long result = 1;
+        for (int i = 1; i <= k; i++) {
+            result = result * (n - k + i) / i;
+        }
+
+        return result;
+    }
+
+    //finds the combination of k indexes out of n that has the specified rank in the lexicographic order
+    private static void unrankCombination(long rank, int n, int k, int[] combination)
+    {
+        int x = 0;
+
+        for (int j = 0; j < k; j++) {
+            //skip all the combinations that have a smaller index at position j
+            long count = getNrOfCombinations(n - x - 1, k - j - 1);
+            while (rank >= count) {
+                rank -= count;
+                x++;
+                count = getNrOfCombinations(n - x - 1, k - j - 1);
+            }
+
+            combination[j] = x++;
+        }
+    }
+
+    @Override
+    public PokerType getGameType()
+    {
+        return game.getGameType();
+    }
+
+    @Override
+    protected void prepare()
+    {
+        Deck deck = new Deck();
+
+        this.removeUsedCards(deck);
+
+        available = new Card[deck.getSize()];
+        for (int i = 0; i < available.length; i++) {
+            available[i] = deck.getCard(i);
+        }
+
+        //the positions of the community cards that have to be enumerated
+        nrMissing = 0;
+        missing = new int[5];
+        for (int i = 0; i < 5; i++) {
+            if (communityCards[i] == null) {
+                missing[nrMissing++] = i;
+            }
+        }
+
+        board = communityCards.clone();
+
+        //every player's hand is made of the player's cards followed by the board
+        hands = new Card[nrPlayers][];
+        holeMasks = new long[nrPlayers];
+
+        for (int i = 0; i < nrPlayers; i++) {
+            Card[] holeCards = profiles.get(i).getCards();
+
+            hands[i] = new Card[holeCards.length + 5];
+            System.arraycopy(holeCards, 0, hands[i], 0, holeCards.length);
+            holeMasks[i] = CardSet.getMask(holeCards);
+        }
+
+        playerHands = new int[nrPlayers];
+        playerHandsLo = new int[nrPlayers];
+
+        combination = new int[nrMissing];
+    }
+
+    @Override
+    protected void playRounds(int firstRound, int endRound)
+    {
+        unrankCombination(firstRound, available.length, nrMissing, combination);
+
+        for (int current_round = firstRound; current_round < endRound; current_round++) {
+            for (int j = 0; j < nrMissing; j++) {
+                board[missing[j]] = available[combination[j]];
+            }
+
+            if (game.getHiEvaluator() == GameDescriptor.HiEvaluator.LOOKUP_TABLE) {
+                long boardMask = CardSet.getMask(board);
+
+                for (int i = 0; i < nrPlayers; i++) {
+                    playerHands[i] = LookupTableEvaluator.evaluate(holeMasks[i] | boardMask);
+                }
+            } else {
+                for (int i = 0; i < nrPlayers; i++) {
+                    System.arraycopy(board, 0, hands[i], hands[i].length - 5, 5);
+
+                    playerHands[i] = OmahaEvaluator.evaluate(hands[i]);
+
+                    if (game.isHiLo()) {
+                        playerHandsLo[i] = LoEvaluator.evaluate(hands[i]);
+                    }
+                }
+            }
+
+            if (game.isHiLo()) {
+                recordRound(playerHands, playerHandsLo);
+            } else {
+                recordRound(playerHands);
+            }
+
+            //move to the next combination: find the rightmost index that can still be increased
+            int j = nrMissing - 1;
+            while (j >= 0 && combination[j] == available.length - nrMissing + j) {
+                j--;
+            }
+
+            if (j < 0) {
+                break;
+            }
+
+            combination[j]++;
+            for (int m = j + 1; m < nrMissing; m++) {
+                combination[m] = combination[m - 1] + 1;
+            }
+        }
+    }
+}
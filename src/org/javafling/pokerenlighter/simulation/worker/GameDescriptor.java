@@ -0,0 +1,109 @@
+package org.javafling.pokerenlighter.simulation.worker;
+
+import org.javafling.pokerenlighter.simulation.PokerType;
+
+/**
+ * Describes a game in the terms needed for playing its rounds: how many hole cards every player gets,
+ * how the Hi hands are evaluated and whether the pot is split with a Lo hand.
+ * <br /><br />
+ * Objects of this class are immutable.
+ *
+ * @author Radu Murzea
+ */
+public final class GameDescriptor
+{
+    /**
+     * The ways in which the Hi hands can be evaluated.
+     */
+    public static enum HiEvaluator
+    {
+        /**
+         * The best 5 of the 7 cards, evaluated with the tables of <code>LookupTableEvaluator</code>.
+         */
+        LOOKUP_TABLE,
+
+        /**
+         * The best 5 of the 7 cards, evaluated with a <code>TexasCombination</code> for every player.
+         */
+        COMBINATION,
+
+        /**
+         * Exactly 2 hole cards and exactly 3 community cards, evaluated with <code>OmahaEvaluator</code>.
+         */
+        OMAHA
+    }
+
+    public static final GameDescriptor TEXAS_HOLDEM = new GameDescriptor(PokerType.TEXAS_HOLDEM, 2, false, HiEvaluator.LOOKUP_TABLE);
+    public static final GameDescriptor OMAHA = new GameDescriptor(PokerType.OMAHA, 4, false, HiEvaluator.OMAHA);
+    public static final GameDescriptor OMAHA_HILO = new GameDescriptor(PokerType.OMAHA_HILO, 4, true, HiEvaluator.OMAHA);
+    public static final GameDescriptor FIVE_CARD_OMAHA = new GameDescriptor(PokerType.FOMAHA, 5, false, HiEvaluator.OMAHA);
+    public static final GameDescriptor FIVE_CARD_OMAHA_HILO = new GameDescriptor(PokerType.FOMAHA_HILO, 5, true, HiEvaluator.OMAHA);
+
+    private final PokerType gameType;
+    private final int holeCards;
+    private final boolean hiLo;
+    private final HiEvaluator hiEvaluator;
+
+    GameDescriptor(PokerType gameType, int holeCards, boolean hiLo, HiEvaluator hiEvaluator)
+    {
+        this.gameType = gameType;
+        this.holeCards = holeCards;
+        this.hiLo = hiLo;
+        this.hiEvaluator = hiEvaluator;
+    }
+
+    /**
+     * Returns the descriptor of a game type.
+     *
+     * @param gameType the game type.
+     *
+     * @return the descriptor. Texas Hold'em hands are evaluated with the lookup tables.
+     */
+    public static GameDescriptor valueOf(PokerType gameType)
+    {
+        switch (gameType) {
+            case TEXAS_HOLDEM:
+                return TEXAS_HOLDEM;
+            case OMAHA:
+                return OMAHA;
+            case OMAHA_HILO:
+                return OMAHA_HILO;
+            case FOMAHA:
+                return FIVE_CARD_OMAHA;
+            case FOMAHA_HILO:
+                return FIVE_CARD_OMAHA_HILO;
+            default:
+                throw new IllegalArgumentException("Unknown game type: " + gameType);
+        }
+    }
+
+    public PokerType getGameType()
+    {
+        return gameType;
+    }
+
+    /**
+     * Returns the number of cards that every player gets.
+     *
+     * @return the number of hole cards.
+     */
+    public int getHoleCards()
+    {
+        return holeCards;
+    }
+
+    /**
+     * Tells if the pot is split between the best Hi hand and the best Lo hand.
+     *
+     * @return true for a Hi/Lo game, false otherwise.
+     */
+    public boolean isHiLo()
+    {
+        return hiLo;
+    }
+
+    public HiEvaluator getHiEvaluator()
+    {
+        return hiEvaluator;
+    }
+}
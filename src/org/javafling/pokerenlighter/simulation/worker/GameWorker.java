@@ -0,0 +1,324 @@
+package org.javafling.pokerenlighter.simulation.worker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import org.javafling.pokerenlighter.combination.Card;
+import org.javafling.pokerenlighter.combination.CardSet;
+import org.javafling.pokerenlighter.combination.Deck;
+import org.javafling.pokerenlighter.combination.HighQualityRandomGenerator;
+import org.javafling.pokerenlighter.combination.LoEvaluator;
+import org.javafling.pokerenlighter.combination.LookupTableEvaluator;
+import org.javafling.pokerenlighter.combination.OmahaEvaluator;
+import org.javafling.pokerenlighter.combination.TexasCombination;
+import org.javafling.pokerenlighter.simulation.HandType;
+import org.javafling.pokerenlighter.simulation.PokerType;
+
+/**
+ * A worker that plays random rounds of the game described by a {@link GameDescriptor}. All the games
+ * are played by the same code, the game only decides how many hole cards are dealt and how the hands
+ * are evaluated.
+ * <br /><br />
+ * Everything a round needs is created before the first batch, in primitive arrays and arrays of
+ * <code>Card</code> flyweights, so playing the rounds doesn't allocate anything.
+ *
+ * @author Radu Murzea
+ */
+public abstract class GameWorker extends SimulationWorker
+{
+    private final GameDescriptor game;
+
+    //the state of a run, created by prepare() and reused by every batch
+    private Deck deck;
+    private HighQualityRandomGenerator rand;
+    private int holeCards;
+    private Card[][] playerCards;
+    private long[] playerMasks;
+    private long knownBoard;
+    private long[][] rangeHands;
+    private boolean hasRanges;
+    private TexasCombination[] playerCombinations;
+    private int[] playerHands, playerHandsLo;
+    private Card[] board;
+    private Card[] currentHand;
+    private int dealtCards, nextCard;
+    private Card[] dealt;
+
+    protected GameWorker(WorkerBuilder<?> builder, GameDescriptor game)
+    {
+        super(builder);
+
+        this.game = game;
+    }
+
+    public GameDescriptor getGame()
+    {
+        return game;
+    }
+
+    @Override
+    public PokerType getGameType()
+    {
+        return game.getGameType();
+    }
+
+    @Override
+    protected void prepare()
+    {
+        //the deck and the ranges use the same generator
+        rand = (seed != null) ? new HighQualityRandomGenerator(seed) : new HighQualityRandomGenerator();
+        deck = new Deck(rand);
+
+        this.removeUsedCards(deck);
+
+        holeCards = game.getHoleCards();
+        playerCards = new Card[nrPlayers][];
+        playerMasks = new long[nrPlayers];
+
+        for (int i = 0; i < nrPlayers; i++) {
+            if (profiles.get(i).getHandType() == HandType.EXACTCARDS) {
+                playerCards[i] = profiles.get(i).getCards();
+                playerMasks[i] = CardSet.getMask(playerCards[i]);
+            }
+        }
+
+        //the community cards that are already known. the others are dealt in every round
+        knownBoard = CardSet.getMask(communityCards);
+        board = communityCards.clone();
+
+        //the hands that every player with a range can have, as sets of 2 cards. they are computed only
+        //once, so that a hand can be picked directly from them in every round, no matter how narrow the
+        //range is. a range is made of 2-card hands, so in the other games these players get random cards
+        rangeHands = new long[nrPlayers][];
+
+        if (holeCards == 2) {
+            long deadCards = getUsedCards();
+
+            for (int i = 0; i < nrPlayers; i++) {
+                if (profiles.get(i).getHandType() == HandType.RANGE) {
+                    rangeHands[i] = profiles.get(i).getRange().getHands(deadCards);
+                    hasRanges = true;
+                }
+            }
+
+            //otherwise pickRangeHands would never find hands without common cards
+            if (hasRanges && ! canPickHands(getPickingOrder(rangeHands), 0, CardSet.EMPTY)) {
+                throw new IllegalArgumentException("The ranges of the players can't be dealt together: they don't have enough hands without common cards, after removing the known cards");
+            }
+        }
+
+        if (game.getHiEvaluator() == GameDescriptor.HiEvaluator.COMBINATION) {
+            playerCombinations = new TexasCombination[nrPlayers];
+        }
+
+        playerHands = new int[nrPlayers];
+        playerHandsLo = new int[nrPlayers];
+        currentHand = new Card[holeCards + 5];
+
+        //only the unknown cards are dealt in every round: the cards of the players without exact cards
+        //and the missing community cards. burning cards like at a real table wouldn't change the odds
+        dealtCards = 0;
+
+        for (int i = 0; i < nrPlayers; i++) {
+            if (playerCards[i] == null) {
+                dealtCards += holeCards;
+            }
+        }
+
+        for (int k = 0; k < 5; k++) {
+            if (communityCards[k] == null) {
+                dealtCards++;
+            }
+        }
+
+        //card c of player i is at position c * nrPlayers + i
+        dealt = new Card[holeCards * nrPlayers];
+    }
+
+    @Override
+    protected void playRounds(int firstRound, int endRound)
+    {
+        //a seeded simulation gives every batch its own stream of random numbers and a sorted deck, so
+        //the rounds of a batch are the same no matter which worker plays them
+        if (seed != null) {
+            rand.setSeed(HighQualityRandomGenerator.getStreamSeed(seed, firstRound));
+            deck.sort();
+        }
+
+        for (int current_round = firstRound; current_round < endRound; current_round++) {
+            long rangeCards = hasRanges ? pickRangeHands() : CardSet.EMPTY;
+
+            dealCards(rangeCards);
+
+            if (game.getHiEvaluator() == GameDescriptor.HiEvaluator.LOOKUP_TABLE) {
+                evaluateMasks();
+            } else {
+                evaluateCards();
+            }
+
+            if (game.isHiLo()) {
+                recordRound(playerHands, playerHandsLo);
+            } else {
+                recordRound(playerHands);
+            }
+        }
+    }
+
+    //picks a hand for every player with a range and returns the cards of all these hands. if two of them
+    //have a common card, all of them are picked again, which keeps every valid combination of hands
+    //equally likely. prepare() made sure that there is a valid combination
+    private long pickRangeHands()
+    {
+        long rangeCards;
+        boolean conflict;
+
+        do {
+            rangeCards = CardSet.EMPTY;
+            conflict = false;
+
+            for (int i = 0; i < nrPlayers && ! conflict; i++) {
+                if (rangeHands[i] != null) {
+                    long hand = rangeHands[i][rand.nextBoundedInt(rangeHands[i].length)];
+
+                    conflict = (rangeCards & hand) != 0;
+                    rangeCards |= hand;
+
+                    dealt[i] = Card.valueOf(Long.numberOfTrailingZeros(hand));
+                    dealt[i + nrPlayers] = Card.valueOf(63 - Long.numberOfLeadingZeros(hand));
+                }
+            }
+        } while (conflict);
+
+        return rangeCards;
+    }
+
+    //the hands of the players with a range, the players with the fewest hands first, since they have
+    //the fewest choices
+    private static long[][] getPickingOrder(long[][] rangeHands)
+    {
+        List<long[]> ranges = new ArrayList<>();
+
+        for (long[] hands : rangeHands) {
+            if (hands != null) {
+                ranges.add(hands);
+            }
+        }
+
+        Collections.sort(ranges, new Comparator<long[]>()
+        {
+            @Override
+            public int compare(long[] first, long[] second)
+            {
+                return Integer.compare(first.length, second.length);
+            }
+        });
+
+        return ranges.toArray(new long[ranges.size()][]);
+    }
+
+    //tells if the players from the specified one on can get hands from their ranges that have no common
+    //card with each other or with the used cards
+    private static boolean canPickHands(long[][] ranges, int player, long usedCards)
+    {
+        if (player == ranges.length) {
+            return true;
+        }
+
+        for (long hand : ranges[player]) {
+            if ((hand & usedCards) == 0 && canPickHands(ranges, player + 1, usedCards | hand)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    //deals the cards of the players with random cards and the unknown community cards. the cards given
+    //to the ranges are skipped; a range player needs no cards from the deck and the deck contains at
+    //most 2 of its cards, so dealing dealtCards cards is enough
+    private void dealCards(long rangeCards)
+    {
+        deck.deal(dealtCards);
+        nextCard = 0;
+
+        for (int k = 0; k < dealt.length; k++) {
+            int player = k % nrPlayers;
+
+            if (playerCards[player] == null && rangeHands[player] == null) {
+                dealt[k] = takeCard(rangeCards);
+            }
+        }
+
+        for (int k = 0; k < 5; k++) {
+            if (communityCards[k] == null) {
+                board[k] = takeCard(rangeCards);
+            }
+        }
+    }
+
+    //takes the next dealt card that doesn't belong to a range hand
+    private Card takeCard(long rangeCards)
+    {
+        Card card = deck.getCard(nextCard++);
+
+        while (CardSet.contains(rangeCards, card)) {
+            card = deck.getCard(nextCard++);
+        }
+
+        return card;
+    }
+
+    //evaluates the Hi hands as sets of cards, the board being built only once per round
+    private void evaluateMasks()
+    {
+        long boardMask = knownBoard;
+
+        for (int k = 0; k < 5; k++) {
+            if (communityCards[k] == null) {
+                boardMask |= CardSet.getMask(board[k]);
+            }
+        }
+
+        for (int i = 0; i < nrPlayers; i++) {
+            long hole = playerMasks[i];
+
+            if (playerCards[i] == null) {
+                for (int c = 0; c < holeCards; c++) {
+                    hole |= CardSet.getMask(dealt[c * nrPlayers + i]);
+                }
+            }
+
+            playerHands[i] = LookupTableEvaluator.evaluate(hole | boardMask);
+        }
+    }
+
+    //evaluates the hands from their hole cards followed by the board. the whole hand is copied
+    //every time, since a TexasCombination reorders the cards it gets
+    private void evaluateCards()
+    {
+        for (int i = 0; i < nrPlayers; i++) {
+            for (int c = 0; c < holeCards; c++) {
+                currentHand[c] = (playerCards[i] != null) ? playerCards[i][c] : dealt[c * nrPlayers + i];
+            }
+
+            System.arraycopy(board, 0, currentHand, holeCards, 5);
+
+            if (game.getHiEvaluator() == GameDescriptor.HiEvaluator.COMBINATION) {
+                if (playerCombinations[i] == null) {
+                    playerCombinations[i] = new TexasCombination(currentHand);
+                } else {
+                    playerCombinations[i].setCards(currentHand);
+                }
+
+                playerHands[i] = playerCombinations[i].getCombinationRank();
+            } else {
+                playerHands[i] = OmahaEvaluator.evaluate(currentHand);
+            }
+
+            if (game.isHiLo()) {
+                playerHandsLo[i] = LoEvaluator.evaluate(currentHand);
+            }
+        }
+    }
+}
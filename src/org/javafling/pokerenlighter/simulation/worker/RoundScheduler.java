@@ -0,0 +1,221 @@
+package org.javafling.pokerenlighter.simulation.worker;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hands out the rounds of a simulation to the workers, in small batches.
+ * <br /><br />
+ * The rounds are numbered from 0 to <code>totalRounds - 1</code>. Every worker repeatedly takes the next
+ * batch of rounds until there are none left, so a worker that is faster (or that gets more CPU time)
+ * simply plays more batches. No worker has to wait for a slower one at the end of the simulation and the
+ * total number of rounds played is exactly the requested one.
+ * <br /><br />
+ * This class is thread-safe.
+ *
+ * @author Radu Murzea
+ */
+public final class RoundScheduler
+{
+    /**
+     * The number of batches that every thread should get, on average.
+     */
+    public static final int BATCHES_PER_THREAD = 64;
+
+    /**
+     * The maximum size of a batch.
+     */
+    public static final int MAX_BATCH_SIZE = 10000;
+
+    /**
+     * The number of batches of a scheduler created with {@link #RoundScheduler(int)}, unless they would
+     * be bigger than {@link #MAX_BATCH_SIZE}.
+     */
+    public static final int FIXED_NR_OF_BATCHES = 1024;
+
+    private final int totalRounds;
+    private final int batchSize;
+
+    //the first round that wasn't handed out yet. once the scheduler is stopped, it's -1 - (the number of
+    //rounds that were handed out): the stop and the hand-outs change the same value, so a batch can't be
+    //handed out after the stop and the number of rounds handed out before it is known exactly
+    private final AtomicInteger nextRound = new AtomicInteger();
+
+    //the number of rounds that were played completely. every worker adds to it after each batch, so it's
+    //a LongAdder: the workers don't compete for a single value
+    private final LongAdder finishedRounds = new LongAdder();
+
+    /**
+     * Creates a scheduler with a batch size that suits the specified number of threads
+     * (see {@link #getBatchSize(int, int)}).
+     *
+     * @param totalRounds the total number of rounds.
+     * @param nrOfThreads the number of threads that will play the rounds.
+     *
+     * @throws IllegalArgumentException if any of the parameters is not strictly positive.
+     */
+    public RoundScheduler(int totalRounds, int nrOfThreads)
+    {
+        if (totalRounds <= 0) {
+            throw new IllegalArgumentException("The number of rounds must be a strictly positive number");
+        } else if (nrOfThreads <= 0) {
+            throw new IllegalArgumentException("The number of threads must be a strictly positive number");
+        }
+
+        this.totalRounds = totalRounds;
+        this.batchSize = getBatchSize(totalRounds, nrOfThreads);
+    }
+
+    /**
+     * Creates a scheduler with a batch size that depends only on the number of rounds, so the batches
+     * are the same for any number of threads. This is needed by the simulations that must be reproducible.
+     *
+     * @param totalRounds the total number of rounds.
+     *
+     * @throws IllegalArgumentException if the number of rounds is not strictly positive.
+     */
+    public RoundScheduler(int totalRounds)
+    {
+        if (totalRounds <= 0) {
+            throw new IllegalArgumentException("The number of rounds must be a strictly positive number");
+        }
+
+        this.totalRounds = totalRounds;
+        this.batchSize = Math.max(1, Math.min(MAX_BATCH_SIZE, totalRounds / FIXED_NR_OF_BATCHES));
+    }
+
+    /**
+     * Computes a batch size that gives every thread about {@link #BATCHES_PER_THREAD} batches. Smaller
+     * batches balance the work better, bigger ones need less synchronization.
+     *
+     * @param totalRounds the total number of rounds.
+     * @param nrOfThreads the number of threads that will play the rounds.
+     *
+     * @return the batch size, between 1 and {@link #MAX_BATCH_SIZE}.
+     */
+    public static int getBatchSize(int totalRounds, int nrOfThreads)
+    {
+        long batches = (long) nrOfThreads * BATCHES_PER_THREAD;
+
+        return (int) Math.max(1, Math.min(MAX_BATCH_SIZE, totalRounds / batches));
+    }
+
+    /**
+     * Takes the next batch of rounds.
+     *
+     * @return the first round of the batch or -1 if all the rounds were already handed out or the
+     * scheduler was stopped. The batch ends before the round returned by {@link #getBatchEnd(int)}.
+     */
+    public int nextBatch()
+    {
+        int start;
+
+        do {
+            start = nextRound.get();
+
+            if (start < 0 || start >= totalRounds) {
+                return -1;
+            }
+        } while (! nextRound.compareAndSet(start, getBatchEnd(start)));
+
+        return start;
+    }
+
+    /**
+     * Returns the end of the batch that begins with the specified round.
+     *
+     * @param batchStart the first round of the batch, as returned by {@link #nextBatch()}.
+     *
+     * @return the round right after the last round of the batch.
+     */
+    public int getBatchEnd(int batchStart)
+    {
+        return (int) Math.min((long) batchStart + batchSize, totalRounds);
+    }
+
+    /**
+     * Stops handing out batches. The batches that were already handed out are still played.
+     */
+    public void stop()
+    {
+        int next;
+
+        do {
+            next = nextRound.get();
+
+            //already stopped or all the rounds were handed out
+            if (next < 0 || next >= totalRounds) {
+                return;
+            }
+        } while (! nextRound.compareAndSet(next, -1 - next));
+    }
+
+    /**
+     * Tells if all the rounds that will ever be handed out were played completely. This is the case
+     * when all the rounds were played or when the scheduler was stopped and the batches that were
+     * handed out before that were played.
+     *
+     * @return true if all the rounds were played, false otherwise.
+     */
+    public boolean isFinished()
+    {
+        int next = nextRound.get();
+
+        if (next < 0) {
+            return getFinishedRounds() == -1 - next;
+        }
+
+        return next == totalRounds && getFinishedRounds() == totalRounds;
+    }
+
+    /**
+     * Records that some rounds were played completely.
+     *
+     * @param rounds the number of rounds.
+     */
+    public void finishRounds(int rounds)
+    {
+        finishedRounds.add(rounds);
+    }
+
+    /**
+     * Returns the number of rounds that were played completely. While other threads finish rounds, the
+     * value can miss some of them, but it never decreases.
+     *
+     * @return the number of rounds.
+     */
+    public int getFinishedRounds()
+    {
+        return (int) finishedRounds.sum();
+    }
+
+    /**
+     * Returns the total number of rounds.
+     *
+     * @return the total number of rounds.
+     */
+    public int getTotalRounds()
+    {
+        return totalRounds;
+    }
+
+    /**
+     * Returns the number of rounds in a batch (the last batch can be smaller).
+     *
+     * @return the batch size.
+     */
+    public int getBatchSize()
+    {
+        return batchSize;
+    }
+
+    /**
+     * Returns the percentage of rounds that were played completely.
+     *
+     * @return the progress, between 0 and 100.
+     */
+    public int getProgress()
+    {
+        return (int) ((getFinishedRounds() * 100L) / totalRounds);
+    }
+}
@@ -2,7 +2,9 @@ package org.javafling.pokerenlighter.simulation.worker;
 
 import java.util.ArrayList;
 import org.javafling.pokerenlighter.combination.Card;
+import org.javafling.pokerenlighter.combination.CardSet;
 import org.javafling.pokerenlighter.combination.Deck;
+import org.javafling.pokerenlighter.combination.LoEvaluator;
 import org.javafling.pokerenlighter.simulation.HandType;
 import org.javafling.pokerenlighter.simulation.PlayerProfile;
 import org.javafling.pokerenlighter.simulation.PokerType;
@@ -27,11 +29,23 @@ public abstract class SimulationWorker implements Runnable
     
     //simulation data
     protected ArrayList<PlayerProfile> profiles;
+    protected RoundScheduler scheduler;
+    protected ConvergenceMonitor convergenceMonitor;
+    
+    //the master seed of the random numbers, NULL if they are not reproducible
+    protected Long seed;
+    
+    //the wins, ties and loses that were already added to the convergence monitor and the ones of the
+    //last batch
+    private int[] addedWins, addedTies, addedLoses;
+    private int[] batchWins, batchTies, batchLoses;
+    
+    //the number of rounds played by this worker
     protected int rounds;
     
     //other properties necessary for operations
     protected int updateInterval;
-    protected int progress;
+    protected volatile int progress;
     
     public static abstract class WorkerBuilder<T extends WorkerBuilder<T>>
     {
@@ -40,6 +54,9 @@ public abstract class SimulationWorker implements Runnable
         private ArrayList<PlayerProfile> profiles;
         private int rounds;
         private int updateInterval;
+        private RoundScheduler scheduler;
+        private ConvergenceMonitor convergenceMonitor;
+        private Long seed;
         
         protected abstract T self();
         public abstract SimulationWorker build();
@@ -50,6 +67,50 @@ public abstract class SimulationWorker implements Runnable
             return self();
         }
         
+        /**
+         * Sets the scheduler from which the worker takes its rounds. Several workers can share the same
+         * scheduler, in which case they play the rounds together. If no scheduler is set, the worker
+         * plays the number of rounds set with <code>setRounds</code> by itself.
+         * 
+         * @param scheduler the scheduler.
+         * 
+         * @return this builder.
+         */
+        public T setScheduler(RoundScheduler scheduler)
+        {
+            this.scheduler = scheduler;
+            return self();
+        }
+        
+        /**
+         * Sets the monitor to which the worker adds the results of every batch. When the monitor says that
+         * the target error was reached, the worker stops the scheduler, so that all the workers finish after
+         * their current batches. If no monitor is set, all the rounds of the scheduler are played.
+         * 
+         * @param convergenceMonitor the monitor.
+         * 
+         * @return this builder.
+         */
+        public T setConvergenceMonitor(ConvergenceMonitor convergenceMonitor)
+        {
+            this.convergenceMonitor = convergenceMonitor;
+            return self();
+        }
+        
+        /**
+         * Sets the master seed from which the worker derives its random numbers. The rounds played with
+         * the same seed are the same, no matter which of the workers that share a scheduler plays them.
+         * 
+         * @param seed the master seed or NULL for random numbers that can't be reproduced (the default).
+         * 
+         * @return this builder.
+         */
+        public T setSeed(Long seed)
+        {
+            this.seed = seed;
+            return self();
+        }
+        
         public T setCommunityCards(Card[] cards)
         {
             this.communityCards = cards;
@@ -103,6 +164,21 @@ public abstract class SimulationWorker implements Runnable
         {
             return updateInterval;
         }
+        
+        public RoundScheduler getScheduler()
+        {
+            return scheduler;
+        }
+        
+        public ConvergenceMonitor getConvergenceMonitor()
+        {
+            return convergenceMonitor;
+        }
+        
+        public Long getSeed()
+        {
+            return seed;
+        }
     }
         
     protected SimulationWorker(WorkerBuilder<?> builder)
@@ -110,7 +186,11 @@ public abstract class SimulationWorker implements Runnable
         this.communityCards = builder.getCommunityCards();
         this.notifiable = builder.getNotifiable();
         this.profiles = builder.getProfiles();
-        this.rounds = builder.getRounds();
+        this.scheduler = (builder.getScheduler() != null)
+                         ? builder.getScheduler()
+                         : new RoundScheduler(builder.getRounds(), 1);
+        this.convergenceMonitor = builder.getConvergenceMonitor();
+        this.seed = builder.getSeed();
         this.updateInterval = builder.getUpdateInterval();
         this.nrPlayers = builder.getProfiles().size();
     }
@@ -120,21 +200,93 @@ public abstract class SimulationWorker implements Runnable
         return progress;
     }
     
+    /**
+     * Plays batches of rounds until the scheduler has no more of them, then notifies that the
+     * worker is done. If the thread is interrupted, the worker stops without notifying anything.
+     * An exception thrown while playing is given to the notifiable as an error event, since it
+     * would otherwise be lost in the executor that runs the worker.
+     */
     @Override
     public void run()
     {
-        wins = new int[nrPlayers];
-        loses = new int[nrPlayers];
-        ties = new int[nrPlayers];
+        try {
+            while (! Thread.currentThread().isInterrupted() && playBatch()) {
+                //the batches are played one after the other, on this thread
+            }
+            
+            if (! Thread.currentThread().isInterrupted()) {
+                finish();
+            }
+        } catch (RuntimeException ex) {
+            this.notifiable.onSimulationError(new WorkerEvent(WorkerEvent.EVENT_SIMWORKER_ERROR, ex));
+        }
+    }
+    
+    /**
+     * Takes the next batch of rounds from the scheduler and plays it. This allows an executor to play
+     * the rounds of a worker one batch at a time, interleaved with other work. The batches of a worker
+     * must be played one after the other (never at the same time), but they can be played on different
+     * threads, as long as the executor ensures the visibility of the worker's state between them.
+     * 
+     * @return true if a batch was played, false if the scheduler has no more rounds.
+     */
+    public boolean playBatch()
+    {
+        if (wins == null) {
+            wins = new int[nrPlayers];
+            loses = new int[nrPlayers];
+            ties = new int[nrPlayers];
+            
+            addedWins = new int[nrPlayers];
+            addedLoses = new int[nrPlayers];
+            addedTies = new int[nrPlayers];
+            batchWins = new int[nrPlayers];
+            batchLoses = new int[nrPlayers];
+            batchTies = new int[nrPlayers];
+            
+            prepare();
+        }
         
-        for (int i = 0; i < nrPlayers; i++) {
-            wins[i] = loses[i] = ties[i] = 0;
+        int batch = scheduler.nextBatch();
+        
+        if (batch < 0) {
+            return false;
         }
         
-        doRun();
+        int batchEnd = scheduler.getBatchEnd(batch);
+        
+        playRounds(batch, batchEnd);
+        finishBatch(batchEnd - batch);
+        
+        return true;
     }
     
-    public abstract void doRun();
+    /**
+     * Builds the result of this worker and notifies that the worker is done. It must be called once,
+     * after <code>playBatch</code> returned false.
+     */
+    public void finish()
+    {
+        this.progress = 100;
+        this.buildWorkerResult();
+        WorkerEvent event = new WorkerEvent(WorkerEvent.EVENT_SIMWORKER_DONE, this.simResult);
+        this.notifiable.onSimulationDone(event);
+    }
+    
+    /**
+     * Creates everything the worker needs for playing its rounds (deck, buffers etc.). It is called
+     * only once, before the first batch.
+     */
+    protected abstract void prepare();
+    
+    /**
+     * Plays the rounds with the numbers from <code>firstRound</code> (inclusive) to <code>endRound</code>
+     * (exclusive) and records their results.
+     * 
+     * @param firstRound the first round.
+     * @param endRound the round right after the last round.
+     */
+    protected abstract void playRounds(int firstRound, int endRound);
     
     public abstract PokerType getGameType();
     
@@ -143,209 +295,139 @@ public abstract class SimulationWorker implements Runnable
         return this.simResult;
     }
     
-    //checks if the the element "nr" is found in the array "arr"
-    protected boolean contains (int[] arr, int nr) {
-        for (int i = 0; i < arr.length; ++i) {
-            if (arr[i] == nr) {
-                return true;
-            }
-        }
-
-        return false;
+    protected void removeUsedCards(Deck deck)
+    {
+        deck.removeCards(getUsedCards());
     }
     
-    protected void removeUsedCards(Deck deck)
+    //returns the set of cards that are already known: the exact cards of the players and the community cards
+    protected long getUsedCards()
     {
+        long usedCards = CardSet.getMask(this.communityCards);
+        
         for (PlayerProfile profile : this.profiles) {
-            if (profile.getHandType () == HandType.EXACTCARDS) {
-                Card[] pcards = profile.getCards();
-                
-                for (Card pcard : pcards) {
-                    deck.removeCard(pcard);
-                }
+            if (profile.getHandType() == HandType.EXACTCARDS) {
+                usedCards |= CardSet.getMask(profile.getCards());
             }
         }
         
-        for (Card communityCard : this.communityCards) {
-            if (communityCard != null) {
-                deck.removeCard(communityCard);
-            }
-        }
+        return usedCards;
     }
     
-    protected void buildWorkerResult()
+    //records that this worker finished a batch of rounds and notifies the progress of the whole
+    //simulation every time it reaches a new multiple of the update interval
+    protected void finishBatch(int batchRounds)
     {
-        double[] winP = new double[this.nrPlayers];
-        double[] losesP = new double[this.nrPlayers];
-        double[] tiesP = new double [this.nrPlayers];
-
-        for (int i = 0; i < this.nrPlayers; i++) {
-            winP[i] = (100.0 * this.wins[i]) / this.rounds;
-            losesP[i] = (100.0 * this.loses[i]) / this.rounds;
-            tiesP[i] = (100.0 * this.ties[i]) / this.rounds;
+        this.rounds += batchRounds;
+        
+        if (convergenceMonitor != null && addToConvergenceMonitor(batchRounds)) {
+            scheduler.stop();
+        }
+        
+        scheduler.finishRounds(batchRounds);
+        
+        //when other workers finish batches at the same time, an event can be sent twice or skipped
+        int finished = scheduler.getFinishedRounds();
+        int total = scheduler.getTotalRounds();
+        
+        int before = (int) (((finished - batchRounds) * 100L) / total);
+        int after = (int) ((finished * 100L) / total);
+        
+        if (after < 100 && after / updateInterval != before / updateInterval) {
+            this.progress = after;
+            WorkerEvent event = new WorkerEvent(WorkerEvent.EVENT_SIMWORKER_PROGRESS, this.progress);
+            this.notifiable.onSimulationProgress(event);
         }
-
-        this.simResult = new SimulationWorkerResult(winP, tiesP, losesP);
     }
     
-    // Handles the situation where 2 (or more) players have the same rank in a hand (for
-    // example: 3 players have three of a kind).
-    //
-    // The parameter hands array of strings containing the combinations to compare. The first character
-    // should be the rank of the combination.
-    //
-    // Returns array of integers representing the IDs of the winning hands. For example: if the
-    // parameter contains 6 hands and it is determined that the first and last hand are winners,
-    // then the returning array will contain 0 and 5 (in this order) (0-based index).
-    protected int[] getWinners(String[] hands)
+    //adds the results of the last batch to the convergence monitor and tells if the target error was reached
+    private boolean addToConvergenceMonitor(int batchRounds)
     {
-        int j, k, compare_result, nr_winners = this.nrPlayers;
-        boolean[] eliminated = new boolean[this.nrPlayers];
-        int[] winners;
-
-        for (j = 0; j < this.nrPlayers; ++j) {
-            eliminated[j] = false;
-        }
-
-        for (j = 0; j < this.nrPlayers - 1; ++j) {
-            for (k = j + 1; k < this.nrPlayers; ++k) {
-                if (! eliminated[j] && ! eliminated[k]) {
-                    compare_result = compareHands(hands[j], hands[k]);
-
-                    if (compare_result == 1) {
-                        eliminated[k] = true;
-                        nr_winners--;
-                    } else if (compare_result == 2) {
-                        eliminated[j] = true;
-                        nr_winners--;
-                    }
-                }
-            }
-        }
-
-        winners = new int[nr_winners];
-        k = 0;
-
-        for (j = 0; j < this.nrPlayers; ++j) {
-            if (! eliminated[j]) {
-                winners[k++] = j;
-            }
+        for (int i = 0; i < nrPlayers; i++) {
+            batchWins[i] = wins[i] - addedWins[i];
+            batchTies[i] = ties[i] - addedTies[i];
+            batchLoses[i] = loses[i] - addedLoses[i];
+            
+            addedWins[i] = wins[i];
+            addedTies[i] = ties[i];
+            addedLoses[i] = loses[i];
         }
-
-        return winners;
+        
+        return convergenceMonitor.addRounds(batchRounds, batchWins, batchTies, batchLoses);
     }
     
-    protected int[] getWinnersLo(String[] hands)
+    protected void buildWorkerResult()
     {
-        int i;
-        boolean lohands = false;
-
-        for (i = 0; i < this.nrPlayers; ++i) {
-            if (! hands[i].equals("0")) {
-                lohands = true;
-                break;
-            }
-        }
-
-        if (! lohands) {
-            int[] winners = new int[1];
-            winners[0] = -1;
-            return winners;
-        }
-
-        boolean[] eliminated = new boolean[this.nrPlayers];
-
-        int j, compare_result, nr_winners;
-
-        for (i = 0; i < this.nrPlayers; ++i) {
-            eliminated[i] = false;
-        }
-
-        nr_winners = this.nrPlayers;
-
-        for (i = 0; i < this.nrPlayers - 1; ++i) {
-            for (j = i + 1; j < this.nrPlayers; ++j) {
-                if (! eliminated[i] && ! eliminated[j]) {
-                    compare_result = compareHandsLo(hands[i], hands[j]);
-
-                    if (compare_result == 1) {
-                        eliminated[j] = true;
-                        --nr_winners;
-                    } else if (compare_result == 2) {
-                        eliminated[i] = true;
-                        --nr_winners;
-                    }
-                }
-            }
-        }
-
-        int[] winners = new int[nr_winners];
-        j = 0;
-
-        for (i = 0; i < this.nrPlayers; ++i) {
-            if (! eliminated[i]) {
-                winners[j] = i;
-                ++j;
+        this.simResult = new SimulationWorkerResult(this.wins.clone(), this.ties.clone(), this.loses.clone(), this.rounds);
+    }
+    
+    //records the result of a round without a Lo part: the player with the best hand wins, the players
+    //that share the best hand tie and the others lose. "hands" contains the hand ranks (see HandRank)
+    //of the players; a bigger hand rank is a better hand
+    protected final void recordRound(int[] hands)
+    {
+        int best = getBest(hands);
+        int nrBest = count(hands, best);
+        
+        for (int i = 0; i < this.nrPlayers; i++) {
+            if (hands[i] != best) {
+                this.loses[i]++;
+            } else if (nrBest == 1) {
+                this.wins[i]++;
+            } else {
+                this.ties[i]++;
             }
         }
-
-        return winners;
     }
     
-    // Compares two combinations.
-    //
-    // parameter hand1 = The first combination.
-    // parameter hand2  = The second combination.
-    //
-    // returns 1 if the combination hand1 is better, 2 if hand2 is better, 0 if they are equal.
-    private int compareHands(String hand1, String hand2)
+    //records the result of a Hi/Lo round: a player wins by winning at least one of the 2 parts alone,
+    //ties by sharing at least one of them and loses otherwise. "handsLo" contains the Lo values (see
+    //LoEvaluator) of the players; LoEvaluator.NO_LO means that the player has no Lo hand
+    protected final void recordRound(int[] hands, int[] handsLo)
     {
-        int r1 = (int) (hand1.charAt(0)) - 48, r2 = (int) (hand2.charAt(0)) - 48;
-
-        //compare ranks
-        //if one is bigger than the other, it's done
-        if (r1 > r2) {
-            return 1;
-        } else if (r2 > r1) {
-            return 2;
-        }
-
-        //check for royal flushes
-        if (r1 == 9) {
-            return (r2 == 9) ? 0 : 1;
-        } else if (r2 == 9) {
-            return 2;
-        }
-
-        int hand_length = hand1.length() - 1;
-
-        for (int i = 1; i <= hand_length; ++i) {
-            if (Card.getRank(hand1.charAt(i)) > Card.getRank(hand2.charAt(i))) {
-                return 1;
-            } else if (Card.getRank(hand1.charAt(i)) < Card.getRank(hand2.charAt(i))) {
-                return 2;
+        int best = getBest(hands);
+        int nrBest = count(hands, best);
+        
+        int bestLo = getBest(handsLo);
+        int nrBestLo = (bestLo == LoEvaluator.NO_LO) ? 0 : count(handsLo, bestLo);
+        
+        for (int i = 0; i < this.nrPlayers; i++) {
+            boolean hiWinner = (hands[i] == best);
+            boolean loWinner = (nrBestLo > 0 && handsLo[i] == bestLo);
+            
+            if ((hiWinner && nrBest == 1) || (loWinner && nrBestLo == 1)) {
+                this.wins[i]++;
+            } else if (hiWinner || loWinner) {
+                this.ties[i]++;
+            } else {
+                this.loses[i]++;
             }
         }
-
-        return 0;
     }
-
-    private int compareHandsLo(String hand1, String hand2)
+    
+    //returns the biggest of the players' values
+    private int getBest(int[] values)
     {
-        if (hand1.equals("0")) {
-            return hand2.equals("0") ? 0 : 2;
-        } else if (hand2.equals("0")) {
-            return 1;
+        int best = values[0];
+        
+        for (int i = 1; i < this.nrPlayers; i++) {
+            best = Math.max(best, values[i]);
         }
         
-        for (int i = 0; i < 5; i++) {
-            if (Card.getRank(hand1.charAt(i)) > Card.getRank(hand2.charAt(i))) {
-                return 2;
-            } else if (Card.getRank(hand2.charAt(i)) > Card.getRank(hand1.charAt(i))) {
-                return 1;
+        return best;
+    }
+    
+    //returns how many players have the specified value
+    private int count(int[] values, int value)
+    {
+        int nr = 0;
+        
+        for (int i = 0; i < this.nrPlayers; i++) {
+            if (values[i] == value) {
+                nr++;
             }
         }
-
-        return 0;
+        
+        return nr;
     }
 }
@@ -6,38 +6,73 @@ package org.javafling.pokerenlighter.simulation.worker;
  */
 public class SimulationWorkerResult
 {
-    private double[] wins, ties, loses;
-    
-    public SimulationWorkerResult(double[] wins, double[] ties, double[] loses)
+    private int[] wins, ties, loses;
+    private int rounds;
+
+    /**
+     * Creates the result of a worker.
+     * @param wins the number of rounds won by every player.
+     * @param ties the number of rounds tied by every player.
+     * @param loses the number of rounds lost by every player.
+     * @param rounds the number of rounds played by the worker.
+     */
+    public SimulationWorkerResult(int[] wins, int[] ties, int[] loses, int rounds)
     {
         if (wins == null || ties == null || loses == null) {
             throw new NullPointerException();
         } else if (wins.length != ties.length || ties.length != loses.length) {
             throw new IllegalArgumentException();
         }
-        
+
         this.wins = wins;
         this.loses = loses;
         this.ties = ties;
+        this.rounds = rounds;
     }
-    
+
     public int getNrOfPlayers()
     {
         return wins.length;
     }
-    
-    public double getWinPercentage(int player)
+
+    public int getRounds()
+    {
+        return rounds;
+    }
+
+    public int getWins(int player)
     {
         return wins[player];
     }
-    
-    public double getLosePercentage(int player)
+
+    public int getLoses(int player)
     {
         return loses[player];
     }
-    
-    public double getTiePercentage(int player)
+
+    public int getTies(int player)
     {
         return ties[player];
     }
+
+    public double getWinPercentage(int player)
+    {
+        return getPercentage(wins[player]);
+    }
+
+    public double getLosePercentage(int player)
+    {
+        return getPercentage(loses[player]);
+    }
+
+    public double getTiePercentage(int player)
+    {
+        return getPercentage(ties[player]);
+    }
+
+    //a worker can end up with no rounds at all if the others took all of them
+    private double getPercentage(int count)
+    {
+        return (rounds > 0) ? (100.0 * count) / rounds : 0;
+    }
 }
@@ -0,0 +1,72 @@
+package org.javafling.pokerenlighter.combination;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Radu Murzea
+ */
+public class CardSetTest
+{
+	/**
+	 * Test of getMask, contains, size and toCards methods, of class CardSet.
+	 */
+	@Test
+	public void testGetMask()
+	{
+		Card[] cards = {
+			new Card('2', 'c'),
+			null,
+			new Card('A', 's'),
+			new Card('T', 'h')
+		};
+
+		long set = CardSet.getMask(cards);
+
+		assertEquals((1L << 0) | (1L << 51) | (1L << 34), set);
+		assertEquals(3, CardSet.size(set));
+		assertTrue(CardSet.contains(set, new Card('T', 'h')));
+		assertFalse(CardSet.contains(set, new Card('T', 'd')));
+		assertArrayEquals(new Card[] {cards[0], cards[3], cards[2]}, CardSet.toCards(set));
+	}
+
+	/**
+	 * Test of hasDuplicates method, of class CardSet.
+	 */
+	@Test
+	public void testHasDuplicates()
+	{
+		Card[] cards = {
+			new Card('K', 'd'),
+			new Card('K', 'h'),
+			null,
+			null
+		};
+
+		assertFalse(CardSet.hasDuplicates(cards));
+
+		cards[3] = new Card('K', 'd');
+		assertTrue(CardSet.hasDuplicates(cards));
+	}
+
+	/**
+	 * Test of evaluate method, of class CardSet.
+	 */
+	@Test
+	public void testEvaluate()
+	{
+		Deck deck = new Deck();
+
+		for (int i = 0; i < 20000; i++) {
+			deck.shuffle(5);
+
+			Card[] cards = new Card[5 + i % 3];
+			for (int j = 0; j < cards.length; j++) {
+				cards[j] = deck.getCard(j);
+			}
+
+			assertEquals(HandRank.evaluate(cards), CardSet.evaluate(CardSet.getMask(cards)));
+		}
+	}
+}
@@ -170,4 +170,26 @@ public class CardTest
 		result = instance.toString ();
 		assertEquals (expResult, result);
 	}
+
+	/**
+	 * Test of getIndex and valueOf methods, of class Card.
+	 */
+	@Test
+	public void testValueOf()
+	{
+		assertEquals(0, new Card('2', 'c').getIndex());
+		assertEquals(25, new Card('A', 'd').getIndex());
+		assertEquals(51, new Card('A', 's').getIndex());
+
+		for (int i = 0; i < 52; i++) {
+			assertEquals(i, Card.valueOf(i).getIndex());
+		}
+
+		Card instance = Card.valueOf('T', 'h');
+		assertEquals(10, instance.getRank());
+		assertEquals('h', instance.getColor());
+		assertSame(instance, Card.valueOf(10, 'h'));
+		assertEquals(new Card('T', 'h'), instance);
+		assertEquals(new Card('T', 'h').hashCode(), instance.hashCode());
+	}
 }
\ No newline at end of file
@@ -44,6 +44,58 @@ public class DeckTest
 		assertTrue(index != -1);
 	}
 
+	/**
+	 * Test of removeCards method, of class Deck.
+	 */
+	@Test
+	public void testRemoveCards()
+	{
+		Card c1 = new Card('2', 'c');
+		Card c2 = new Card('Q', 'h');
+		
+		Deck instance = new Deck ();
+		instance.removeCard (c2);
+		instance.removeCards (CardSet.getMask (new Card[] {c1, c2}));
+		
+		assertEquals (50, instance.getSize ());
+		assertEquals (-1, instance.getCardIndex (c1));
+		assertEquals (-1, instance.getCardIndex (c2));
+		
+		//the remaining cards keep their order
+		assertEquals (new Card('3', 'c'), instance.getCard (0));
+		assertEquals (new Card('A', 's'), instance.getCard (49));
+	}
+
+	/**
+	 * Test of deal method, of class Deck.
+	 */
+	@Test
+	public void testDeal()
+	{
+		Deck instance = new Deck ();
+		instance.removeCard (new Card('7', 'd'));
+		
+		//every card should reach the first position at some point
+		long seen = 0L;
+		
+		for (int i = 0; i < 5000; i++) {
+			instance.deal (9);
+			
+			assertEquals (51, instance.getSize ());
+			seen |= CardSet.getMask (instance.getCard (0));
+		}
+		
+		assertEquals (CardSet.FULL_DECK & ~CardSet.getMask (new Card('7', 'd')), seen);
+		
+		//the deck must still contain every card exactly once
+		Card[] cards = new Card[instance.getSize ()];
+		for (int i = 0; i < cards.length; i++) {
+			cards[i] = instance.getCard (i);
+		}
+		
+		assertFalse (CardSet.hasDuplicates (cards));
+	}
+
 	/**
 	 * Test of isFull method, of class Deck.
 	 */
@@ -114,4 +166,37 @@ public class DeckTest
 		
 		assertTrue (result >= 0 && result < instance.getSize ());
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Test of sort method, of class Deck.
+	 */
+	@Test
+	public void testSort()
+	{
+		Deck instance = new Deck (new HighQualityRandomGenerator (7));
+		instance.removeCard (new Card ('2', 'c'));
+		instance.shuffle (5);
+		instance.sort ();
+		
+		assertEquals (51, instance.getSize ());
+		for (int i = 0; i < 51; i++) {
+			assertEquals (Card.valueOf (i + 1), instance.getCard (i));
+		}
+		
+		//a sorted deck with a generator seeded in the same way deals the same cards
+		HighQualityRandomGenerator rand = new HighQualityRandomGenerator (99);
+		Deck other = new Deck (rand);
+		other.removeCard (new Card ('2', 'c'));
+		other.shuffle (5);
+		
+		rand.setSeed (7);
+		other.sort ();
+		other.deal (10);
+		
+		instance = new Deck (new HighQualityRandomGenerator (7));
+		instance.removeCard (new Card ('2', 'c'));
+		instance.deal (10);
+		
+		assertEquals (instance.toString (), other.toString ());
+	}
+}
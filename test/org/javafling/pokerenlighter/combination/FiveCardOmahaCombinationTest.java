@@ -113,6 +113,7 @@ public class FiveCardOmahaCombinationTest
 		FiveCardOmahaCombination instance = new FiveCardOmahaCombination(cards);
 		String expResult = "0AKJ86";
 		assertEquals(expResult, instance.getCombination());
+		assertEquals(expResult, HandRank.toString(OmahaEvaluator.evaluate(cards)));
 	}
 
 	/**
@@ -138,6 +139,7 @@ public class FiveCardOmahaCombinationTest
 		FiveCardOmahaCombination instance = new FiveCardOmahaCombination(cards);
 		String expResult = "1TAK8";
 		assertEquals(expResult, instance.getCombination());
+		assertEquals(expResult, HandRank.toString(OmahaEvaluator.evaluate(cards)));
 		
 		//no pair
 		Card[] cards2 = {
@@ -156,6 +158,7 @@ public class FiveCardOmahaCombinationTest
 		instance.setCards(cards2);
 		expResult = "0AKJT8";
 		assertEquals(expResult, instance.getCombination());
+		assertEquals(expResult, HandRank.toString(OmahaEvaluator.evaluate(cards2)));
 	}
 	
 	/**
@@ -181,6 +184,7 @@ public class FiveCardOmahaCombinationTest
 		FiveCardOmahaCombination instance = new FiveCardOmahaCombination (cards);
 		String expResult = "2T9K";
 		assertEquals(expResult, instance.getCombination());
+		assertEquals(expResult, HandRank.toString(OmahaEvaluator.evaluate(cards)));
 		
 		//a quad of fives, should not be detected as 2 pair
 		Card[] cards2 = {
@@ -199,6 +203,7 @@ public class FiveCardOmahaCombinationTest
 		instance.setCards(cards2);
 		expResult = "75A";
 		assertEquals(expResult, instance.getCombination());
+		assertEquals(expResult, HandRank.toString(OmahaEvaluator.evaluate(cards2)));
 	}
 	
 	/**
@@ -224,6 +229,7 @@ public class FiveCardOmahaCombinationTest
 		FiveCardOmahaCombination instance = new FiveCardOmahaCombination(cards);
 		String expResult = "38AK";
 		assertEquals(expResult, instance.getCombination());
+		assertEquals(expResult, HandRank.toString(OmahaEvaluator.evaluate(cards)));
 		
 		//2 pair should not be detected as a set
 		Card[] cards2 = {
@@ -242,6 +248,7 @@ public class FiveCardOmahaCombinationTest
 		instance.setCards(cards2);
 		expResult = "2K7T";
 		assertEquals(expResult, instance.getCombination());
+		assertEquals(expResult, HandRank.toString(OmahaEvaluator.evaluate(cards2)));
 	}
 	
 	/**
@@ -267,6 +274,7 @@ public class FiveCardOmahaCombinationTest
 		FiveCardOmahaCombination instance = new FiveCardOmahaCombination(cards);
 		String expResult = "4J";
 		assertEquals(expResult, instance.getCombination());
+		assertEquals(expResult, HandRank.toString(OmahaEvaluator.evaluate(cards)));
 	}
 	
 	/**
@@ -292,6 +300,7 @@ public class FiveCardOmahaCombinationTest
 		FiveCardOmahaCombination instance = new FiveCardOmahaCombination (cards);
 		String expResult = "5AQJ64";
 		assertEquals(expResult, instance.getCombination());
+		assertEquals(expResult, HandRank.toString(OmahaEvaluator.evaluate(cards)));
 		
 		//a little trickier: all spades, so multiple flushes. highest is AKQ87
 		Card[] cards2 = {
@@ -310,6 +319,7 @@ public class FiveCardOmahaCombinationTest
 		instance.setCards(cards2);
 		expResult = "5AKQ87";
 		assertEquals(expResult, instance.getCombination());
+		assertEquals(expResult, HandRank.toString(OmahaEvaluator.evaluate(cards2)));
 	}
 	
 	/**
@@ -335,6 +345,7 @@ public class FiveCardOmahaCombinationTest
 		FiveCardOmahaCombination instance = new FiveCardOmahaCombination(cards);
 		String expResult = "63K";
 		assertEquals(expResult, instance.getCombination());
+		assertEquals(expResult, HandRank.toString(OmahaEvaluator.evaluate(cards)));
 		
 		//there are a lot (!!) different full houses here:
 		//jacks full of fives
@@ -361,6 +372,7 @@ public class FiveCardOmahaCombinationTest
 		instance.setCards(cards2);
 		expResult = "6J7";
 		assertEquals(expResult, instance.getCombination());
+		assertEquals(expResult, HandRank.toString(OmahaEvaluator.evaluate(cards2)));
 	}
 
 	/**
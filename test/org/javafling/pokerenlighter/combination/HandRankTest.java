@@ -0,0 +1,115 @@
+package org.javafling.pokerenlighter.combination;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Radu Murzea
+ */
+public class HandRankTest
+{
+	/**
+	 * Test of encode and getCategory methods, of class HandRank.
+	 */
+	@Test
+	public void testEncode()
+	{
+		int pair = HandRank.encode(HandRank.ONE_PAIR, 14, 13, 12, 11, 0);
+		int twoPair = HandRank.encode(HandRank.TWO_PAIR, 3, 2, 4, 0, 0);
+
+		assertEquals(HandRank.ONE_PAIR, HandRank.getCategory(pair));
+		assertEquals(HandRank.TWO_PAIR, HandRank.getCategory(twoPair));
+		assertTrue(twoPair > pair);
+
+		int weakKicker = HandRank.encode(HandRank.ONE_PAIR, 14, 13, 12, 10, 0);
+		assertTrue(pair > weakKicker);
+	}
+
+	/**
+	 * Test of evaluate method, of class HandRank.
+	 */
+	@Test
+	public void testEvaluate()
+	{
+		Card[] cards = {
+			new Card('A', 'c'),
+			new Card('2', 'd'),
+			new Card('3', 'h'),
+			new Card('4', 's'),
+			new Card('5', 'c'),
+			new Card('5', 'd'),
+			new Card('K', 'h')
+		};
+
+		assertEquals(HandRank.encode(HandRank.STRAIGHT, 5, 0, 0, 0, 0), HandRank.evaluate(cards));
+
+		Card[] cards2 = {
+			new Card('9', 'c'),
+			new Card('9', 'd'),
+			new Card('9', 'h'),
+			new Card('4', 's'),
+			new Card('4', 'c'),
+			new Card('7', 'd'),
+			new Card('7', 'h')
+		};
+
+		assertEquals(HandRank.encode(HandRank.FULL_HOUSE, 9, 7, 0, 0, 0), HandRank.evaluate(cards2));
+
+		Card[] cards3 = {
+			new Card('Q', 's'),
+			new Card('Q', 'd'),
+			new Card('8', 'h'),
+			new Card('8', 's'),
+			new Card('3', 'c'),
+			new Card('3', 'd'),
+			new Card('2', 'h')
+		};
+
+		assertEquals(HandRank.encode(HandRank.TWO_PAIR, 12, 8, 3, 0, 0), HandRank.evaluate(cards3));
+	}
+
+	/**
+	 * Test of evaluate method with flushes, of class HandRank.
+	 */
+	@Test
+	public void testEvaluateFlush()
+	{
+		Card[] cards = {
+			new Card('A', 'h'),
+			new Card('2', 'h'),
+			new Card('3', 'h'),
+			new Card('4', 'h'),
+			new Card('5', 'h'),
+			new Card('6', 'd'),
+			new Card('K', 'h')
+		};
+
+		assertEquals(HandRank.encode(HandRank.STRAIGHT_FLUSH, 5, 0, 0, 0, 0), HandRank.evaluate(cards));
+
+		Card[] cards2 = {
+			new Card('A', 's'),
+			new Card('J', 's'),
+			new Card('9', 's'),
+			new Card('4', 's'),
+			new Card('2', 's'),
+			new Card('A', 'd'),
+			new Card('A', 'h')
+		};
+
+		assertEquals(HandRank.encode(HandRank.FLUSH, 14, 11, 9, 4, 2), HandRank.evaluate(cards2));
+	}
+
+	/**
+	 * Test of toString method, of class HandRank.
+	 */
+	@Test
+	public void testToString()
+	{
+		assertEquals("9", HandRank.toString(HandRank.encode(HandRank.STRAIGHT_FLUSH, 14, 0, 0, 0, 0)));
+		assertEquals("8K", HandRank.toString(HandRank.encode(HandRank.STRAIGHT_FLUSH, 13, 0, 0, 0, 0)));
+		assertEquals("1TAK8", HandRank.toString(HandRank.encode(HandRank.ONE_PAIR, 10, 14, 13, 8, 0)));
+		assertEquals("0AKJ85", HandRank.toString(HandRank.encode(HandRank.HIGH_CARD, 14, 13, 11, 8, 5)));
+		assertEquals("64Q", HandRank.toString(HandRank.encode(HandRank.FULL_HOUSE, 4, 12, 0, 0, 0)));
+	}
+}
@@ -0,0 +1,138 @@
+package org.javafling.pokerenlighter.combination;
+
+import java.util.HashSet;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Radu Murzea
+ */
+public class HighQualityRandomGeneratorTest
+{
+	/**
+	 * Test of setSeed method, of class HighQualityRandomGenerator.
+	 */
+	@Test
+	public void testSetSeed()
+	{
+		HighQualityRandomGenerator first = new HighQualityRandomGenerator (12345);
+		HighQualityRandomGenerator second = new HighQualityRandomGenerator ();
+		
+		long[] numbers = new long[100];
+		for (int i = 0; i < numbers.length; i++) {
+			numbers[i] = first.nextLong ();
+		}
+		
+		second.setSeed (12345);
+		for (int i = 0; i < numbers.length; i++) {
+			assertEquals (numbers[i], second.nextLong ());
+		}
+		
+		second.setSeed (12346);
+		assertNotEquals (numbers[0], second.nextLong ());
+	}
+
+	/**
+	 * Test of getStreamSeed method, of class HighQualityRandomGenerator.
+	 */
+	@Test
+	public void testGetStreamSeed()
+	{
+		assertEquals (HighQualityRandomGenerator.getStreamSeed (42, 7), HighQualityRandomGenerator.getStreamSeed (42, 7));
+		
+		//the streams of a master seed and the ones of nearby master seeds are all different
+		HashSet<Long> seeds = new HashSet<> ();
+		for (long master = 0; master < 10; master++) {
+			for (long stream = 0; stream < 1000; stream++) {
+				assertTrue (seeds.add (HighQualityRandomGenerator.getStreamSeed (master, stream)));
+			}
+		}
+	}
+
+	/**
+	 * Test of the constructor without a seed, of class HighQualityRandomGenerator.
+	 */
+	@Test
+	public void testHighQualityRandomGenerator()
+	{
+		//every generator gets its own seed
+		HashSet<Long> numbers = new HashSet<> ();
+		for (int i = 0; i < 10000; i++) {
+			assertTrue (numbers.add (new HighQualityRandomGenerator ().nextLong ()));
+		}
+	}
+
+	/**
+	 * Test of nextBoundedInt method, of class HighQualityRandomGenerator.
+	 */
+	@Test
+	public void testNextBoundedInt()
+	{
+		HighQualityRandomGenerator instance = new HighQualityRandomGenerator (1);
+		int[] counts = new int[5];
+		
+		for (int i = 0; i < 50000; i++) {
+			int value = instance.nextBoundedInt (5);
+			
+			assertTrue (value >= 0 && value < 5);
+			counts[value]++;
+		}
+		
+		for (int i = 0; i < counts.length; i++) {
+			assertEquals (10000, counts[i], 500);
+		}
+	}
+
+	/**
+	 * Test of nextLongs method, of class HighQualityRandomGenerator.
+	 */
+	@Test
+	public void testNextLongs()
+	{
+		HighQualityRandomGenerator first = new HighQualityRandomGenerator (777);
+		HighQualityRandomGenerator second = new HighQualityRandomGenerator (777);
+		
+		long[] values = new long[60];
+		first.nextLongs (values, 50);
+		
+		for (int i = 0; i < 50; i++) {
+			assertEquals (second.nextLong (), values[i]);
+		}
+		assertEquals (0, values[50]);
+		
+		//the generator continues after the last generated value
+		assertEquals (second.nextLong (), first.nextLong ());
+	}
+
+	/**
+	 * Test of nextBoundedInt method with a random value, of class HighQualityRandomGenerator.
+	 */
+	@Test
+	public void testNextBoundedIntRandom()
+	{
+		HighQualityRandomGenerator instance = new HighQualityRandomGenerator (2);
+		long[] values = new long[30000];
+		int[] counts = new int[3];
+		
+		instance.nextLongs (values, values.length);
+		for (long value : values) {
+			counts[instance.nextBoundedInt (value, 3)]++;
+		}
+		
+		for (int i = 0; i < counts.length; i++) {
+			assertEquals (10000, counts[i], 500);
+		}
+		
+		//the high half of the value picks the result
+		assertEquals (0, instance.nextBoundedInt (0x0000000100000000L, 52));
+		assertEquals (51, instance.nextBoundedInt (0xffffffff00000000L, 52));
+		assertEquals (26, instance.nextBoundedInt (0x8000000100000000L, 52));
+		
+		//the largest bound still gives values in range
+		for (int i = 0; i < 1000; i++) {
+			int value = instance.nextBoundedInt (Integer.MAX_VALUE);
+			assertTrue (value >= 0 && value < Integer.MAX_VALUE);
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package org.javafling.pokerenlighter.combination;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Radu Murzea
+ */
+public class LoEvaluatorTest
+{
+	/**
+	 * Test of evaluate and toString methods, of class LoEvaluator.
+	 */
+	@Test
+	public void testEvaluate()
+	{
+		//the Ace and the 2 from the hand, the board has 3, 4, 5 and 8
+		Card[] cards = {
+			new Card('A', 'h'),
+			new Card('2', 'c'),
+			new Card('K', 's'),
+			new Card('K', 'd'),
+			new Card('3', 'd'),
+			new Card('8', 'c'),
+			new Card('5', 's'),
+			new Card('4', 'h'),
+			new Card('J', 'c')
+		};
+
+		assertEquals("5432A", LoEvaluator.toString(LoEvaluator.evaluate(cards)));
+
+		//only 2 low cards on the board
+		Card[] cards2 = {
+			new Card('A', 'h'),
+			new Card('2', 'c'),
+			new Card('3', 's'),
+			new Card('4', 'd'),
+			new Card('5', 'd'),
+			new Card('8', 'c'),
+			new Card('9', 's'),
+			new Card('T', 'h'),
+			new Card('J', 'c')
+		};
+
+		assertEquals(LoEvaluator.NO_LO, LoEvaluator.evaluate(cards2));
+		assertEquals("0", LoEvaluator.toString(LoEvaluator.evaluate(cards2)));
+
+		//the pair of Aces in the hand counts only once, so the 7 has to be used
+		Card[] cards3 = {
+			new Card('A', 'h'),
+			new Card('A', 'c'),
+			new Card('7', 's'),
+			new Card('Q', 'd'),
+			new Card('Q', 's'),
+			new Card('2', 'd'),
+			new Card('3', 'c'),
+			new Card('4', 's'),
+			new Card('K', 'h'),
+			new Card('J', 'c')
+		};
+
+		assertEquals("7432A", LoEvaluator.toString(LoEvaluator.evaluate(cards3)));
+	}
+
+	/**
+	 * Test of the ordering of the values returned by the evaluate method, of class LoEvaluator.
+	 */
+	@Test
+	public void testEvaluateOrder()
+	{
+		Card[] board = {
+			new Card('2', 'd'),
+			new Card('5', 'c'),
+			new Card('6', 's'),
+			new Card('K', 'h'),
+			new Card('J', 'c')
+		};
+
+		Card[] hand1 = {new Card('A', 'h'), new Card('3', 'c'), new Card('K', 's'), new Card('Q', 'd')};
+		Card[] hand2 = {new Card('A', 's'), new Card('4', 'd'), new Card('9', 's'), new Card('9', 'd')};
+		Card[] hand3 = {new Card('3', 's'), new Card('4', 'h'), new Card('T', 's'), new Card('T', 'd')};
+
+		int lo1 = LoEvaluator.evaluate(concat(hand1, board));
+		int lo2 = LoEvaluator.evaluate(concat(hand2, board));
+		int lo3 = LoEvaluator.evaluate(concat(hand3, board));
+
+		assertEquals("6532A", LoEvaluator.toString(lo1));
+		assertEquals("6542A", LoEvaluator.toString(lo2));
+		assertEquals("65432", LoEvaluator.toString(lo3));
+		assertTrue(lo1 > lo2);
+		assertTrue(lo2 > lo3);
+		assertTrue(lo3 > LoEvaluator.NO_LO);
+	}
+
+	private static Card[] concat(Card[] hand, Card[] board)
+	{
+		Card[] cards = new Card[hand.length + board.length];
+
+		System.arraycopy(hand, 0, cards, 0, hand.length);
+		System.arraycopy(board, 0, cards, hand.length, board.length);
+
+		return cards;
+	}
+}
@@ -0,0 +1,84 @@
+package org.javafling.pokerenlighter.combination;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Radu Murzea
+ */
+public class LookupTableEvaluatorTest
+{
+	/**
+	 * Test of evaluate method, of class LookupTableEvaluator.
+	 */
+	@Test
+	public void testEvaluate()
+	{
+		Card[] cards = {
+			new Card('A', 'c'),
+			new Card('2', 'd'),
+			new Card('3', 'h'),
+			new Card('4', 's'),
+			new Card('5', 'c'),
+			new Card('5', 'd'),
+			new Card('K', 'h')
+		};
+
+		assertEquals(HandRank.encode(HandRank.STRAIGHT, 5, 0, 0, 0, 0), LookupTableEvaluator.evaluate(cards));
+
+		Card[] cards2 = {
+			new Card('9', 'c'),
+			new Card('9', 'd'),
+			new Card('9', 'h'),
+			new Card('4', 's'),
+			new Card('4', 'c'),
+			new Card('4', 'd'),
+			new Card('7', 'h')
+		};
+
+		assertEquals(HandRank.encode(HandRank.FULL_HOUSE, 9, 4, 0, 0, 0), LookupTableEvaluator.evaluate(cards2));
+
+		Card[] cards3 = {
+			new Card('K', 's'),
+			new Card('Q', 's'),
+			new Card('J', 's'),
+			new Card('T', 's'),
+			new Card('9', 's'),
+			new Card('A', 'd'),
+			new Card('A', 'h')
+		};
+
+		assertEquals(HandRank.encode(HandRank.STRAIGHT_FLUSH, 13, 0, 0, 0, 0), LookupTableEvaluator.evaluate(cards3));
+
+		Card[] cards4 = {
+			new Card('8', 'h'),
+			new Card('8', 'd'),
+			new Card('8', 's'),
+			new Card('8', 'c'),
+			new Card('2', 'h')
+		};
+
+		assertEquals(HandRank.encode(HandRank.QUAD, 8, 2, 0, 0, 0), LookupTableEvaluator.evaluate(cards4));
+	}
+
+	/**
+	 * Test of evaluate method against HandRank.evaluate, of class LookupTableEvaluator.
+	 */
+	@Test
+	public void testEvaluateSameAsHandRank()
+	{
+		Deck deck = new Deck();
+
+		for (int i = 0; i < 20000; i++) {
+			deck.shuffle(5);
+
+			Card[] cards = new Card[5 + i % 3];
+			for (int j = 0; j < cards.length; j++) {
+				cards[j] = deck.getCard(j);
+			}
+
+			assertEquals(HandRank.evaluate(cards), LookupTableEvaluator.evaluate(cards));
+		}
+	}
+}
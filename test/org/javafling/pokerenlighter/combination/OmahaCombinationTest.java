@@ -107,6 +107,7 @@ public class OmahaCombinationTest
 		OmahaCombination instance = new OmahaCombination (cards);
 		String expResult = "0AKJ85";
 		assertEquals (expResult, instance.getCombination ());
+		assertEquals(expResult, HandRank.toString(OmahaEvaluator.evaluate(cards)));
 	}
 
 	/**
@@ -131,6 +132,7 @@ public class OmahaCombinationTest
 		OmahaCombination instance = new OmahaCombination (cards);
 		String expResult = "1TAK8";
 		assertEquals (expResult, instance.getCombination ());
+		assertEquals(expResult, HandRank.toString(OmahaEvaluator.evaluate(cards)));
 		
 		//no pair
 		Card[] cards2 = {
@@ -148,6 +150,7 @@ public class OmahaCombinationTest
 		instance.setCards(cards2);
 		expResult = "0AKJT8";
 		assertEquals (expResult, instance.getCombination ());
+		assertEquals(expResult, HandRank.toString(OmahaEvaluator.evaluate(cards2)));
 	}
 	
 	/**
@@ -172,6 +175,7 @@ public class OmahaCombinationTest
 		OmahaCombination instance = new OmahaCombination (cards);
 		String expResult = "2T9K";
 		assertEquals (expResult, instance.getCombination ());
+		assertEquals(expResult, HandRank.toString(OmahaEvaluator.evaluate(cards)));
 		
 		//a quad of fives, should not be detected as 2 pair
 		Card[] cards2 = {
@@ -189,6 +193,7 @@ public class OmahaCombinationTest
 		instance.setCards(cards2);
 		expResult = "75A";
 		assertEquals (expResult, instance.getCombination ());
+		assertEquals(expResult, HandRank.toString(OmahaEvaluator.evaluate(cards2)));
 	}
 	
 	/**
@@ -213,6 +218,7 @@ public class OmahaCombinationTest
 		OmahaCombination instance = new OmahaCombination (cards);
 		String expResult = "38AK";
 		assertEquals (expResult, instance.getCombination ());
+		assertEquals(expResult, HandRank.toString(OmahaEvaluator.evaluate(cards)));
 		
 		//2 pair should not be detected as a set
 		Card[] cards2 = {
@@ -230,6 +236,7 @@ public class OmahaCombinationTest
 		instance.setCards(cards2);
 		expResult = "2K7T";
 		assertEquals (expResult, instance.getCombination ());
+		assertEquals(expResult, HandRank.toString(OmahaEvaluator.evaluate(cards2)));
 	}
 	
 	/**
@@ -254,6 +261,7 @@ public class OmahaCombinationTest
 		OmahaCombination instance = new OmahaCombination (cards);
 		String expResult = "4J";
 		assertEquals (expResult, instance.getCombination ());
+		assertEquals(expResult, HandRank.toString(OmahaEvaluator.evaluate(cards)));
 	}
 	
 	/**
@@ -278,6 +286,7 @@ public class OmahaCombinationTest
 		OmahaCombination instance = new OmahaCombination (cards);
 		String expResult = "5AQJ64";
 		assertEquals (expResult, instance.getCombination ());
+		assertEquals(expResult, HandRank.toString(OmahaEvaluator.evaluate(cards)));
 		
 		//a little trickier: all spades, so multiple flushes. highest is AQT87
 		Card[] cards2 = {
@@ -295,6 +304,7 @@ public class OmahaCombinationTest
 		instance.setCards(cards2);
 		expResult = "5AQT87";
 		assertEquals (expResult, instance.getCombination ());
+		assertEquals(expResult, HandRank.toString(OmahaEvaluator.evaluate(cards2)));
 	}
 	
 	/**
@@ -319,6 +329,7 @@ public class OmahaCombinationTest
 		OmahaCombination instance = new OmahaCombination (cards);
 		String expResult = "63K";
 		assertEquals (expResult, instance.getCombination ());
+		assertEquals(expResult, HandRank.toString(OmahaEvaluator.evaluate(cards)));
 		
 		//there are 6 (!!) different full houses here:
 		//jacks full of fives
@@ -343,6 +354,7 @@ public class OmahaCombinationTest
 		instance.setCards(cards2);
 		expResult = "6J7";
 		assertEquals (expResult, instance.getCombination ());
+		assertEquals(expResult, HandRank.toString(OmahaEvaluator.evaluate(cards2)));
 	}
 
 	/**
@@ -508,4 +520,31 @@ public class OmahaCombinationTest
 		String result = instance.toString();
 		assertEquals (expResult, result);
 	}
+
+	/**
+	 * Test of getCombinationRank method against OmahaEvaluator, of class OmahaCombination.
+	 */
+	@Test
+	public void testGetCombinationRankSameAsEvaluator()
+	{
+		Deck deck = new Deck();
+		Card[] cards = new Card[9];
+		OmahaCombination instance = null;
+
+		for (int i = 0; i < 5000; i++) {
+			deck.shuffle(5);
+
+			for (int j = 0; j < cards.length; j++) {
+				cards[j] = deck.getCard(j);
+			}
+
+			if (instance == null) {
+				instance = new OmahaCombination(cards);
+			} else {
+				instance.setCards(cards);
+			}
+
+			assertEquals(instance.getCombinationRank(), OmahaEvaluator.evaluate(cards));
+		}
+	}
 }
\ No newline at end of file
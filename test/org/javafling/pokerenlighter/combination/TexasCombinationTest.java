@@ -952,4 +952,42 @@ public class TexasCombinationTest
 		
 		assertEquals(expResult, result);
 	}
+	
+	/**
+	 * Test of getCombinationRank method, of class TexasCombination.
+	 */
+	@Test
+	public void testGetCombinationRank()
+	{
+		Card[] constructorCards = {
+			new Card('4', 'c'),
+			new Card('6', 's'),
+			new Card('4', 'd'),
+			new Card('4', 's'),
+			new Card('Q', 'd'),
+			new Card('2', 's'),
+			new Card('Q', 'h')
+		};
+		
+		TexasCombination instance = new TexasCombination(constructorCards);
+		int fullHouse = instance.getCombinationRank();
+		
+		assertEquals(instance.getCombination(), HandRank.toString(fullHouse));
+		
+		Card[] setterCards = {
+			new Card('T', 'c'),
+			new Card('Q', 's'),
+			new Card('3', 'd'),
+			new Card('J', 's'),
+			new Card('5', 'd'),
+			new Card('9', 's'),
+			new Card('K', 'h')
+		};
+		
+		instance.setCards(setterCards);
+		int straight = instance.getCombinationRank();
+		
+		assertEquals(instance.getCombination(), HandRank.toString(straight));
+		assertTrue(fullHouse > straight);
+	}
 }
\ No newline at end of file
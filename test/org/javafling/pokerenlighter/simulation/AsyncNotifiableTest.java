@@ -0,0 +1,158 @@
+package org.javafling.pokerenlighter.simulation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Radu Murzea
+ */
+public class AsyncNotifiableTest
+{
+	/**
+	 * Test of onSimulationProgress method, of class AsyncNotifiable.
+	 */
+	@Test
+	public void testOnSimulationProgress() throws InterruptedException
+	{
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+
+		try {
+			final List<Object> delivered = Collections.synchronizedList(new ArrayList<>());
+			final List<String> threads = Collections.synchronizedList(new ArrayList<String>());
+			final CountDownLatch done = new CountDownLatch(1);
+
+			SimulationNotifiable notifiable = new SimulationNotifiable()
+			{
+				@Override
+				public void onSimulationStart(SimulationEvent event)
+				{
+					delivered.add(event.getEventData());
+				}
+
+				@Override
+				public void onSimulationDone(SimulationEvent event)
+				{
+					delivered.add(event.getEventData());
+					done.countDown();
+				}
+
+				@Override
+				public void onSimulationCancel(SimulationEvent event)
+				{
+				}
+
+				@Override
+				public void onSimulationProgress(SimulationEvent event)
+				{
+					delivered.add(event.getEventData());
+					threads.add(Thread.currentThread().getName());
+				}
+
+				@Override
+				public void onSimulationError(SimulationEvent event)
+				{
+				}
+			};
+
+			AsyncNotifiable async = new AsyncNotifiable(notifiable, executor);
+
+			async.onSimulationStart(new SimulationEvent(SimulationEvent.EVENT_SIM_STARTED, -1));
+			for (int i = 0; i < 1000; i++) {
+				async.onSimulationProgress(new SimulationEvent(SimulationEvent.EVENT_SIM_PROGRESS, i));
+			}
+			async.onSimulationDone(new SimulationEvent(SimulationEvent.EVENT_SIM_DONE, 1000));
+
+			done.await();
+
+			//the events were delivered on the threads of the executor, but in order
+			assertEquals(1002, delivered.size());
+			for (int i = 0; i < delivered.size(); i++) {
+				assertEquals(i - 1, delivered.get(i));
+			}
+
+			assertFalse(threads.contains(Thread.currentThread().getName()));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Test of onSimulationDone method, of class AsyncNotifiable, with an executor that rejects a delivery.
+	 */
+	@Test
+	public void testOnSimulationDoneRejected()
+	{
+		final List<Object> delivered = new ArrayList<>();
+
+		SimulationNotifiable notifiable = new SimulationNotifiable()
+		{
+			@Override
+			public void onSimulationStart(SimulationEvent event)
+			{
+				delivered.add(event.getEventData());
+			}
+
+			@Override
+			public void onSimulationDone(SimulationEvent event)
+			{
+				delivered.add(event.getEventData());
+			}
+
+			@Override
+			public void onSimulationCancel(SimulationEvent event)
+			{
+			}
+
+			@Override
+			public void onSimulationProgress(SimulationEvent event)
+			{
+			}
+
+			@Override
+			public void onSimulationError(SimulationEvent event)
+			{
+			}
+		};
+
+		//rejects the first task, then runs the tasks on the calling thread
+		Executor executor = new Executor()
+		{
+			private boolean isRejected;
+
+			@Override
+			public void execute(Runnable command)
+			{
+				if (! isRejected) {
+					isRejected = true;
+					throw new RejectedExecutionException();
+				}
+
+				command.run();
+			}
+		};
+
+		AsyncNotifiable async = new AsyncNotifiable(notifiable, executor);
+
+		try {
+			async.onSimulationStart(new SimulationEvent(SimulationEvent.EVENT_SIM_STARTED, 1));
+			fail("The executor rejects the delivery");
+		} catch (RejectedExecutionException ex) {
+		}
+
+		//the rejected event is delivered with the next one, instead of both waiting forever
+		async.onSimulationDone(new SimulationEvent(SimulationEvent.EVENT_SIM_DONE, 2));
+
+		assertEquals(2, delivered.size());
+		assertEquals(1, delivered.get(0));
+		assertEquals(2, delivered.get(1));
+	}
+}
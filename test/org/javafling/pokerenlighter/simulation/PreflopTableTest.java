@@ -0,0 +1,239 @@
+package org.javafling.pokerenlighter.simulation;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import org.javafling.pokerenlighter.combination.Card;
+import org.javafling.pokerenlighter.simulation.worker.SimulationWorkerResult;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Radu Murzea
+ */
+public class PreflopTableTest
+{
+	private static int getMatchup(Card a, Card b, Card c, Card d)
+	{
+		int x = PreflopTable.getHandIndex(a.getIndex(), b.getIndex());
+		int y = PreflopTable.getHandIndex(c.getIndex(), d.getIndex());
+
+		return PreflopTable.getMatchupIndex(Math.min(x, y), Math.max(x, y));
+	}
+
+	//a table with made-up results, which are different for every matchup
+	private static File createTable() throws IOException
+	{
+		int[] wins = new int[PreflopTable.NR_OF_MATCHUPS];
+		int[] ties = new int[PreflopTable.NR_OF_MATCHUPS];
+
+		for (int i = 0; i < wins.length; i++) {
+			wins[i] = i;
+			ties[i] = i % 1000;
+		}
+
+		File file = File.createTempFile("preflop", ".dat");
+		file.deleteOnExit();
+
+		PreflopTableGenerator.write(file, wins, ties);
+
+		return file;
+	}
+
+	/**
+	 * Test of getCanonicalMatchups method, of class PreflopTableGenerator.
+	 */
+	@Test
+	public void testGetCanonicalMatchups()
+	{
+		int[] canonical = PreflopTableGenerator.getCanonicalMatchups();
+		int enumerated = 0, impossible = 0;
+
+		for (int i = 0; i < canonical.length; i++) {
+			if (canonical[i] == i) {
+				enumerated++;
+			} else if (canonical[i] == -1) {
+				impossible++;
+			}
+		}
+
+		assertEquals(47008, enumerated);
+		assertEquals(PreflopTable.NR_OF_MATCHUPS - 1326 * 1225 / 2, impossible);
+
+		int first = getMatchup(new Card('A', 'h'), new Card('K', 'h'), new Card('Q', 's'), new Card('Q', 'd'));
+		int second = getMatchup(new Card('A', 's'), new Card('K', 's'), new Card('Q', 'h'), new Card('Q', 'c'));
+		int third = getMatchup(new Card('A', 'h'), new Card('K', 's'), new Card('Q', 's'), new Card('Q', 'd'));
+
+		//a negative value means that the players are swapped
+		assertEquals(canonical[first] ^ (canonical[first] >> 31), canonical[second] ^ (canonical[second] >> 31));
+		assertNotEquals(canonical[first] ^ (canonical[first] >> 31), canonical[third] ^ (canonical[third] >> 31));
+	}
+
+	/**
+	 * Test of enumerate method, of class PreflopTableGenerator.
+	 */
+	@Test
+	public void testEnumerate()
+	{
+		SimulationWorkerResult result = PreflopTableGenerator.enumerate(
+			new Card[] {new Card('A', 'h'), new Card('K', 'h')},
+			new Card[] {new Card('Q', 's'), new Card('Q', 'd')});
+
+		assertEquals(PreflopTable.NR_OF_BOARDS, result.getRounds());
+		assertEquals(787966, result.getWins(0));
+		assertEquals(6732, result.getTies(0));
+		assertEquals(result.getWins(0), result.getLoses(1));
+	}
+
+	/**
+	 * Test of enumerate method, of class PreflopTableGenerator, on an interrupted thread.
+	 */
+	@Test
+	public void testEnumerateInterrupted()
+	{
+		Thread.currentThread().interrupt();
+
+		//the worker stops before playing any board, which must not give a result of 0 wins
+		try {
+			PreflopTableGenerator.enumerate(
+				new Card[] {new Card('A', 'h'), new Card('K', 'h')},
+				new Card[] {new Card('Q', 's'), new Card('Q', 'd')});
+			fail("The enumeration was interrupted");
+		} catch (IllegalStateException ex) {
+		} finally {
+			Thread.interrupted();
+		}
+	}
+
+	/**
+	 * Test of load method, of class PreflopTable.
+	 */
+	@Test
+	public void testLoad() throws IOException
+	{
+		PreflopTable table = PreflopTable.load(createTable());
+
+		Card[] aces = {new Card('A', 'h'), new Card('A', 's')};
+		Card[] kings = {new Card('K', 's'), new Card('K', 'h')};
+		int matchup = getMatchup(aces[0], aces[1], kings[0], kings[1]);
+
+		//the aces have the bigger index, so the table has the results of the kings
+		assertEquals(matchup, table.getWins(kings, aces));
+		assertEquals(matchup % 1000, table.getTies(kings, aces));
+		assertEquals(matchup % 1000, table.getTies(aces, kings));
+		assertEquals(PreflopTable.NR_OF_BOARDS - matchup - matchup % 1000, table.getWins(aces, kings));
+		assertEquals(table.getWins(kings, aces), table.getLoses(aces, kings));
+
+		//the order of the cards doesn't matter
+		assertEquals(table.getWins(aces, kings), table.getWins(new Card[] {aces[1], aces[0]}, kings));
+
+		try {
+			table.getWins(aces, new Card[] {new Card('A', 's'), new Card('K', 'h')});
+			fail("The hands have a common card");
+		} catch (IllegalArgumentException ex) {
+		}
+	}
+
+	/**
+	 * Test of load method, of class PreflopTable, with a file that is not a table.
+	 */
+	@Test(expected = IOException.class)
+	public void testLoadInvalid() throws IOException
+	{
+		File file = File.createTempFile("preflop", ".dat");
+		file.deleteOnExit();
+
+		try (FileOutputStream output = new FileOutputStream(file)) {
+			output.write(new byte[(int) PreflopTable.FILE_SIZE]);
+		}
+
+		PreflopTable.load(file);
+	}
+
+	/**
+	 * Test of setPreflopTable method, of class Simulator.SimulatorBuilder.
+	 */
+	@Test
+	public void testSimulatorPreflopTable() throws IOException, InterruptedException
+	{
+		PreflopTable table = PreflopTable.load(createTable());
+
+		Card[] aces = {new Card('A', 'h'), new Card('A', 's')};
+		Card[] kings = {new Card('K', 's'), new Card('K', 'h')};
+
+		Simulator simulator = simulate(new Simulator.SimulatorBuilder()
+			.setGameType(PokerType.TEXAS_HOLDEM)
+			.setPreflopTable(table)
+			.addPlayer(new PlayerProfile(HandType.EXACTCARDS, null, aces))
+			.addPlayer(new PlayerProfile(HandType.EXACTCARDS, null, kings)));
+
+		assertTrue(simulator.isFromPreflopTable());
+		assertTrue(simulator.isSimulationDone());
+
+		SimulationFinalResult result = simulator.getResult();
+
+		assertEquals(PreflopTable.NR_OF_BOARDS, result.getRounds());
+		assertEquals(0, result.getError(), 0);
+		assertEquals(100.0 * table.getWins(aces, kings) / PreflopTable.NR_OF_BOARDS, result.getWinPercentage(0), 0.000001);
+		assertEquals(result.getWinPercentage(0), result.getLosePercentage(1), 0.000001);
+
+		//with a flop, the table can't be used
+		Simulator flop = simulate(new Simulator.SimulatorBuilder()
+			.setGameType(PokerType.TEXAS_HOLDEM)
+			.setPreflopTable(table)
+			.setFlop(new Card[] {new Card('2', 'c'), new Card('7', 'd'), new Card('9', 'h')})
+			.addPlayer(new PlayerProfile(HandType.EXACTCARDS, null, aces))
+			.addPlayer(new PlayerProfile(HandType.EXACTCARDS, null, kings)));
+
+		assertFalse(flop.isFromPreflopTable());
+	}
+
+	//runs a simulation of 10000 rounds and waits for it to finish
+	private static Simulator simulate(Simulator.SimulatorBuilder builder) throws InterruptedException
+	{
+		final CountDownLatch done = new CountDownLatch(1);
+
+		SimulationNotifiable notifiable = new SimulationNotifiable()
+		{
+			@Override
+			public void onSimulationStart(SimulationEvent event)
+			{
+			}
+
+			@Override
+			public void onSimulationDone(SimulationEvent event)
+			{
+				done.countDown();
+			}
+
+			@Override
+			public void onSimulationCancel(SimulationEvent event)
+			{
+				done.countDown();
+			}
+
+			@Override
+			public void onSimulationProgress(SimulationEvent event)
+			{
+			}
+
+			@Override
+			public void onSimulationError(SimulationEvent event)
+			{
+				done.countDown();
+			}
+		};
+
+		Simulator simulator = builder.setNrRounds(10000)
+			.setUpdateInterval(100)
+			.setNotifiable(notifiable)
+			.build();
+
+		simulator.start();
+		done.await();
+
+		return simulator;
+	}
+}
@@ -0,0 +1,175 @@
+package org.javafling.pokerenlighter.simulation;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.javafling.pokerenlighter.combination.Card;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Radu Murzea
+ */
+public class ResultFileTest
+{
+	private static final char[] RANKS = {'2', '3', '4', '5', '6', '7', '8', '9', 'T', 'J', 'Q', 'K'};
+
+	private static ArrayList<PlayerProfile> createPlayers(int scenario, char color)
+	{
+		ArrayList<PlayerProfile> players = new ArrayList<>();
+		players.add(new PlayerProfile(HandType.EXACTCARDS, null, new Card[] {new Card(RANKS[scenario % 12], color), new Card('A', color)}));
+		players.add(new PlayerProfile(HandType.RANGE, new Range(5 + scenario % 50), null));
+
+		return players;
+	}
+
+	private static Card[] createBoard(int scenario)
+	{
+		if (scenario % 2 == 0) {
+			return new Card[5];
+		}
+
+		//only diamonds, so the players can have any other color
+		return new Card[] {new Card('2', 'd'), new Card('7', 'd'), new Card('J', 'd'), new Card('K', 'd'), null};
+	}
+
+	private static SimulationFinalResult createResult(int scenario, int rounds, double error)
+	{
+		Card[] board = createBoard(scenario);
+
+		SimulationFinalResult.ResultBuilder builder = new SimulationFinalResult.ResultBuilder()
+			.setGameType(PokerType.TEXAS_HOLDEM)
+			.setPlayers(createPlayers(scenario, 's'))
+			.setWins(new double[] {scenario / 10.0, 60 - scenario / 10.0})
+			.setTies(new double[] {1.5, 1.5})
+			.setLoses(new double[] {98.5 - scenario / 10.0, 38.5 + scenario / 10.0})
+			.setRounds(rounds)
+			.setError(error)
+			.setThreads(4)
+			.setTurn(board[3]);
+
+		if (board[0] != null) {
+			builder.setFlop(Arrays.copyOf(board, 3));
+		}
+
+		return builder.build();
+	}
+
+	private static File write(ResultFileWriter writer) throws IOException
+	{
+		File file = File.createTempFile("results", ".dat");
+		file.deleteOnExit();
+
+		writer.write(file);
+
+		return file;
+	}
+
+	/**
+	 * Test of find method, of class ResultFile.
+	 */
+	@Test
+	public void testFind() throws IOException
+	{
+		ResultFileWriter writer = new ResultFileWriter(2);
+
+		//the scenarios are added in no particular order
+		for (int i = 0; i < 200; i++) {
+			int scenario = (i * 37) % 200;
+			writer.add(createResult(scenario, 1000 + scenario, 0.5));
+		}
+
+		ResultFile results = ResultFile.load(write(writer));
+
+		assertEquals(2, results.getNrOfPlayers());
+		assertEquals(200, results.getNrOfRecords());
+
+		for (int scenario = 0; scenario < 200; scenario++) {
+			//the same scenario with other colors
+			SimulationFinalResult result = results.find(PokerType.TEXAS_HOLDEM, createPlayers(scenario, 'c'), createBoard(scenario));
+
+			assertNotNull(result);
+			assertEquals(1000 + scenario, result.getRounds());
+			assertEquals(0.5, result.getError(), 0);
+			assertEquals(scenario / 10.0, result.getWinPercentage(0), 0.00001);
+			assertEquals(38.5 + scenario / 10.0, result.getLosePercentage(1), 0.00001);
+			assertEquals(new Card(RANKS[scenario % 12], 'c'), result.getPlayer(0).getCards()[0]);
+		}
+
+		//a scenario that wasn't added
+		Card[] board = createBoard(1);
+		board[4] = new Card('A', 'd');
+
+		assertNull(results.find(PokerType.TEXAS_HOLDEM, createPlayers(1, 's'), board));
+		assertNull(results.find(PokerType.OMAHA, createPlayers(0, 's'), createBoard(0)));
+	}
+
+	/**
+	 * Test of get method, of class ResultFile.
+	 */
+	@Test
+	public void testGet() throws IOException
+	{
+		ResultFileWriter writer = new ResultFileWriter(2);
+		writer.add(createResult(3, 1000, 0.5));
+
+		ResultFile results = ResultFile.load(write(writer));
+		SimulationFinalResult result = results.get(0);
+
+		//the stored scenario is the one that was added, maybe with other colors
+		assertEquals(ScenarioKey.valueOf(PokerType.TEXAS_HOLDEM, createPlayers(3, 's'), createBoard(3)),
+			ScenarioKey.valueOf(result.getPokerType(), Arrays.asList(result.getPlayer(0), result.getPlayer(1)),
+				new Card[] {result.getFlop()[0], result.getFlop()[1], result.getFlop()[2], result.getTurn(), result.getRiver()}));
+
+		assertEquals(0, results.indexOf(ScenarioKey.valueOf(PokerType.TEXAS_HOLDEM, createPlayers(3, 'h'), createBoard(3))));
+		assertEquals(1.5, results.getTiePercentage(0, 1), 0);
+
+		try {
+			results.get(1);
+			fail("There is only one record");
+		} catch (IndexOutOfBoundsException ex) {
+		}
+	}
+
+	/**
+	 * Test of add method, of class ResultFileWriter, with the same scenario more than once.
+	 */
+	@Test
+	public void testAddSameScenario() throws IOException
+	{
+		ResultFileWriter writer = new ResultFileWriter(2);
+		writer.add(createResult(3, 1000, 0.5));
+		writer.add(createResult(3, 5000, 0.2));
+		writer.add(createResult(3, 100, 0));
+		writer.add(createResult(3, 2000, 0.4));
+		writer.add(createResult(4, 2000, 0.4));
+
+		assertEquals(5, writer.getNrOfResults());
+
+		ResultFile results = ResultFile.load(write(writer));
+
+		assertEquals(2, results.getNrOfRecords());
+
+		//the exact result is kept
+		assertEquals(100, results.getRounds(results.indexOf(ScenarioKey.valueOf(PokerType.TEXAS_HOLDEM, createPlayers(3, 's'), createBoard(3)))));
+	}
+
+	/**
+	 * Test of load method, of class ResultFile, with a file that is not a result file.
+	 */
+	@Test(expected = IOException.class)
+	public void testLoadInvalid() throws IOException
+	{
+		File file = File.createTempFile("results", ".dat");
+		file.deleteOnExit();
+
+		try (FileOutputStream output = new FileOutputStream(file)) {
+			output.write(new byte[100]);
+		}
+
+		ResultFile.load(file);
+	}
+}
@@ -0,0 +1,96 @@
+package org.javafling.pokerenlighter.simulation;
+
+import java.util.Arrays;
+import java.util.List;
+import org.javafling.pokerenlighter.combination.Card;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Radu Murzea
+ */
+public class ScenarioKeyTest
+{
+	private static PlayerProfile exact(Card... cards)
+	{
+		return new PlayerProfile(HandType.EXACTCARDS, null, cards);
+	}
+
+	private static ScenarioKey key(PokerType gameType, Card[] board, PlayerProfile... players)
+	{
+		List<PlayerProfile> profiles = Arrays.asList(players);
+
+		return ScenarioKey.valueOf(gameType, profiles, board);
+	}
+
+	private static ScenarioKey key(PlayerProfile... players)
+	{
+		return key(PokerType.TEXAS_HOLDEM, new Card[5], players);
+	}
+
+	/**
+	 * Test of valueOf method, of class ScenarioKey.
+	 */
+	@Test
+	public void testValueOf()
+	{
+		ScenarioKey first = key(exact(new Card('A', 'h'), new Card('K', 'h')), exact(new Card('Q', 's'), new Card('Q', 'd')));
+
+		//other colors, other order of the cards
+		ScenarioKey second = key(exact(new Card('K', 's'), new Card('A', 's')), exact(new Card('Q', 'h'), new Card('Q', 'c')));
+		assertEquals(first, second);
+		assertEquals(first.hashCode(), second.hashCode());
+
+		//the suited hand is now offsuit
+		assertNotEquals(first, key(exact(new Card('A', 'h'), new Card('K', 's')), exact(new Card('Q', 's'), new Card('Q', 'd'))));
+
+		//the order of the players matters
+		assertNotEquals(first, key(exact(new Card('Q', 's'), new Card('Q', 'd')), exact(new Card('A', 'h'), new Card('K', 'h'))));
+
+		//so does the game type
+		assertNotEquals(first, key(PokerType.OMAHA, new Card[5],
+			exact(new Card('A', 'h'), new Card('K', 'h')), exact(new Card('Q', 's'), new Card('Q', 'd'))));
+	}
+
+	/**
+	 * Test of valueOf method, of class ScenarioKey, with community cards.
+	 */
+	@Test
+	public void testValueOfBoard()
+	{
+		PlayerProfile aces = exact(new Card('A', 'c'), new Card('A', 'd'));
+		PlayerProfile random = new PlayerProfile(HandType.RANDOM, null, null);
+
+		Card[] board = {new Card('2', 'h'), new Card('7', 'h'), new Card('Q', 'c'), new Card('3', 's'), null};
+
+		//the colors c, d, h and s become d, c, s and h. the flop is in another order
+		Card[] other = {new Card('Q', 'd'), new Card('2', 's'), new Card('7', 's'), new Card('3', 'h'), null};
+		PlayerProfile otherAces = exact(new Card('A', 'd'), new Card('A', 'c'));
+
+		assertEquals(key(PokerType.TEXAS_HOLDEM, board, aces, random), key(PokerType.TEXAS_HOLDEM, other, otherAces, random));
+
+		//the turn is not a river
+		Card[] river = {new Card('2', 'h'), new Card('7', 'h'), new Card('Q', 'c'), null, new Card('3', 's')};
+		assertNotEquals(key(PokerType.TEXAS_HOLDEM, board, aces, random), key(PokerType.TEXAS_HOLDEM, river, aces, random));
+	}
+
+	/**
+	 * Test of valueOf method, of class ScenarioKey, with ranges.
+	 */
+	@Test
+	public void testValueOfRange()
+	{
+		PlayerProfile random = new PlayerProfile(HandType.RANDOM, null, null);
+		Range range = new Range(10);
+
+		ScenarioKey first = key(new PlayerProfile(HandType.RANGE, range, null), random);
+		assertEquals(first, key(new PlayerProfile(HandType.RANGE, new Range(10), null), random));
+		assertNotEquals(first, key(new PlayerProfile(HandType.RANGE, new Range(11), null), random));
+		assertNotEquals(first, key(random, random));
+
+		//the key keeps the hand types the range had when it was created
+		range.flipValue(12, 12);
+		assertNotEquals(first, key(new PlayerProfile(HandType.RANGE, range, null), random));
+	}
+}
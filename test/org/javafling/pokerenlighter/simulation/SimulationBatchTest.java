@@ -0,0 +1,446 @@
+package org.javafling.pokerenlighter.simulation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.javafling.pokerenlighter.combination.Card;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Radu Murzea
+ */
+public class SimulationBatchTest
+{
+	private static final char[] RANKS = {'2', '3', '4', '5', '6', '7', '8', '9', 'T', 'J'};
+
+	//aces against kings on different turns, with only a few boards left, so every result is exact
+	private static List<Simulator.SimulatorBuilder> createScenarios()
+	{
+		List<Simulator.SimulatorBuilder> scenarios = new ArrayList<>();
+
+		for (int i = 0; i + 4 <= RANKS.length; i++) {
+			scenarios.add(new Simulator.SimulatorBuilder()
+				.setGameType(PokerType.TEXAS_HOLDEM)
+				.setNrRounds(10000)
+				.setFlop(new Card[] {new Card(RANKS[i], 'c'), new Card(RANKS[i + 1], 'd'), new Card(RANKS[i + 2], 'h')})
+				.setTurn(new Card(RANKS[i + 3], 'c'))
+				.addPlayer(new PlayerProfile(HandType.EXACTCARDS, null, new Card[] {new Card('A', 'h'), new Card('A', 's')}))
+				.addPlayer(new PlayerProfile(HandType.EXACTCARDS, null, new Card[] {new Card('K', 's'), new Card('K', 'h')})));
+		}
+
+		return scenarios;
+	}
+
+	//gives endless scenarios that would never finish on their own and counts them
+	private static Iterator<Simulator.SimulatorBuilder> createEndlessScenarios(final AtomicInteger taken)
+	{
+		return new Iterator<Simulator.SimulatorBuilder>()
+		{
+			@Override
+			public boolean hasNext()
+			{
+				return true;
+			}
+
+			@Override
+			public Simulator.SimulatorBuilder next()
+			{
+				taken.incrementAndGet();
+
+				return new Simulator.SimulatorBuilder()
+					.setGameType(PokerType.TEXAS_HOLDEM)
+					.setNrRounds(Integer.MAX_VALUE)
+					.addPlayer(new PlayerProfile(HandType.EXACTCARDS, null, new Card[] {new Card('A', 'h'), new Card('K', 'h')}))
+					.addPlayer(new PlayerProfile(HandType.RANDOM, null, null));
+			}
+
+			@Override
+			public void remove()
+			{
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	//counts the errors of a batch and its end
+	private static class ErrorNotifiable implements BatchNotifiable
+	{
+		final List<Exception> errors = new ArrayList<>();
+		final CountDownLatch done = new CountDownLatch(1);
+
+		@Override
+		public void onScenarioDone(int scenario, SimulationFinalResult result)
+		{
+		}
+
+		@Override
+		public synchronized void onScenarioError(int scenario, Exception error)
+		{
+			errors.add(error);
+		}
+
+		@Override
+		public void onBatchDone()
+		{
+			done.countDown();
+		}
+	}
+
+	/**
+	 * Test of start method, of class SimulationBatch.
+	 */
+	@Test
+	public void testStart() throws InterruptedException
+	{
+		SimulationEngine engine = new SimulationEngine(2);
+
+		try {
+			final List<Simulator.SimulatorBuilder> scenarios = createScenarios();
+			final SimulationFinalResult[] results = new SimulationFinalResult[scenarios.size()];
+			final AtomicInteger errors = new AtomicInteger();
+			final CountDownLatch done = new CountDownLatch(1);
+
+			new SimulationBatch(engine, 3).start(scenarios.iterator(), new BatchNotifiable()
+			{
+				@Override
+				public void onScenarioDone(int scenario, SimulationFinalResult result)
+				{
+					results[scenario] = result;
+				}
+
+				@Override
+				public void onScenarioError(int scenario, Exception error)
+				{
+					errors.incrementAndGet();
+				}
+
+				@Override
+				public void onBatchDone()
+				{
+					done.countDown();
+				}
+			});
+
+			done.await();
+
+			assertEquals(0, errors.get());
+
+			for (int i = 0; i < results.length; i++) {
+				assertNotNull(results[i]);
+				assertEquals(1, results[i].getNrOfThreads());
+				assertEquals(0, results[i].getError(), 0);
+
+				//the board of the scenario is kept in its result
+				assertEquals(new Card(RANKS[i + 3], 'c'), results[i].getTurn());
+				assertEquals(100.0, results[i].getWinPercentage(0) + results[i].getTiePercentage(0) + results[i].getLosePercentage(0), 0.000001);
+			}
+
+			//with 2345 on the board, the aces already have a straight
+			assertTrue(results[0].getWinPercentage(0) > results[0].getWinPercentage(1));
+		} finally {
+			engine.shutdown();
+		}
+	}
+
+	/**
+	 * Test of run method, of class SimulationBatch.
+	 */
+	@Test
+	public void testRun()
+	{
+		SimulationEngine engine = new SimulationEngine(2);
+
+		try {
+			List<Simulator.SimulatorBuilder> scenarios = createScenarios();
+
+			//a scenario with a common card can't be simulated, but the others are not affected
+			scenarios.add(2, new Simulator.SimulatorBuilder()
+				.setGameType(PokerType.TEXAS_HOLDEM)
+				.setNrRounds(10000)
+				.addPlayer(new PlayerProfile(HandType.EXACTCARDS, null, new Card[] {new Card('A', 'h'), new Card('A', 's')}))
+				.addPlayer(new PlayerProfile(HandType.EXACTCARDS, null, new Card[] {new Card('A', 's'), new Card('K', 'h')})));
+
+			boolean[] isDone = new boolean[scenarios.size()];
+			Iterator<SimulationBatch.ScenarioResult> results = new SimulationBatch(engine).run(scenarios.iterator());
+
+			while (results.hasNext()) {
+				SimulationBatch.ScenarioResult result = results.next();
+
+				assertFalse(isDone[result.getScenario()]);
+				isDone[result.getScenario()] = true;
+
+				if (result.getScenario() == 2) {
+					assertNull(result.getResult());
+					assertNotNull(result.getError());
+				} else {
+					assertNotNull(result.getResult());
+					assertNull(result.getError());
+				}
+			}
+
+			for (boolean scenarioDone : isDone) {
+				assertTrue(scenarioDone);
+			}
+		} finally {
+			engine.shutdown();
+		}
+	}
+
+	/**
+	 * Test of run method, of class SimulationBatch, with an orchestration executor.
+	 */
+	@Test
+	public void testRunOrchestrationExecutor()
+	{
+		SimulationEngine engine = new SimulationEngine(2);
+		ExecutorService executor = SystemUtils.isVirtualThreadSupported()
+			? SystemUtils.newVirtualThreadExecutor()
+			: Executors.newCachedThreadPool();
+
+		try {
+			List<Simulator.SimulatorBuilder> scenarios = createScenarios();
+			Iterator<SimulationBatch.ScenarioResult> results = new SimulationBatch(engine, 4, executor).run(scenarios.iterator());
+			int count = 0;
+
+			while (results.hasNext()) {
+				assertNotNull(results.next().getResult());
+				count++;
+			}
+
+			assertEquals(scenarios.size(), count);
+		} finally {
+			engine.shutdown();
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Test of start method, of class SimulationBatch, with an iterator that fails.
+	 */
+	@Test
+	public void testStartIteratorError() throws InterruptedException
+	{
+		SimulationEngine engine = new SimulationEngine(2);
+
+		try {
+			final List<Simulator.SimulatorBuilder> scenarios = createScenarios();
+			final RuntimeException failure = new RuntimeException("iterator");
+
+			//gives 3 scenarios, then throws
+			Iterator<Simulator.SimulatorBuilder> iterator = new Iterator<Simulator.SimulatorBuilder>()
+			{
+				private int next;
+
+				@Override
+				public boolean hasNext()
+				{
+					return true;
+				}
+
+				@Override
+				public Simulator.SimulatorBuilder next()
+				{
+					if (next == 3) {
+						throw failure;
+					}
+
+					return scenarios.get(next++);
+				}
+
+				@Override
+				public void remove()
+				{
+					throw new UnsupportedOperationException();
+				}
+			};
+
+			final AtomicInteger doneScenarios = new AtomicInteger();
+			final AtomicInteger doneBeforeEnd = new AtomicInteger(-1);
+			final Exception[] errors = new Exception[4];
+			final CountDownLatch done = new CountDownLatch(1);
+
+			new SimulationBatch(engine, 2).start(iterator, new BatchNotifiable()
+			{
+				@Override
+				public void onScenarioDone(int scenario, SimulationFinalResult result)
+				{
+					doneScenarios.incrementAndGet();
+				}
+
+				@Override
+				public void onScenarioError(int scenario, Exception error)
+				{
+					errors[scenario] = error;
+				}
+
+				@Override
+				public void onBatchDone()
+				{
+					doneBeforeEnd.set(doneScenarios.get());
+					done.countDown();
+				}
+			});
+
+			done.await();
+
+			//the batch ends after the scenarios that were started and the failure is reported
+			assertEquals(3, doneBeforeEnd.get());
+			assertSame(failure, errors[3]);
+
+			//the builders of the caller are not changed
+			for (Simulator.SimulatorBuilder scenario : scenarios) {
+				assertNull(scenario.getEngine());
+				assertNull(scenario.getNotifiable());
+			}
+		} finally {
+			engine.shutdown();
+		}
+	}
+
+	/**
+	 * Test of stream method, of class SimulationBatch.
+	 */
+	@Test
+	public void testStream()
+	{
+		SimulationEngine engine = new SimulationEngine(2);
+
+		try {
+			List<Simulator.SimulatorBuilder> scenarios = createScenarios();
+
+			//the scenarios are sorted by their position to compare them with the list
+			List<SimulationBatch.ScenarioResult> results = new SimulationBatch(engine).stream(scenarios.stream())
+				.sorted(new Comparator<SimulationBatch.ScenarioResult>()
+				{
+					@Override
+					public int compare(SimulationBatch.ScenarioResult first, SimulationBatch.ScenarioResult second)
+					{
+						return Integer.compare(first.getScenario(), second.getScenario());
+					}
+				})
+				.collect(Collectors.<SimulationBatch.ScenarioResult>toList());
+
+			assertEquals(scenarios.size(), results.size());
+
+			for (int i = 0; i < results.size(); i++) {
+				assertEquals(i, results.get(i).getScenario());
+				assertEquals(new Card(RANKS[i + 3], 'c'), results.get(i).getResult().getTurn());
+			}
+		} finally {
+			engine.shutdown();
+		}
+	}
+
+	/**
+	 * Test of cancel method, of class SimulationBatch.Run.
+	 */
+	@Test
+	public void testCancel() throws InterruptedException
+	{
+		SimulationEngine engine = new SimulationEngine(2);
+
+		try {
+			AtomicInteger taken = new AtomicInteger();
+			ErrorNotifiable notifiable = new ErrorNotifiable();
+
+			SimulationBatch.Run run = new SimulationBatch(engine, 3).start(createEndlessScenarios(taken), notifiable);
+
+			Thread.sleep(100);
+			assertFalse(run.isCancelled());
+
+			run.cancel();
+			assertTrue(run.isCancelled());
+
+			//the running scenarios are stopped and no other scenario is taken
+			assertTrue(notifiable.done.await(10, TimeUnit.SECONDS));
+			assertEquals(3, taken.get());
+
+			synchronized (notifiable) {
+				assertEquals(3, notifiable.errors.size());
+
+				for (Exception error : notifiable.errors) {
+					assertTrue(error instanceof CancellationException);
+				}
+			}
+		} finally {
+			engine.shutdown();
+		}
+	}
+
+	/**
+	 * Test of stream method, of class SimulationBatch, with a stream that is closed before its end.
+	 */
+	@Test
+	public void testStreamClose() throws InterruptedException
+	{
+		SimulationEngine engine = new SimulationEngine(2);
+
+		try {
+			final List<Simulator.SimulatorBuilder> scenarios = createScenarios();
+			final AtomicInteger taken = new AtomicInteger();
+
+			//gives the scenarios again and again
+			Stream<Simulator.SimulatorBuilder> endless = Stream.generate(new Supplier<Simulator.SimulatorBuilder>()
+			{
+				@Override
+				public Simulator.SimulatorBuilder get()
+				{
+					return scenarios.get(taken.getAndIncrement() % scenarios.size());
+				}
+			});
+
+			try (Stream<SimulationBatch.ScenarioResult> results = new SimulationBatch(engine, 2).stream(endless)) {
+				assertEquals(5, results.limit(5).count());
+			}
+
+			//after the close, the feeder takes at most the scenario it was waiting for
+			Thread.sleep(200);
+			int takenAfterClose = taken.get();
+
+			Thread.sleep(200);
+			assertEquals(takenAfterClose, taken.get());
+		} finally {
+			engine.shutdown();
+		}
+	}
+
+	/**
+	 * Test of start method, of class SimulationBatch, when the engine is shut down.
+	 */
+	@Test
+	public void testStartEngineShutdown() throws InterruptedException
+	{
+		SimulationEngine engine = new SimulationEngine(2);
+		AtomicInteger taken = new AtomicInteger();
+		ErrorNotifiable notifiable = new ErrorNotifiable();
+
+		new SimulationBatch(engine, 2).start(createEndlessScenarios(taken), notifiable);
+
+		Thread.sleep(100);
+		engine.shutdown();
+
+		//the running scenarios fail and no other scenario is started
+		assertTrue(notifiable.done.await(10, TimeUnit.SECONDS));
+		assertEquals(2, taken.get());
+
+		synchronized (notifiable) {
+			assertEquals(3, notifiable.errors.size());
+
+			for (Exception error : notifiable.errors) {
+				assertTrue(error instanceof IllegalStateException);
+			}
+		}
+	}
+}
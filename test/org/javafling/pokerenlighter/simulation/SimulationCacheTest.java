@@ -0,0 +1,187 @@
+package org.javafling.pokerenlighter.simulation;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import org.javafling.pokerenlighter.combination.Card;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Radu Murzea
+ */
+public class SimulationCacheTest
+{
+	private static PlayerProfile exact(Card... cards)
+	{
+		return new PlayerProfile(HandType.EXACTCARDS, null, cards);
+	}
+
+	private static ArrayList<PlayerProfile> players(PlayerProfile... profiles)
+	{
+		ArrayList<PlayerProfile> result = new ArrayList<>();
+
+		for (PlayerProfile profile : profiles) {
+			result.add(profile);
+		}
+
+		return result;
+	}
+
+	private static ScenarioKey key(ArrayList<PlayerProfile> players)
+	{
+		return ScenarioKey.valueOf(PokerType.TEXAS_HOLDEM, players, new Card[5]);
+	}
+
+	private static SimulationFinalResult result(ArrayList<PlayerProfile> players, int rounds, double error)
+	{
+		return new SimulationFinalResult.ResultBuilder()
+			.setGameType(PokerType.TEXAS_HOLDEM)
+			.setPlayers(players)
+			.setWins(new double[] {80, 20})
+			.setTies(new double[] {0, 0})
+			.setLoses(new double[] {20, 80})
+			.setRounds(rounds)
+			.setError(error)
+			.setThreads(1)
+			.setDuration(0)
+			.build();
+	}
+
+	/**
+	 * Test of put method, of class SimulationCache.
+	 */
+	@Test
+	public void testPut()
+	{
+		ArrayList<PlayerProfile> players = players(exact(new Card('A', 'h'), new Card('A', 's')), exact(new Card('K', 'h'), new Card('K', 's')));
+		ScenarioKey key = key(players);
+		SimulationCache instance = new SimulationCache(10);
+
+		SimulationFinalResult weak = result(players, 1000, 1.5);
+		SimulationFinalResult strong = result(players, 100000, 0.2);
+
+		assertTrue(instance.put(key, weak));
+		assertSame(weak, instance.get(key));
+
+		//more rounds replace the result, fewer rounds don't
+		assertTrue(instance.put(key, strong));
+		assertFalse(instance.put(key, weak));
+		assertSame(strong, instance.get(key));
+
+		//an exact result replaces any other result and is never replaced
+		SimulationFinalResult exactResult = result(players, 1000, 0);
+		assertTrue(instance.put(key, exactResult));
+		assertFalse(instance.put(key, result(players, 10000000, 0.01)));
+		assertSame(exactResult, instance.get(key));
+
+		assertEquals(1, instance.size());
+	}
+
+	/**
+	 * Test of get method, of class SimulationCache.
+	 */
+	@Test
+	public void testGet()
+	{
+		SimulationCache instance = new SimulationCache(2);
+
+		ArrayList<PlayerProfile> first = players(exact(new Card('A', 'h'), new Card('A', 's')), exact(new Card('K', 'h'), new Card('K', 's')));
+		ArrayList<PlayerProfile> second = players(exact(new Card('A', 'h'), new Card('A', 's')), exact(new Card('Q', 'h'), new Card('Q', 's')));
+		ArrayList<PlayerProfile> third = players(exact(new Card('A', 'h'), new Card('A', 's')), exact(new Card('J', 'h'), new Card('J', 's')));
+
+		instance.put(key(first), result(first, 1000, 1));
+		instance.put(key(second), result(second, 1000, 1));
+
+		//the first scenario is used, so the second one is the least recently used
+		assertNotNull(instance.get(key(first)));
+		instance.put(key(third), result(third, 1000, 1));
+
+		assertEquals(2, instance.size());
+		assertNotNull(instance.get(key(first)));
+		assertNull(instance.get(key(second)));
+		assertNotNull(instance.get(key(third)));
+	}
+
+	/**
+	 * Test of setCache method, of class Simulator.SimulatorBuilder.
+	 */
+	@Test
+	public void testSimulatorCache() throws InterruptedException
+	{
+		SimulationCache cache = new SimulationCache(10);
+
+		Simulator first = simulate(cache, 20000, new Card('A', 'h'), new Card('K', 'h'), new Card('Q', 's'), new Card('Q', 'd'));
+		assertFalse(first.isFromCache());
+		assertEquals(1, cache.size());
+
+		//the same scenario in other colors, with fewer rounds, is taken from the cache
+		Simulator second = simulate(cache, 10000, new Card('A', 's'), new Card('K', 's'), new Card('Q', 'h'), new Card('Q', 'c'));
+		assertTrue(second.isFromCache());
+		assertTrue(second.isSimulationDone());
+		assertEquals(first.getResult().getRounds(), second.getResult().getRounds());
+		assertEquals(first.getResult().getWinPercentage(0), second.getResult().getWinPercentage(0), 0);
+		assertEquals(new Card('A', 's'), second.getResult().getPlayer(0).getCards()[0]);
+
+		//more rounds than the cached result need a new simulation, whose result replaces the cached one
+		Simulator third = simulate(cache, 40000, new Card('A', 'h'), new Card('K', 'h'), new Card('Q', 's'), new Card('Q', 'd'));
+		assertFalse(third.isFromCache());
+		assertEquals(1, cache.size());
+
+		Simulator fourth = simulate(cache, 30000, new Card('A', 'd'), new Card('K', 'd'), new Card('Q', 'h'), new Card('Q', 's'));
+		assertTrue(fourth.isFromCache());
+		assertEquals(third.getResult().getRounds(), fourth.getResult().getRounds());
+	}
+
+	//runs a heads-up Texas Hold'em simulation with a cache and waits for it to finish
+	private static Simulator simulate(SimulationCache cache, int rounds, Card a, Card b, Card c, Card d) throws InterruptedException
+	{
+		final CountDownLatch done = new CountDownLatch(1);
+
+		SimulationNotifiable notifiable = new SimulationNotifiable()
+		{
+			@Override
+			public void onSimulationStart(SimulationEvent event)
+			{
+			}
+
+			@Override
+			public void onSimulationDone(SimulationEvent event)
+			{
+				done.countDown();
+			}
+
+			@Override
+			public void onSimulationCancel(SimulationEvent event)
+			{
+				done.countDown();
+			}
+
+			@Override
+			public void onSimulationProgress(SimulationEvent event)
+			{
+			}
+
+			@Override
+			public void onSimulationError(SimulationEvent event)
+			{
+				done.countDown();
+			}
+		};
+
+		Simulator simulator = new Simulator.SimulatorBuilder()
+			.setGameType(PokerType.TEXAS_HOLDEM)
+			.setNrRounds(rounds)
+			.setUpdateInterval(100)
+			.setNotifiable(notifiable)
+			.setCache(cache)
+			.addPlayer(exact(a, b))
+			.addPlayer(exact(c, d))
+			.build();
+
+		simulator.start();
+		done.await();
+
+		return simulator;
+	}
+}
@@ -0,0 +1,121 @@
+package org.javafling.pokerenlighter.simulation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.zip.GZIPInputStream;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.javafling.pokerenlighter.combination.Card;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Radu Murzea
+ */
+public class SimulationExportWriterTest
+{
+	private static SimulationFinalResult createResult(int rounds)
+	{
+		ArrayList<PlayerProfile> players = new ArrayList<>();
+		players.add(new PlayerProfile(HandType.EXACTCARDS, null, new Card[] {new Card('A', 'h'), new Card('K', 's')}));
+		players.add(new PlayerProfile(HandType.RANGE, new Range(10), null));
+
+		return new SimulationFinalResult.ResultBuilder()
+			.setGameType(PokerType.TEXAS_HOLDEM)
+			.setPlayers(players)
+			.setWins(new double[] {55.5, 42.5})
+			.setTies(new double[] {2, 2})
+			.setLoses(new double[] {42.5, 55.5})
+			.setRounds(rounds)
+			.setThreads(1)
+			.setFlop(new Card[] {new Card('2', 'c'), new Card('T', 'd'), new Card('J', 'h')})
+			.build();
+	}
+
+	private static Document parse(InputStream input) throws Exception
+	{
+		return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(input);
+	}
+
+	/**
+	 * Test of write method, of class SimulationExportWriter.
+	 */
+	@Test
+	public void testWrite() throws IOException
+	{
+		StringWriter xml = new StringWriter();
+		SimulationFinalResult result = createResult(1000);
+
+		try (SimulationExportWriter writer = new SimulationExportWriter(xml)) {
+			writer.write(result);
+			writer.write(result);
+
+			assertEquals(2, writer.getNrOfResults());
+		}
+
+		//every result is the one of SimulationExport, one level deeper
+		String single = SimulationExport.getResultXMLString(result);
+		String element = single.substring(single.indexOf("<simulation>")).replace(System.lineSeparator(), System.lineSeparator() + "\t");
+		String lineEnd = System.lineSeparator();
+
+		assertEquals(SimulationExport.XML_DECLARATION + lineEnd
+			+ "<simulations>" + lineEnd
+			+ "\t" + element + lineEnd
+			+ "\t" + element + lineEnd
+			+ "</simulations>" + lineEnd,
+			xml.toString());
+	}
+
+	/**
+	 * Test of newWriter method, of class SimulationExportWriter, with gzip.
+	 */
+	@Test
+	public void testNewWriterGzip() throws Exception
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		try (SimulationExportWriter writer = SimulationExportWriter.newWriter(bytes, true)) {
+			for (int i = 1; i <= 100; i++) {
+				writer.write(createResult(i));
+			}
+		}
+
+		Document document = parse(new GZIPInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+		assertEquals("simulations", document.getDocumentElement().getTagName());
+		assertEquals(100, document.getElementsByTagName("simulation").getLength());
+		assertEquals("100", document.getElementsByTagName("rounds").item(99).getTextContent());
+	}
+
+	/**
+	 * Test of newWriter method, of class SimulationExportWriter, with a channel.
+	 */
+	@Test
+	public void testNewWriterChannel() throws Exception
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		SimulationExportWriter writer = SimulationExportWriter.newWriter(Channels.newChannel(bytes), false);
+		writer.write(createResult(1000));
+		writer.close();
+		writer.close();
+
+		Document document = parse(new ByteArrayInputStream(bytes.toByteArray()));
+
+		assertEquals(1, document.getElementsByTagName("simulation").getLength());
+		assertTrue(new String(bytes.toByteArray(), StandardCharsets.UTF_8).startsWith(SimulationExport.XML_DECLARATION));
+
+		try {
+			writer.write(createResult(1000));
+			fail("The writer is closed");
+		} catch (IllegalStateException ex) {
+		}
+	}
+}
@@ -0,0 +1,476 @@
+package org.javafling.pokerenlighter.simulation;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.javafling.pokerenlighter.combination.Card;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Radu Murzea
+ */
+public class SimulatorTest
+{
+	//remembers the thread of the done event and waits for it
+	private static class DoneNotifiable implements SimulationNotifiable
+	{
+		final CountDownLatch done = new CountDownLatch(1);
+		private volatile String doneThread;
+
+		@Override
+		public void onSimulationStart(SimulationEvent event)
+		{
+		}
+
+		@Override
+		public void onSimulationDone(SimulationEvent event)
+		{
+			doneThread = Thread.currentThread().getName();
+			done.countDown();
+		}
+
+		@Override
+		public void onSimulationCancel(SimulationEvent event)
+		{
+			done.countDown();
+		}
+
+		@Override
+		public void onSimulationProgress(SimulationEvent event)
+		{
+		}
+
+		@Override
+		public void onSimulationError(SimulationEvent event)
+		{
+			done.countDown();
+		}
+	}
+
+	private static ThreadFactory createThreadFactory(final String name)
+	{
+		return new ThreadFactory()
+		{
+			@Override
+			public Thread newThread(Runnable r)
+			{
+				Thread thread = new Thread(r, name);
+				thread.setDaemon(true);
+
+				return thread;
+			}
+		};
+	}
+
+	private static Simulator.SimulatorBuilder createBuilder(DoneNotifiable notifiable)
+	{
+		return new Simulator.SimulatorBuilder()
+			.setGameType(PokerType.TEXAS_HOLDEM)
+			.setNrRounds(20000)
+			.setUpdateInterval(100)
+			.setNotifiable(notifiable)
+			.addPlayer(new PlayerProfile(HandType.EXACTCARDS, null, new Card[] {new Card('A', 'h'), new Card('K', 'h')}))
+			.addPlayer(new PlayerProfile(HandType.RANDOM, null, null));
+	}
+
+	/**
+	 * Test of setExecutor method, of class Simulator.SimulatorBuilder.
+	 */
+	@Test
+	public void testSetExecutor() throws InterruptedException
+	{
+		ExecutorService executor = Executors.newFixedThreadPool(2, createThreadFactory("injected"));
+
+		try {
+			DoneNotifiable notifiable = new DoneNotifiable();
+			Simulator simulator = createBuilder(notifiable).setExecutor(executor).build();
+
+			simulator.start();
+			notifiable.done.await();
+
+			//the last worker that is done notifies it
+			assertEquals("injected", notifiable.doneThread);
+			assertEquals(20000, simulator.getResult().getRounds());
+
+			//the executor is not shut down, so it can run another simulation
+			assertFalse(executor.isShutdown());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Test of setNotificationExecutor method, of class Simulator.SimulatorBuilder.
+	 */
+	@Test
+	public void testSetNotificationExecutor() throws InterruptedException
+	{
+		ExecutorService executor = Executors.newCachedThreadPool(createThreadFactory("notification"));
+		SimulationEngine engine = new SimulationEngine(2);
+
+		try {
+			DoneNotifiable notifiable = new DoneNotifiable();
+			Simulator simulator = createBuilder(notifiable).setEngine(engine).setNotificationExecutor(executor).build();
+
+			simulator.start();
+			notifiable.done.await();
+
+			assertEquals("notification", notifiable.doneThread);
+			assertEquals(20000, simulator.getResult().getRounds());
+		} finally {
+			engine.shutdown();
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Test of build method, of class Simulator.SimulatorBuilder, with both an engine and an executor.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testBuildEngineAndExecutor()
+	{
+		SimulationEngine engine = new SimulationEngine(1);
+
+		try {
+			createBuilder(new DoneNotifiable()).setEngine(engine).setExecutor(Executors.newSingleThreadExecutor()).build();
+		} finally {
+			engine.shutdown();
+		}
+	}
+
+	/**
+	 * Test of newVirtualThreadExecutor method, of class SystemUtils.
+	 */
+	@Test
+	public void testNewVirtualThreadExecutor() throws InterruptedException
+	{
+		if (! SystemUtils.isVirtualThreadSupported()) {
+			try {
+				SystemUtils.newVirtualThreadExecutor();
+				fail("Virtual threads are not supported");
+			} catch (UnsupportedOperationException ex) {
+			}
+
+			return;
+		}
+
+		ExecutorService executor = SystemUtils.newVirtualThreadExecutor();
+
+		try {
+			DoneNotifiable notifiable = new DoneNotifiable();
+			Simulator simulator = createBuilder(notifiable).setNotificationExecutor(executor).build();
+
+			simulator.start();
+			notifiable.done.await();
+
+			assertNotNull(simulator.getResult());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	//a simulation without a notifiable
+	private static Simulator.SimulatorBuilder createBuilder(int nrRounds)
+	{
+		return new Simulator.SimulatorBuilder()
+			.setGameType(PokerType.TEXAS_HOLDEM)
+			.setNrRounds(nrRounds)
+			.addPlayer(new PlayerProfile(HandType.EXACTCARDS, null, new Card[] {new Card('A', 'h'), new Card('K', 'h')}))
+			.addPlayer(new PlayerProfile(HandType.RANDOM, null, null));
+	}
+
+	/**
+	 * Test of runAsync method, of class Simulator.
+	 */
+	@Test
+	public void testRunAsync() throws InterruptedException, ExecutionException
+	{
+		Simulator simulator = createBuilder(20000).build();
+
+		CompletableFuture<Double> wins = simulator.runAsync().thenApply(new Function<SimulationFinalResult, Double>()
+		{
+			@Override
+			public Double apply(SimulationFinalResult result)
+			{
+				return result.getWinPercentage(0);
+			}
+		});
+
+		double winPercentage = wins.get();
+
+		assertEquals(simulator.getResult().getWinPercentage(0), winPercentage, 0);
+		assertEquals(20000, simulator.getResult().getRounds());
+
+		try {
+			simulator.runAsync();
+			fail("The simulation was already started");
+		} catch (IllegalStateException ex) {
+		}
+	}
+
+	/**
+	 * Test of runAsync method, of class Simulator, with a result from the cache.
+	 */
+	@Test
+	public void testRunAsyncCache() throws Exception
+	{
+		SimulationCache cache = new SimulationCache(10);
+		SimulationFinalResult first = createBuilder(20000).setCache(cache).build().run(Duration.ofMinutes(1));
+
+		//the result is in the cache, so the future is already completed
+		CompletableFuture<SimulationFinalResult> second = createBuilder(20000).setCache(cache).build().runAsync();
+
+		assertTrue(second.isDone());
+		assertEquals(first.getWinPercentage(0), second.get().getWinPercentage(0), 0);
+	}
+
+	/**
+	 * Test of runAsync method, of class Simulator, with a cancelled future.
+	 */
+	@Test
+	public void testRunAsyncCancel() throws InterruptedException
+	{
+		DoneNotifiable notifiable = new DoneNotifiable();
+		Simulator simulator = createBuilder(notifiable).setNrRounds(Integer.MAX_VALUE).build();
+
+		CompletableFuture<SimulationFinalResult> result = simulator.runAsync();
+
+		assertTrue(result.cancel(false));
+
+		//the simulation is stopped and the notifiable gets the cancel event
+		notifiable.done.await();
+		assertTrue(simulator.isCancelled());
+		assertNull(notifiable.doneThread);
+	}
+
+	/**
+	 * Test of run method, of class Simulator.
+	 */
+	@Test
+	public void testRun() throws TimeoutException, InterruptedException
+	{
+		SimulationFinalResult result = createBuilder(20000).build().run(Duration.ofMinutes(1));
+
+		assertEquals(20000, result.getRounds());
+		assertEquals(100.0, result.getWinPercentage(0) + result.getTiePercentage(0) + result.getLosePercentage(0), 0.000001);
+	}
+
+	/**
+	 * Test of run method, of class Simulator, with a simulation that takes too long.
+	 */
+	@Test
+	public void testRunTimeout() throws InterruptedException
+	{
+		Simulator simulator = createBuilder(Integer.MAX_VALUE).build();
+
+		try {
+			simulator.run(Duration.ofMillis(50));
+			fail("The simulation can't be done in time");
+		} catch (TimeoutException ex) {
+		}
+
+		assertTrue(simulator.isCancelled());
+	}
+
+	//records the progress events, and the ones that arrive after the done event
+	private static class ProgressNotifiable extends DoneNotifiable
+	{
+		private final AtomicInteger progressEvents = new AtomicInteger();
+		private final AtomicInteger lateEvents = new AtomicInteger();
+		private volatile Object error;
+
+		@Override
+		public void onSimulationProgress(SimulationEvent event)
+		{
+			if (done.getCount() == 0) {
+				lateEvents.incrementAndGet();
+			}
+
+			progressEvents.incrementAndGet();
+		}
+
+		@Override
+		public void onSimulationError(SimulationEvent event)
+		{
+			error = event.getEventData();
+		}
+	}
+
+	private static Simulator.SimulatorBuilder createProgressBuilder(SimulationNotifiable notifiable)
+	{
+		return createBuilder(1000000)
+			.setUpdateInterval(1)
+			.setProgressPeriod(1)
+			.setNotifiable(notifiable);
+	}
+
+	/**
+	 * Test of onSimulationProgress method, of class Simulator, with a notifiable that throws.
+	 */
+	@Test
+	public void testProgressError() throws InterruptedException
+	{
+		final RuntimeException failure = new RuntimeException("progress");
+
+		ProgressNotifiable notifiable = new ProgressNotifiable()
+		{
+			@Override
+			public void onSimulationProgress(SimulationEvent event)
+			{
+				super.onSimulationProgress(event);
+
+				throw failure;
+			}
+		};
+
+		createProgressBuilder(notifiable).build().start();
+		notifiable.done.await();
+
+		//the exception is reported and the next progress events are still delivered
+		assertSame(failure, notifiable.error);
+		assertTrue(notifiable.progressEvents.get() > 1);
+		assertEquals(0, notifiable.lateEvents.get());
+	}
+
+	/**
+	 * Test of onSimulationProgress method, of class Simulator, with a notifiable that blocks.
+	 */
+	@Test
+	public void testProgressBlocked() throws InterruptedException
+	{
+		final CountDownLatch release = new CountDownLatch(1);
+
+		ProgressNotifiable blocked = new ProgressNotifiable()
+		{
+			@Override
+			public void onSimulationProgress(SimulationEvent event)
+			{
+				try {
+					release.await();
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+
+		Simulator blockedSimulator = createProgressBuilder(blocked).build();
+		blockedSimulator.start();
+
+		try {
+			//the other simulations still get their progress events
+			ProgressNotifiable notifiable = new ProgressNotifiable();
+			createProgressBuilder(notifiable).build().start();
+			notifiable.done.await();
+
+			assertTrue(notifiable.progressEvents.get() > 0);
+		} finally {
+			release.countDown();
+		}
+
+		//the blocked simulation ends normally
+		blocked.done.await();
+		assertEquals(1000000, blockedSimulator.getResult().getRounds());
+	}
+
+	/**
+	 * Test of shutdown method, of class SimulationEngine, while a simulation runs on it.
+	 */
+	@Test
+	public void testEngineShutdown() throws InterruptedException
+	{
+		SimulationEngine engine = new SimulationEngine(2);
+		final CountDownLatch cancelled = new CountDownLatch(1);
+		final AtomicInteger errors = new AtomicInteger();
+
+		DoneNotifiable notifiable = new DoneNotifiable()
+		{
+			@Override
+			public void onSimulationCancel(SimulationEvent event)
+			{
+				cancelled.countDown();
+			}
+
+			@Override
+			public void onSimulationError(SimulationEvent event)
+			{
+				errors.incrementAndGet();
+			}
+		};
+
+		Simulator simulator = createBuilder(notifiable).setNrRounds(Integer.MAX_VALUE).setEngine(engine).build();
+
+		simulator.start();
+		engine.shutdown();
+
+		//the simulation can't finish, so it gets an error and it's stopped instead of waiting forever
+		assertTrue(cancelled.await(10, TimeUnit.SECONDS));
+		assertTrue(simulator.isCancelled());
+		assertEquals(1, errors.get());
+		assertNull(notifiable.doneThread);
+
+	}
+
+	/**
+	 * Test of runAsync method, of class Simulator, with an engine that was shut down after the build.
+	 */
+	@Test
+	public void testRunAsyncEngineShutdown() throws InterruptedException, TimeoutException
+	{
+		SimulationEngine engine = new SimulationEngine(1);
+		Simulator simulator = createBuilder(20000).setEngine(engine).build();
+
+		engine.shutdown();
+
+		CompletableFuture<SimulationFinalResult> result = simulator.runAsync();
+
+		try {
+			result.get(10, TimeUnit.SECONDS);
+			fail("The engine was shut down");
+		} catch (ExecutionException ex) {
+			assertTrue(ex.getCause() instanceof IllegalStateException);
+		}
+
+		//nothing was started
+		assertFalse(simulator.isCancelled());
+		assertNull(simulator.getResult());
+	}
+
+	/**
+	 * Test of runAsync method, of class Simulator, with workers that fail on the threads of the simulator.
+	 */
+	@Test
+	public void testRunAsyncWorkerError() throws InterruptedException, TimeoutException
+	{
+		//only aces: the 3 players can't get hands without common cards, so every worker fails
+		Range aces = new Range();
+		aces.changeValue(0, 0, true);
+
+		Simulator simulator = new Simulator.SimulatorBuilder()
+			.setGameType(PokerType.TEXAS_HOLDEM)
+			.setNrRounds(20000)
+			.setNrOfWorkers(2)
+			.addPlayer(new PlayerProfile(HandType.RANGE, aces, null))
+			.addPlayer(new PlayerProfile(HandType.RANGE, aces, null))
+			.addPlayer(new PlayerProfile(HandType.RANGE, aces, null))
+			.build();
+
+		try {
+			simulator.runAsync().get(10, TimeUnit.SECONDS);
+			fail("The ranges can't be dealt together");
+		} catch (ExecutionException ex) {
+			assertTrue(ex.getCause() instanceof IllegalArgumentException);
+		}
+
+		assertNull(simulator.getResult());
+	}
+}
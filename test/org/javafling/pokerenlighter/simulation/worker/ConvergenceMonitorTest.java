@@ -0,0 +1,47 @@
+package org.javafling.pokerenlighter.simulation.worker;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Radu Murzea
+ */
+public class ConvergenceMonitorTest
+{
+	/**
+	 * Test of getError method, of class ConvergenceMonitor.
+	 */
+	@Test
+	public void testGetError()
+	{
+		//around 50%, the interval is almost the same as 1.96 * sqrt(p * (100 - p) / n)
+		assertEquals(ConvergenceMonitor.Z_95 * Math.sqrt(2500.0 / 1000000), ConvergenceMonitor.getError(50, 1000000), 0.0001);
+
+		//a percentage of 0 or 100 is not exact
+		assertEquals(384.0 / 10000, ConvergenceMonitor.getError(0, 10000), 0.001);
+		assertEquals(384.0 / 10000, ConvergenceMonitor.getError(100, 10000), 0.001);
+		assertTrue(ConvergenceMonitor.getError(100, Integer.MAX_VALUE) > 0);
+
+		//more rounds give a smaller error
+		assertTrue(ConvergenceMonitor.getError(10, 100000) < ConvergenceMonitor.getError(10, 10000));
+	}
+
+	/**
+	 * Test of addRounds method, of class ConvergenceMonitor.
+	 */
+	@Test
+	public void testAddRounds()
+	{
+		ConvergenceMonitor monitor = new ConvergenceMonitor(2, 0.01);
+
+		//the first player wins every round, which doesn't make the percentages exact
+		assertFalse(monitor.addRounds(ConvergenceMonitor.MIN_ROUNDS, new int[] {ConvergenceMonitor.MIN_ROUNDS, 0}, new int[2], new int[] {0, ConvergenceMonitor.MIN_ROUNDS}));
+		assertTrue(monitor.getError() > 0.01);
+
+		//after enough rounds, the target is reached
+		int rounds = 1000000;
+		assertTrue(monitor.addRounds(rounds, new int[] {rounds, 0}, new int[2], new int[] {0, rounds}));
+		assertTrue(monitor.getError() > 0);
+	}
+}
@@ -0,0 +1,341 @@
+package org.javafling.pokerenlighter.simulation.worker;
+
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+import org.javafling.pokerenlighter.combination.Card;
+import org.javafling.pokerenlighter.simulation.HandType;
+import org.javafling.pokerenlighter.simulation.PlayerProfile;
+import org.javafling.pokerenlighter.simulation.PokerType;
+import org.javafling.pokerenlighter.simulation.Range;
+import org.junit.Assume;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Radu Murzea
+ */
+public class GameWorkerTest
+{
+	//64 batches of 1000 rounds, since the worker has its own scheduler
+	private static final int ROUNDS = RoundScheduler.BATCHES_PER_THREAD * 1000;
+
+	//the first batches create the state of the worker and load the tables of the evaluators
+	private static final int WARMUP_BATCHES = 4;
+	private static final int MEASURED_BATCHES = 50;
+
+	//a few bytes can be allocated by the measurement itself, but not one object per round
+	private static final long ALLOWED_BYTES = 1024;
+
+	private static final WorkerNotifiable NOTIFIABLE = new WorkerNotifiable()
+	{
+		@Override
+		public void onSimulationDone(WorkerEvent event)
+		{
+		}
+
+		@Override
+		public void onSimulationProgress(WorkerEvent event)
+		{
+		}
+
+		@Override
+		public void onSimulationError(WorkerEvent event)
+		{
+		}
+	};
+
+	private static PlayerProfile exact(Card... cards)
+	{
+		return new PlayerProfile(HandType.EXACTCARDS, null, cards);
+	}
+
+	private static PlayerProfile random()
+	{
+		return new PlayerProfile(HandType.RANDOM, null, null);
+	}
+
+	private static PlayerProfile range(int percentage)
+	{
+		return new PlayerProfile(HandType.RANGE, new Range(percentage), null);
+	}
+
+	private static SimulationWorker build(SimulationWorker.WorkerBuilder<?> builder, PlayerProfile... players)
+	{
+		builder.setRounds(ROUNDS)
+			.setCommunityCards(new Card[5])
+			.setUpdateInterval(100)
+			.setNotifier(NOTIFIABLE);
+
+		for (PlayerProfile player : players) {
+			builder.addPlayer(player);
+		}
+
+		return builder.build();
+	}
+
+	//plays some batches after the warmup and returns how many bytes were allocated meanwhile
+	private static long getAllocatedBytes(SimulationWorker worker)
+	{
+		Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof ThreadMXBean);
+
+		ThreadMXBean bean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(bean.isThreadAllocatedMemorySupported());
+
+		bean.setThreadAllocatedMemoryEnabled(true);
+		long threadId = Thread.currentThread().getId();
+		bean.getThreadAllocatedBytes(threadId);
+
+		for (int i = 0; i < WARMUP_BATCHES; i++) {
+			assertTrue(worker.playBatch());
+		}
+
+		long before = bean.getThreadAllocatedBytes(threadId);
+
+		for (int i = 0; i < MEASURED_BATCHES; i++) {
+			worker.playBatch();
+		}
+
+		return bean.getThreadAllocatedBytes(threadId) - before;
+	}
+
+	/**
+	 * Test of playBatch method, of class TexasHoldemWorker.
+	 */
+	@Test
+	public void testPlayBatchTexasHoldem()
+	{
+		SimulationWorker worker = build(TexasHoldemWorker.builder(),
+			exact(new Card('A', 'h'), new Card('K', 'h')),
+			range(10),
+			random());
+
+		assertTrue(getAllocatedBytes(worker) < ALLOWED_BYTES);
+	}
+
+	/**
+	 * Test of playBatch method, of class TexasHoldemWorker, with the COMBINATION evaluator.
+	 */
+	@Test
+	public void testPlayBatchTexasHoldemCombination()
+	{
+		SimulationWorker worker = build(TexasHoldemWorker.builder().setEvaluator(TexasHoldemWorker.Evaluator.COMBINATION),
+			exact(new Card('A', 'h'), new Card('K', 'h')),
+			random());
+
+		assertTrue(getAllocatedBytes(worker) < ALLOWED_BYTES);
+	}
+
+	/**
+	 * Test of playBatch method, of class OmahaWorker.
+	 */
+	@Test
+	public void testPlayBatchOmaha()
+	{
+		SimulationWorker worker = build(OmahaWorker.builder(),
+			exact(new Card('A', 'h'), new Card('K', 'h'), new Card('6', 's'), new Card('3', 'd')),
+			random());
+
+		assertTrue(getAllocatedBytes(worker) < ALLOWED_BYTES);
+	}
+
+	/**
+	 * Test of playBatch method, of class OmahaHiLoWorker.
+	 */
+	@Test
+	public void testPlayBatchOmahaHiLo()
+	{
+		SimulationWorker worker = build(OmahaHiLoWorker.builder(),
+			exact(new Card('A', 'h'), new Card('2', 'h'), new Card('6', 's'), new Card('3', 'd')),
+			random());
+
+		assertTrue(getAllocatedBytes(worker) < ALLOWED_BYTES);
+	}
+
+	/**
+	 * Test of playBatch method, of class FiveCardOmahaWorker.
+	 */
+	@Test
+	public void testPlayBatchFiveCardOmaha()
+	{
+		SimulationWorker worker = build(FiveCardOmahaWorker.builder(),
+			random(),
+			random(),
+			random());
+
+		assertTrue(getAllocatedBytes(worker) < ALLOWED_BYTES);
+	}
+
+	/**
+	 * Test of playBatch method, of class FiveCardOmahaHiLoWorker.
+	 */
+	@Test
+	public void testPlayBatchFiveCardOmahaHiLo()
+	{
+		SimulationWorker worker = build(FiveCardOmahaHiLoWorker.builder(),
+			exact(new Card('A', 'c'), new Card('2', 'c'), new Card('3', 's'), new Card('K', 'd'), new Card('Q', 'd')),
+			random());
+
+		assertTrue(getAllocatedBytes(worker) < ALLOWED_BYTES);
+	}
+
+	/**
+	 * Test of run method, of class FiveCardOmahaWorker, with a full table.
+	 */
+	@Test
+	public void testRunFiveCardOmahaFullTable()
+	{
+		//9 players with 5 cards each and the board need 50 of the 52 cards
+		SimulationWorker worker = build(FiveCardOmahaWorker.builder(),
+			random(), random(), random(),
+			random(), random(), random(),
+			random(), random(), random());
+
+		worker.run();
+
+		assertEquals(ROUNDS, worker.getResult().getRounds());
+	}
+
+	private static PlayerProfile aces()
+	{
+		Range range = new Range();
+		range.changeValue(0, 0, true);
+
+		return new PlayerProfile(HandType.RANGE, range, null);
+	}
+
+	/**
+	 * Test of run method, of class TexasHoldemWorker, with ranges that can't be dealt together.
+	 */
+	@Test
+	public void testRunImpossibleRanges()
+	{
+		//2 players can have a pair of aces each
+		SimulationWorker worker = build(TexasHoldemWorker.builder(), aces(), aces(), random());
+		worker.run();
+		assertEquals(ROUNDS, worker.getResult().getRounds());
+
+		//but not 3 of them, or 2 of them if another player has an ace. run() would give the error to the
+		//notifiable, playBatch() throws it
+		try {
+			build(TexasHoldemWorker.builder(), aces(), aces(), aces()).playBatch();
+			fail("There are only 4 aces");
+		} catch (IllegalArgumentException ex) {
+		}
+
+		try {
+			build(TexasHoldemWorker.builder(), aces(), aces(), exact(new Card('A', 'c'), new Card('K', 'd'))).playBatch();
+			fail("There are only 3 aces left");
+		} catch (IllegalArgumentException ex) {
+		}
+
+		//an empty range can't be dealt either
+		try {
+			build(TexasHoldemWorker.builder(), new PlayerProfile(HandType.RANGE, new Range(), null), random()).playBatch();
+			fail("The range is empty");
+		} catch (IllegalArgumentException ex) {
+		}
+	}
+
+	/**
+	 * Test of getGameType method, of class GameWorker.
+	 */
+	@Test
+	public void testGetGameType()
+	{
+		assertEquals(PokerType.TEXAS_HOLDEM, build(TexasHoldemWorker.builder(), random(), random()).getGameType());
+		assertEquals(PokerType.OMAHA, build(OmahaWorker.builder(), random(), random()).getGameType());
+		assertEquals(PokerType.OMAHA_HILO, build(OmahaHiLoWorker.builder(), random(), random()).getGameType());
+		assertEquals(PokerType.FOMAHA, build(FiveCardOmahaWorker.builder(), random(), random()).getGameType());
+		assertEquals(PokerType.FOMAHA_HILO, build(FiveCardOmahaHiLoWorker.builder(), random(), random()).getGameType());
+	}
+
+	/**
+	 * Test of run method, of class GameWorker.
+	 */
+	@Test
+	public void testRun()
+	{
+		SimulationWorker worker = build(OmahaHiLoWorker.builder(),
+			random(),
+			random());
+
+		worker.run();
+
+		SimulationWorkerResult result = worker.getResult();
+
+		assertEquals(ROUNDS, result.getRounds());
+
+		for (int i = 0; i < 2; i++) {
+			double total = result.getWinPercentage(i) + result.getTiePercentage(i) + result.getLosePercentage(i);
+			assertEquals(100.0, total, 0.000001);
+		}
+
+		//the 2 players have the same chances. the standard deviation of the difference is about 0.35 points
+		//after these rounds, so a margin of 2 points never fails by chance
+		assertEquals(result.getWinPercentage(0), result.getWinPercentage(1), 2.0);
+	}
+
+	/**
+	 * Test of setSeed method, of class SimulationWorker.WorkerBuilder.
+	 */
+	@Test
+	public void testSetSeed()
+	{
+		SimulationWorkerResult alone = playSeeded(42);
+
+		//the same rounds are played by 3 workers that share a scheduler and take the batches in turns
+		RoundScheduler scheduler = new RoundScheduler(ROUNDS);
+		SimulationWorker[] workers = new SimulationWorker[3];
+
+		for (int i = 0; i < workers.length; i++) {
+			workers[i] = build(TexasHoldemWorker.builder().setScheduler(scheduler).setSeed(42L),
+				exact(new Card('A', 'h'), new Card('K', 'h')),
+				range(10),
+				random());
+		}
+
+		boolean played = true;
+		while (played) {
+			played = false;
+
+			for (SimulationWorker worker : workers) {
+				played |= worker.playBatch();
+			}
+		}
+
+		for (SimulationWorker worker : workers) {
+			worker.finish();
+		}
+
+		for (int j = 0; j < 3; j++) {
+			int wins = 0, ties = 0, loses = 0;
+
+			for (SimulationWorker worker : workers) {
+				wins += worker.getResult().getWins(j);
+				ties += worker.getResult().getTies(j);
+				loses += worker.getResult().getLoses(j);
+			}
+
+			assertEquals(alone.getWins(j), wins);
+			assertEquals(alone.getTies(j), ties);
+			assertEquals(alone.getLoses(j), loses);
+		}
+
+		//another seed gives other rounds
+		assertNotEquals(alone.getWins(0), playSeeded(43).getWins(0));
+	}
+
+	//plays all the rounds of a seeded worker
+	private static SimulationWorkerResult playSeeded(long seed)
+	{
+		SimulationWorker worker = build(TexasHoldemWorker.builder().setScheduler(new RoundScheduler(ROUNDS)).setSeed(seed),
+			exact(new Card('A', 'h'), new Card('K', 'h')),
+			range(10),
+			random());
+
+		worker.run();
+
+		return worker.getResult();
+	}
+}
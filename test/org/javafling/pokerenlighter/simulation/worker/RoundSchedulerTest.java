@@ -0,0 +1,118 @@
+package org.javafling.pokerenlighter.simulation.worker;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Radu Murzea
+ */
+public class RoundSchedulerTest
+{
+	/**
+	 * Test of nextBatch method, of class RoundScheduler.
+	 */
+	@Test
+	public void testNextBatch()
+	{
+		RoundScheduler scheduler = new RoundScheduler(25000, 1);
+		int rounds = 0;
+
+		for (int batch = scheduler.nextBatch(); batch >= 0; batch = scheduler.nextBatch()) {
+			assertEquals(rounds, batch);
+
+			rounds = scheduler.getBatchEnd(batch);
+		}
+
+		assertEquals(25000, rounds);
+		assertEquals(-1, scheduler.nextBatch());
+	}
+
+	/**
+	 * Test of stop method, of class RoundScheduler.
+	 */
+	@Test
+	public void testStop()
+	{
+		RoundScheduler scheduler = new RoundScheduler(1000, 1);
+
+		int batch = scheduler.nextBatch();
+		int batchRounds = scheduler.getBatchEnd(batch) - batch;
+
+		scheduler.stop();
+
+		//nothing is handed out after the stop, but the batch that was handed out must still be played
+		assertEquals(-1, scheduler.nextBatch());
+		assertFalse(scheduler.isFinished());
+
+		scheduler.finishRounds(batchRounds);
+		assertTrue(scheduler.isFinished());
+
+		//stopping again changes nothing
+		scheduler.stop();
+		assertEquals(-1, scheduler.nextBatch());
+		assertTrue(scheduler.isFinished());
+	}
+
+	/**
+	 * Test of stop method, of class RoundScheduler, while other threads take batches.
+	 */
+	@Test
+	public void testStopConcurrent() throws InterruptedException
+	{
+		for (int run = 0; run < 20; run++) {
+			final RoundScheduler scheduler = new RoundScheduler(Integer.MAX_VALUE, 4);
+			Thread[] threads = new Thread[3];
+
+			for (int i = 0; i < threads.length; i++) {
+				threads[i] = new Thread(new Runnable()
+				{
+					@Override
+					public void run()
+					{
+						for (int batch = scheduler.nextBatch(); batch >= 0; batch = scheduler.nextBatch()) {
+							scheduler.finishRounds(scheduler.getBatchEnd(batch) - batch);
+						}
+					}
+				});
+				threads[i].start();
+			}
+
+			Thread.sleep(5);
+			scheduler.stop();
+
+			//once stop() returned, no batch can be handed out anymore
+			assertEquals(-1, scheduler.nextBatch());
+
+			for (Thread thread : threads) {
+				thread.join();
+			}
+
+			//every round that was handed out was played
+			assertTrue(scheduler.isFinished());
+		}
+	}
+
+	/**
+	 * Test of isFinished method, of class RoundScheduler.
+	 */
+	@Test
+	public void testIsFinished()
+	{
+		RoundScheduler scheduler = new RoundScheduler(100, 1);
+
+		//all the rounds were handed out, but not played yet
+		while (scheduler.nextBatch() >= 0) {
+		}
+
+		assertFalse(scheduler.isFinished());
+
+		scheduler.finishRounds(100);
+		assertTrue(scheduler.isFinished());
+
+		//stopping a scheduler that handed out everything doesn't change it
+		scheduler.stop();
+		assertTrue(scheduler.isFinished());
+		assertEquals(100, scheduler.getFinishedRounds());
+	}
+}